@@ -49,6 +49,19 @@ public interface TimeDistribution<T> extends Cloneable, Serializable {
      */
     double getRate();
 
+    /**
+     * Propensity-independent distributions only change their next occurrence when
+     * their reaction gets executed (e.g., events happening at a fixed frequency):
+     * updates caused by changes in the reaction's dependencies never reschedule them,
+     * and can thus be skipped by the engine.
+     *
+     * @return true if {@link #update(Time, boolean, double, Environment)} has no effect
+     *         unless the reaction has just been executed
+     */
+    default boolean isPropensityIndependent() {
+        return false;
+    }
+
     /**
      * @param destination the node where the newly created time distribution will be placed
      * @param currentTime
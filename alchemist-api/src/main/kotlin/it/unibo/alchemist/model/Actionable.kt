@@ -88,6 +88,15 @@ sealed interface Actionable<T> :
      */
     val timeDistribution: TimeDistribution<T>
 
+    /**
+     * True if the scheduling of this reaction only changes when it gets executed,
+     * regardless of changes in its [inboundDependencies].
+     * Such reactions are not updated when their dependencies change, but only after their own execution.
+     * Implementations should return true only if non-executed updates have no effect at all
+     * (see [TimeDistribution.isPropensityIndependent]).
+     */
+    val isPropensityIndependent: Boolean get() = false
+
     /**
      * Updates the scheduling of this reaction.
      *
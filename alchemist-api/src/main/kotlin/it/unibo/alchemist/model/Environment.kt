@@ -196,6 +196,17 @@ interface Environment<T, P : Position<out P>> :
      */
     fun moveNodeToPosition(node: Node<T>, newPosition: P)
 
+    /**
+     * Moves every node in [newPositions] to the associated position, as a single batch.
+     * Positions are meant to be already valid (e.g., they have been computed by an external physics engine),
+     * hence implementations are allowed to skip any environment-specific constraint resolution,
+     * and to update neighborhoods and notify the simulation only once all the positions have been updated.
+     * The default implementation moves the nodes one at a time via [moveNodeToPosition].
+     */
+    fun moveNodesToPositions(newPositions: Map<Node<T>, P>) {
+        newPositions.forEach { (node, position) -> moveNodeToPosition(node, position) }
+    }
+
     /**
      * Removes [node].
      * If node removal is unsupported, it does nothing.
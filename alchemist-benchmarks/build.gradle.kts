@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+import Libs.alchemist
+import Libs.incarnation
+
+plugins {
+    id("kotlin-jvm-convention")
+    alias(libs.plugins.jmh)
+}
+
+dependencies {
+    jmh(alchemist("cognitive-agents"))
+    jmh(alchemist("engine"))
+    jmh(alchemist("euclidean-geometry"))
+    jmh(alchemist("implementationbase"))
+    jmh(alchemist("loading"))
+    jmh(alchemist("physics"))
+    jmh(incarnation("biochemistry"))
+    jmh(incarnation("protelis"))
+    jmh(incarnation("sapere"))
+    jmh(libs.apache.commons.math3)
+    jmhRuntimeOnly(libs.logback)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    /*
+     * Results are written as JSON, to be compared across commits.
+     * A subset of the benchmarks can be selected with -Pbenchmarks=<regex>.
+     */
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    providers.gradleProperty("benchmarks").orNull?.let { includes.add(it) }
+}
+
+/*
+ * Benchmarks are not part of the distribution.
+ */
+tasks.withType<AbstractPublishToMaven>().configureEach {
+    enabled = false
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.benchmarks
+
+import it.unibo.alchemist.core.ArrayIndexedPriorityQueue
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.linkingrules.NoLinks
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+
+/**
+ * Operations of the [ArrayIndexedPriorityQueue] scheduler, filled with the reactions of a biochemistry environment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class ArrayIndexedPriorityQueueBenchmark {
+    /**
+     * The number of nodes of the environment, each one has three reactions.
+     */
+    @Param("1000", "100000")
+    var nodes: Int = 0
+
+    private lateinit var environment: Environment<Double, Euclidean2DPosition>
+    private lateinit var reactions: List<Actionable<Double>>
+    private lateinit var scheduler: ArrayIndexedPriorityQueue<Double>
+    private var next = 0
+
+    /**
+     * Builds the environment and schedules all its reactions.
+     */
+    @Setup
+    fun setup() {
+        environment = biochemistryEnvironment(nodes, NoLinks())
+        reactions = environment.reactions
+        scheduler = ArrayIndexedPriorityQueue()
+        reactions.forEach {
+            it.initializationComplete(Time.ZERO, environment)
+            scheduler.addReaction(it)
+        }
+    }
+
+    /**
+     * Extracts the next reaction, reschedules it as the engine does after its execution, and returns it.
+     */
+    @Benchmark
+    fun executeNext(): Actionable<Double> {
+        val reaction = checkNotNull(scheduler.next)
+        reaction.update(reaction.tau, true, environment)
+        scheduler.updateReaction(reaction)
+        return reaction
+    }
+
+    /**
+     * Removes a reaction and adds it back, cycling through all the reactions.
+     */
+    @Benchmark
+    fun removeAndAdd(): Actionable<Double> {
+        val reaction = reactions[next]
+        next = (next + 1) % reactions.size
+        scheduler.removeReaction(reaction)
+        scheduler.addReaction(reaction)
+        return reaction
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.benchmarks
+
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.LinkingRule
+import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.linkingrules.ClosestN
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance
+import it.unibo.alchemist.model.linkingrules.FullyConnected
+import it.unibo.alchemist.model.linkingrules.NoLinks
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import kotlin.math.sqrt
+import org.apache.commons.math3.random.MersenneTwister
+import org.apache.commons.math3.random.RandomGenerator
+
+/**
+ * Seed of the random generators used to build the benchmarked structures, so that runs are comparable.
+ */
+const val BENCHMARK_SEED = 0
+
+/**
+ * Reactions installed in each node of the environments built by [biochemistryEnvironment]:
+ * two of them only act locally, the last one writes the neighborhood.
+ */
+val BENCHMARK_REACTIONS: List<String> = listOf("[a] --> [b]", "[b] --> [a]", "[a] --> [a in neighbor]")
+
+/**
+ * The linking rules that can be selected by name in the benchmarks:
+ * on average, nodes of environments built by [biochemistryEnvironment] have about three neighbors within distance one.
+ */
+fun linkingRule(name: String): LinkingRule<Double, Euclidean2DPosition> = when (name) {
+    "NoLinks" -> NoLinks()
+    "ConnectWithinDistance" -> ConnectWithinDistance(1.0)
+    "ClosestN" -> ClosestN(CLOSEST_NEIGHBORS)
+    "FullyConnected" -> FullyConnected()
+    else -> error("Unknown linking rule $name")
+}
+
+/**
+ * Builds a square [Continuous2DEnvironment] with [nodes] biochemistry nodes placed uniformly at random,
+ * with a density of one node per unit of area, connected through the [linkingRule].
+ * Each node contains some molecule `a` and runs the [BENCHMARK_REACTIONS], if [withReactions] is true.
+ */
+fun biochemistryEnvironment(
+    nodes: Int,
+    linkingRule: LinkingRule<Double, Euclidean2DPosition>,
+    random: RandomGenerator = MersenneTwister(BENCHMARK_SEED),
+    withReactions: Boolean = true,
+): Environment<Double, Euclidean2DPosition> {
+    val incarnation = BiochemistryIncarnation()
+    val environment = Continuous2DEnvironment(incarnation)
+    environment.linkingRule = linkingRule
+    val side = sqrt(nodes.toDouble())
+    repeat(nodes) {
+        val node = incarnation.createNode(random, environment, null)
+        node.setConcentration(incarnation.createMolecule("a"), INITIAL_CONCENTRATION)
+        if (withReactions) {
+            BENCHMARK_REACTIONS.forEach { program ->
+                node.addReaction(
+                    incarnation.createReaction(random, environment, node, ExponentialTime(1.0, random), program),
+                )
+            }
+        }
+        environment.addNode(node, environment.makePosition(random.nextDouble() * side, random.nextDouble() * side))
+    }
+    return environment
+}
+
+/**
+ * All the reactions of the nodes of this environment.
+ */
+val <T> Environment<T, *>.reactions: List<Reaction<T>> get() = nodes.flatMap { it.reactions }
+
+private const val CLOSEST_NEIGHBORS = 3
+
+private const val INITIAL_CONCENTRATION = 100.0
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.benchmarks
+
+import it.unibo.alchemist.boundary.exporters.CSVExporter
+import it.unibo.alchemist.boundary.exportfilters.CommonFilters
+import it.unibo.alchemist.boundary.extractors.MoleculeReader
+import it.unibo.alchemist.boundary.extractors.NodesPositions
+import it.unibo.alchemist.boundary.extractors.NumberOfNodes
+import it.unibo.alchemist.boundary.extractors.Time as TimeExtractor
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.linkingrules.NoLinks
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.times.DoubleTime
+import java.io.File
+import java.util.concurrent.TimeUnit
+import kotlin.io.path.createTempDirectory
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+
+/**
+ * Rows per second written by the [CSVExporter], exporting the time, the number of nodes,
+ * the per-node concentration of a molecule and the position of every node.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class CSVExporterBenchmark {
+    /**
+     * The number of nodes of the environment.
+     */
+    @Param("100", "1000")
+    var nodes: Int = 0
+
+    private lateinit var environment: Environment<Double, Euclidean2DPosition>
+    private lateinit var exporter: CSVExporter<Double, Euclidean2DPosition>
+    private lateinit var folder: File
+    private var step = 0L
+
+    /**
+     * Builds the environment and opens the export file.
+     */
+    @Setup
+    fun setup() {
+        environment = biochemistryEnvironment(nodes, NoLinks(), withReactions = false)
+        folder = createTempDirectory("alchemist-benchmark").toFile()
+        exporter = CSVExporter("benchmark", exportPath = folder.absolutePath)
+        exporter.bindDataExtractors(
+            listOf(
+                TimeExtractor(),
+                NumberOfNodes(),
+                MoleculeReader("a", null, environment.incarnation, CommonFilters.NOFILTER.filteringPolicy, emptyList()),
+                NodesPositions(environment),
+            ),
+        )
+        exporter.bindVariables(emptyMap<String, Any>())
+        exporter.setup(environment)
+    }
+
+    /**
+     * Writes a row.
+     */
+    @Benchmark
+    fun exportRow(): Long {
+        step++
+        exporter.exportData(environment, null, DoubleTime(step.toDouble()), step)
+        return step
+    }
+
+    /**
+     * Closes the export file, and deletes it.
+     */
+    @TearDown
+    fun tearDown() {
+        exporter.close(environment, DoubleTime(step.toDouble()), step)
+        folder.deleteRecursively()
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.benchmarks
+
+import it.unibo.alchemist.boundary.LoadAlchemist
+import it.unibo.alchemist.core.Simulation
+import it.unibo.alchemist.core.Status
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OperationsPerInvocation
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+
+/**
+ * Steps per second executed by the engine on the reference scenarios in the `scenarios` resource folder.
+ * Each iteration runs a fresh simulation, which is paused between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class EngineBenchmark {
+    /**
+     * The name of the scenario.
+     */
+    @Param("sapere", "protelis", "biochemistry", "pedestrians")
+    var scenario: String = ""
+
+    private lateinit var simulation: Simulation<Any, Euclidean2DPosition>
+    private lateinit var thread: Thread
+
+    /**
+     * Loads the scenario and starts its simulation, which waits to be played.
+     */
+    @Setup(Level.Iteration)
+    fun setup() {
+        val resource = requireNotNull(javaClass.getResource("/scenarios/$scenario.yml")) { "No scenario $scenario" }
+        simulation = LoadAlchemist.from(resource).getDefault()
+        thread = Thread(simulation, "$scenario-benchmark").apply { start() }
+        check(simulation.waitFor(Status.READY, TIMEOUT_SECONDS, TimeUnit.SECONDS) == Status.READY) {
+            "The simulation of $scenario did not start"
+        }
+    }
+
+    /**
+     * Executes [STEPS] steps of the simulation.
+     */
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    fun steps(): Long {
+        val paused = simulation.goToStep(simulation.step + STEPS)
+        simulation.play()
+        paused.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        simulation.error.ifPresent { throw IllegalStateException("The simulation of $scenario failed", it) }
+        return simulation.step
+    }
+
+    /**
+     * Terminates the simulation.
+     */
+    @TearDown(Level.Iteration)
+    fun tearDown() {
+        simulation.terminate()
+        thread.join()
+    }
+
+    private companion object {
+        private const val STEPS = 1000
+        private const val TIMEOUT_SECONDS = 60L
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.benchmarks
+
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.util.concurrent.TimeUnit
+import kotlin.math.sqrt
+import org.apache.commons.math3.random.MersenneTwister
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+
+/**
+ * Node movements and range queries of the environment, under each of the linking rules of [linkingRule].
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class EnvironmentBenchmark {
+    /**
+     * The number of nodes of the environment.
+     */
+    @Param("1000", "4000")
+    var nodes: Int = 0
+
+    /**
+     * The name of the linking rule, see [linkingRule].
+     */
+    @Param("NoLinks", "ConnectWithinDistance", "ClosestN", "FullyConnected")
+    var linkingRule: String = ""
+
+    private lateinit var environment: Environment<Double, Euclidean2DPosition>
+    private lateinit var nodeList: List<Node<Double>>
+    private lateinit var positions: List<Euclidean2DPosition>
+    private var next = 0
+
+    /**
+     * Builds the environment, and a sequence of random positions within it.
+     */
+    @Setup
+    fun setup() {
+        val random = MersenneTwister(BENCHMARK_SEED)
+        environment = biochemistryEnvironment(nodes, linkingRule(linkingRule), random, withReactions = false)
+        nodeList = environment.nodes.toList()
+        val side = sqrt(nodes.toDouble())
+        positions = List(POSITIONS) { environment.makePosition(random.nextDouble() * side, random.nextDouble() * side) }
+    }
+
+    private fun nextPosition(): Euclidean2DPosition = positions[next++ % POSITIONS]
+
+    /**
+     * Moves a node to a random position, updating the neighborhoods.
+     */
+    @Benchmark
+    fun moveNode(): Node<Double> {
+        val node = nodeList[next % nodeList.size]
+        environment.moveNodeToPosition(node, nextPosition())
+        return node
+    }
+
+    /**
+     * Finds the nodes within a range from a random position.
+     */
+    @Benchmark
+    fun nodesWithinRange(): Int = environment.getNodesWithinRange(nextPosition(), QUERY_RANGE).size
+
+    private companion object {
+        private const val POSITIONS = 1024
+        private const val QUERY_RANGE = 2.0
+    }
+}
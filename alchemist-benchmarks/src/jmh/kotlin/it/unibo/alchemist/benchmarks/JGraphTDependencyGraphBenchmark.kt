@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.benchmarks
+
+import it.unibo.alchemist.core.JGraphTDependencyGraph
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.util.concurrent.TimeUnit
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+
+/**
+ * Creation and neighborhood updates of the [JGraphTDependencyGraph] of a biochemistry environment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class JGraphTDependencyGraphBenchmark {
+    /**
+     * The number of nodes of the environment, each one has three reactions.
+     */
+    @Param("1000", "10000")
+    var nodes: Int = 0
+
+    private lateinit var environment: Environment<Double, Euclidean2DPosition>
+    private lateinit var reactions: List<Reaction<Double>>
+    private lateinit var graph: JGraphTDependencyGraph<Double>
+    private lateinit var links: List<Pair<Node<Double>, Node<Double>>>
+    private var next = 0
+
+    /**
+     * Builds the environment and its dependency graph.
+     */
+    @Setup
+    fun setup() {
+        environment = biochemistryEnvironment(nodes, linkingRule("ConnectWithinDistance"))
+        reactions = environment.reactions
+        graph = createGraph()
+        links =
+            environment.nodes.flatMap { node ->
+                environment.getNeighborhood(node).neighbors.filter { it.id > node.id }.map { node to it }
+            }
+        check(links.isNotEmpty()) { "No links in the benchmarked environment" }
+    }
+
+    /**
+     * Creates the dependency graph of the whole environment.
+     */
+    @Benchmark
+    fun createGraph(): JGraphTDependencyGraph<Double> = JGraphTDependencyGraph(environment).apply {
+        reactions.forEach { createDependencies(it) }
+    }
+
+    /**
+     * Removes a link between two nodes and adds it back, cycling through all the links of the environment.
+     */
+    @Benchmark
+    fun removeAndAddNeighbor(): JGraphTDependencyGraph<Double> {
+        val (first, second) = links[next]
+        next = (next + 1) % links.size
+        graph.removeNeighbor(first, second)
+        graph.addNeighbor(first, second)
+        return graph
+    }
+}
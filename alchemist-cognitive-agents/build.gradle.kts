@@ -22,6 +22,7 @@ dependencies {
     implementation(alchemist("euclidean-geometry"))
     implementation(alchemist("implementationbase"))
     implementation(alchemist("physics"))
+    implementation(libs.guava)
     implementation(libs.jgrapht.core)
     implementation(libs.konf)
     implementation(libs.kotlin.reflect)
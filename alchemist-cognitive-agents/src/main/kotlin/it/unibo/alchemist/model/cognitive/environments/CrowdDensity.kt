@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.cognitive.environments
+
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.geometry.ConvexPolygon
+import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DNavigationGraph
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.io.Serializable
+
+/**
+ * Keeps track of how many nodes occupy each area of a navigation [graph].
+ * Counts are updated incrementally as nodes are added, moved and removed, so that reading the
+ * [occupancy] of an area costs a single lookup instead of a range query.
+ * Locating the area of a moved node first checks the area it was in and its neighbors,
+ * falling back to a full search only when the node jumps farther.
+ *
+ * @param T the concentration type.
+ */
+class CrowdDensity<T>(private val graph: Euclidean2DNavigationGraph) : Serializable {
+    private val nodeToArea: MutableMap<Node<T>, ConvexPolygon> = HashMap()
+    private val counts: MutableMap<ConvexPolygon, Int> = HashMap()
+
+    /**
+     * The number of nodes currently located inside [area].
+     */
+    fun occupancy(area: ConvexPolygon): Int = counts[area] ?: 0
+
+    /**
+     * Registers that [node] has been added or moved to [position].
+     */
+    fun nodeMoved(node: Node<T>, position: Euclidean2DPosition) {
+        val previous = nodeToArea[node]
+        if (previous == null || !previous.contains(position)) {
+            val current = areaContaining(position, previous)
+            previous?.let { decrement(it) }
+            if (current == null) {
+                nodeToArea.remove(node)
+            } else {
+                nodeToArea[node] = current
+                counts[current] = occupancy(current) + 1
+            }
+        }
+    }
+
+    /**
+     * Registers that [node] has been removed.
+     */
+    fun nodeRemoved(node: Node<T>) {
+        nodeToArea.remove(node)?.let { decrement(it) }
+    }
+
+    private fun decrement(area: ConvexPolygon) {
+        val count = occupancy(area)
+        if (count <= 1) {
+            counts.remove(area)
+        } else {
+            counts[area] = count - 1
+        }
+    }
+
+    private fun areaContaining(position: Euclidean2DPosition, hint: ConvexPolygon?): ConvexPolygon? = hint
+        ?.let { area ->
+            graph
+                .outgoingEdgesOf(area)
+                .asSequence()
+                .map { graph.getEdgeTarget(it) }
+                .firstOrNull { it.contains(position) }
+        }
+        ?: graph.nodeContaining(position)
+
+    private companion object {
+        private const val serialVersionUID = 1L
+    }
+}
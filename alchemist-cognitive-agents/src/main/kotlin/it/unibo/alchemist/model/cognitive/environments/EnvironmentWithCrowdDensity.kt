@@ -0,0 +1,23 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.cognitive.environments
+
+/**
+ * An environment keeping the [CrowdDensity] of the areas of its navigation graph up to date,
+ * allowing navigation strategies to estimate congestion without querying the environment.
+ *
+ * @param T the concentration type.
+ */
+interface EnvironmentWithCrowdDensity<T> {
+    /**
+     * The occupancy of the areas of the navigation graph, or null if this environment has no navigation graph.
+     */
+    val crowdDensity: CrowdDensity<T>?
+}
@@ -42,6 +42,9 @@ private typealias PhysicsEnvWithObstacles<T> =
  * perform collision detection and response.
  * If an image path is provided a backing [ImageEnvironmentWithGraph] is used, otherwise
  * the [Continuous2DEnvironment] will be used.
+ * The [crowdDensity] is the one of the backing environment, if it tracks it.
+ * If [socialForceKernel] is true, the social forces of physical pedestrians are computed for the whole crowd at once
+ * by a [SocialForceKernel], from the state of the crowd at the beginning of each physics update.
  */
 class EnvironmentWithDynamics<T>
 @JvmOverloads
@@ -53,14 +56,25 @@ constructor(
     dy: Double = 0.0,
     obstaclesColor: Int = Color.BLACK.rgb,
     roomsColor: Int = Color.BLUE.rgb,
+    socialForceKernel: Boolean = false,
     private val backingEnvironment: Physics2DEnvironment<T> =
         path?.let {
             ImageEnvironmentWithGraph(incarnation, it, zoom, dx, dy, obstaclesColor, roomsColor)
         } ?: ContinuousPhysics2DEnvironment(incarnation),
 ) : Dynamics2DEnvironment<T>,
+    EnvironmentWithCrowdDensity<T>,
     PhysicsEnvWithObstacles<T> by backingEnvironment.asEnvironmentWithObstacles() {
     private val world: World<PhysicsBody> = World()
 
+    /**
+     * The kernel computing the social forces of the physical pedestrians, if enabled.
+     */
+    val socialForces: SocialForceKernel<T>? = if (socialForceKernel) SocialForceKernel(this) else null
+
+    @Suppress("UNCHECKED_CAST")
+    override val crowdDensity: CrowdDensity<T>? =
+        (backingEnvironment as? EnvironmentWithCrowdDensity<T>)?.crowdDensity
+
     private val nodeToBody: MutableMap<Node<T>, PhysicsBody> = mutableMapOf()
 
     private var physicsUpdate = PhysicsUpdate(this, 1.0)
@@ -141,6 +155,7 @@ constructor(
     }
 
     private fun moveNodeBodyToPosition(node: Node<T>, position: Euclidean2DPosition) {
+        socialForces?.invalidate()
         nodeToBody[node]?.transform =
             Transform().apply {
                 translate(position.x, position.y)
@@ -152,6 +167,22 @@ constructor(
         moveNodeBodyToPosition(node, backingEnvironment.getPosition(node))
     }
 
+    override fun moveNodeToPosition(node: Node<T>, newPosition: Euclidean2DPosition) {
+        backingEnvironment.moveNodeToPosition(node, newPosition)
+        moveNodeBodyToPosition(node, backingEnvironment.getPosition(node))
+    }
+
+    override fun moveNodesToPositions(newPositions: Map<Node<T>, Euclidean2DPosition>) {
+        backingEnvironment.moveNodesToPositions(newPositions)
+        newPositions.keys.forEach { moveNodeBodyToPosition(it, backingEnvironment.getPosition(it)) }
+    }
+
+    override fun removeNode(node: Node<T>) {
+        backingEnvironment.removeNode(node)
+        nodeToBody.remove(node)?.let { world.removeBody(it) }
+        socialForces?.invalidate()
+    }
+
     private fun addPhysicalProperties(body: PhysicsBody, radius: Double) {
         body.addFixture(Circle(radius))
         body.setMass(MassType.NORMAL)
@@ -168,18 +199,29 @@ constructor(
     override fun updatePhysics(elapsedTime: Double) {
         world.update(elapsedTime, Int.MAX_VALUE)
         /*
-         * Make world and environment position consistent
+         * Make world and environment position consistent. Collisions have already been solved by the physics
+         * engine, so only the bodies that actually moved get committed, in a single batch.
          */
+        val moved = LinkedHashMap<Node<T>, Euclidean2DPosition>()
         nodeToBody.forEach { (node, body) ->
-            moveNodeToPosition(node, body.position)
+            val transform = body.transform
+            val current = backingEnvironment.getPosition(node)
+            if (current.x != transform.translationX || current.y != transform.translationY) {
+                moved[node] = Euclidean2DPosition(transform.translationX, transform.translationY)
+            }
         }
+        backingEnvironment.moveNodesToPositions(moved)
+        socialForces?.invalidate()
     }
 
-    override fun getPosition(node: Node<T>): Euclidean2DPosition = nodeToBody[node]?.position
-        ?: throw IllegalArgumentException("Unable to find $node's position in the environment.")
-
-    private val PhysicsBody.position get() =
-        Euclidean2DPosition(this.transform.translationX, this.transform.translationY)
+    /**
+     * Positions are served by the backing environment, which is kept in sync with the physical world
+     * at every [updatePhysics].
+     */
+    override fun getPosition(node: Node<T>): Euclidean2DPosition {
+        require(node in nodeToBody) { "Unable to find $node's position in the environment." }
+        return backingEnvironment.getPosition(node)
+    }
 
     override val origin: Euclidean2DPosition get() = backingEnvironment.origin
 
@@ -10,6 +10,8 @@
 package it.unibo.alchemist.model.cognitive.environments
 
 import it.unibo.alchemist.model.Incarnation
+import it.unibo.alchemist.model.Neighborhood
+import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.geometry.AwtMutableConvexPolygon
 import it.unibo.alchemist.model.geometry.ConvexPolygon
 import it.unibo.alchemist.model.geometry.Segment2D
@@ -50,7 +52,8 @@ constructor(
         T,
         ConvexPolygon,
         Euclidean2DPassage,
-        > {
+        >,
+    EnvironmentWithCrowdDensity<T> {
     override val graph: Euclidean2DNavigationGraph
 
     init {
@@ -72,6 +75,28 @@ constructor(
             ).map { Euclidean2DPosition(it.x * zoom + dx, (img.height - it.y) * zoom + dy) }
     }
 
+    override val crowdDensity: CrowdDensity<T> = CrowdDensity(graph)
+
+    override fun nodeAdded(node: Node<T>, position: Euclidean2DPosition, neighborhood: Neighborhood<T>) {
+        super.nodeAdded(node, position, neighborhood)
+        crowdDensity.nodeMoved(node, getPosition(node))
+    }
+
+    override fun nodeRemoved(node: Node<T>, neighborhood: Neighborhood<T>) {
+        super.nodeRemoved(node, neighborhood)
+        crowdDensity.nodeRemoved(node)
+    }
+
+    override fun moveNodeToPosition(node: Node<T>, newPosition: Euclidean2DPosition) {
+        super.moveNodeToPosition(node, newPosition)
+        crowdDensity.nodeMoved(node, getPosition(node))
+    }
+
+    override fun moveNodesToPositions(newPositions: Map<Node<T>, Euclidean2DPosition>) {
+        super.moveNodesToPositions(newPositions)
+        newPositions.keys.forEach { crowdDensity.nodeMoved(it, getPosition(it)) }
+    }
+
     private fun Euclidean2DNavigationGraph.map(
         mapper: (Euclidean2DPosition) -> Euclidean2DPosition,
     ): Euclidean2DNavigationGraph {
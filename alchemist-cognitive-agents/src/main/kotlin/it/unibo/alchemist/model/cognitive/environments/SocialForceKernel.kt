@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.cognitive.environments
+
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.Node.Companion.asPropertyOrNull
+import it.unibo.alchemist.model.cognitive.properties.PhysicalPedestrian2D.Companion.DIRECTION_WEIGHT
+import it.unibo.alchemist.model.cognitive.properties.PhysicalPedestrian2D.Companion.FALLEN_AGENT_PERCEPTION_RADIUS
+import it.unibo.alchemist.model.cognitive.properties.PhysicalPedestrian2D.Companion.rectangleOfInfluenceDimensions
+import it.unibo.alchemist.model.physics.environments.Dynamics2DEnvironment
+import it.unibo.alchemist.model.physics.properties.AreaProperty
+import it.unibo.alchemist.model.physics.properties.PhysicalPedestrian2D
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.io.Serializable
+import java.util.stream.IntStream
+import kotlin.math.abs
+import kotlin.math.atan2
+import kotlin.math.cos
+import kotlin.math.floor
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.sin
+import kotlin.math.sqrt
+
+/**
+ * Computes the social forces (repulsion, avoidance and fallen agent avoidance, see
+ * [it.unibo.alchemist.model.cognitive.properties.PhysicalPedestrian2D]) of all the physical pedestrians
+ * of an [environment] in a single pass.
+ *
+ * The first time forces are requested after an [invalidate], the state of the crowd (positions, velocities,
+ * headings, footprints and fallen agents) is copied into primitive columns, nodes are bucketed into a uniform grid,
+ * and the forces of all pedestrians are computed in parallel, each one visiting only the cells overlapping
+ * its areas of influence.
+ * Forces are thus synchronous: they reflect the state of the crowd at the beginning of a physics step,
+ * changes of velocity and falls occurring within the step are perceived by the other pedestrians in the next one.
+ * Forces of the same kind are accumulated, hence each returned list holds at most one vector: the resultant.
+ *
+ * @param T the concentration type.
+ */
+class SocialForceKernel<T>(private val environment: Dynamics2DEnvironment<T>) : Serializable {
+    private var upToDate = false
+    private val slots: MutableMap<Node<T>, Int> = HashMap()
+    private var size = 0
+    private var xs = DoubleArray(0)
+    private var ys = DoubleArray(0)
+    private var velocities = DoubleArray(0)
+    private var headings = DoubleArray(0)
+    private var radii = DoubleArray(0)
+    private var comfortRanges = DoubleArray(0)
+    private var fallen = BooleanArray(0)
+    private var repulsion = DoubleArray(0)
+    private var avoidance = DoubleArray(0)
+    private var fallenAvoidance = DoubleArray(0)
+    private var largestHalfSide = 0.0
+    private var minX = 0.0
+    private var minY = 0.0
+    private var cellSize = 1.0
+    private var columns = 0
+    private var rows = 0
+    private var cellStarts = IntArray(0)
+    private var cellContents = IntArray(0)
+
+    /**
+     * Discards the computed forces, which get computed anew when next requested.
+     * Must be called whenever nodes get added, removed or moved.
+     */
+    fun invalidate() {
+        upToDate = false
+    }
+
+    /**
+     * The repulsion force [node] is subject to, see [PhysicalPedestrian2D.repulsionForces].
+     */
+    fun repulsionForces(node: Node<T>): List<Euclidean2DPosition> = forceOf(node, repulsion)
+
+    /**
+     * The avoidance force [node] is subject to, see [PhysicalPedestrian2D.avoidanceForces].
+     */
+    fun avoidanceForces(node: Node<T>): List<Euclidean2DPosition> = forceOf(node, avoidance)
+
+    /**
+     * The fallen agent avoidance force [node] is subject to, see [PhysicalPedestrian2D.fallenAgentAvoidanceForces].
+     */
+    fun fallenAgentAvoidanceForces(node: Node<T>): List<Euclidean2DPosition> = forceOf(node, fallenAvoidance)
+
+    private fun forceOf(node: Node<T>, forces: DoubleArray): List<Euclidean2DPosition> {
+        if (!upToDate) {
+            update()
+        }
+        return slots[node]
+            ?.let { Euclidean2DPosition(forces[2 * it], forces[2 * it + 1]) }
+            ?.takeIf { it.magnitude > Double.MIN_VALUE }
+            ?.let(::listOf)
+            .orEmpty()
+    }
+
+    private fun update() {
+        snapshot()
+        buildGrid()
+        val pedestrians = IntStream.range(0, size)
+        (if (size >= PARALLELISM_THRESHOLD) pedestrians.parallel() else pedestrians).forEach(::computeForces)
+        upToDate = true
+    }
+
+    /*
+     * Copies the state of the crowd, reading nodes and properties only on the calling thread.
+     */
+    private fun snapshot() {
+        val nodes = environment.nodes
+        size = nodes.size
+        if (xs.size < size) {
+            xs = DoubleArray(size)
+            ys = DoubleArray(size)
+            velocities = DoubleArray(2 * size)
+            headings = DoubleArray(2 * size)
+            radii = DoubleArray(size)
+            comfortRanges = DoubleArray(size)
+            fallen = BooleanArray(size)
+            repulsion = DoubleArray(2 * size)
+            avoidance = DoubleArray(2 * size)
+            fallenAvoidance = DoubleArray(2 * size)
+        }
+        slots.clear()
+        largestHalfSide = 0.0
+        nodes.forEachIndexed { slot, node ->
+            slots[node] = slot
+            val position = environment.getPosition(node)
+            val velocity = environment.getVelocity(node)
+            val heading = environment.getHeading(node)
+            val physics = node.asPropertyOrNull<T, PhysicalPedestrian2D<T>>()
+            xs[slot] = position.x
+            ys[slot] = position.y
+            velocities[2 * slot] = velocity.x
+            velocities[2 * slot + 1] = velocity.y
+            headings[2 * slot] = heading.x
+            headings[2 * slot + 1] = heading.y
+            radii[slot] = node.asPropertyOrNull<T, AreaProperty<T>>()?.shape?.radius ?: 0.0
+            comfortRanges[slot] = physics?.let { radii[slot] + it.comfortRay } ?: NOT_A_PEDESTRIAN
+            fallen[slot] = physics?.isFallen ?: false
+            largestHalfSide = max(largestHalfSide, halfSide(slot))
+        }
+    }
+
+    /*
+     * Shapes are circles, whose radius (as per Shape.radius) is half the diagonal of their bounding box.
+     * Areas of influence are tested against such bounding boxes, as in AwtEuclidean2DShape.intersects.
+     */
+    private fun halfSide(slot: Int) = radii[slot] / SQRT_2
+
+    /*
+     * Counting sort of the nodes into a uniform grid, growing the cells if the grid would be too sparse.
+     */
+    private fun buildGrid() {
+        var maxX = Double.NEGATIVE_INFINITY
+        var maxY = Double.NEGATIVE_INFINITY
+        minX = Double.POSITIVE_INFINITY
+        minY = Double.POSITIVE_INFINITY
+        var largestRange = FALLEN_AGENT_PERCEPTION_RADIUS
+        for (slot in 0 until size) {
+            minX = min(minX, xs[slot])
+            minY = min(minY, ys[slot])
+            maxX = max(maxX, xs[slot])
+            maxY = max(maxY, ys[slot])
+            largestRange = max(largestRange, comfortRanges[slot])
+        }
+        if (size == 0) {
+            columns = 0
+            rows = 0
+            cellStarts = IntArray(1)
+            return
+        }
+        cellSize = largestRange + 2 * largestHalfSide
+        val maxCells = size.toDouble() * CELLS_PER_NODE
+        val cells = (floor((maxX - minX) / cellSize) + 1) * (floor((maxY - minY) / cellSize) + 1)
+        if (cells > maxCells) {
+            cellSize *= sqrt(cells / maxCells) + 1
+        }
+        columns = floor((maxX - minX) / cellSize).toInt() + 1
+        rows = floor((maxY - minY) / cellSize).toInt() + 1
+        cellStarts = IntArray(columns * rows + 1)
+        if (cellContents.size < size) {
+            cellContents = IntArray(size)
+        }
+        for (slot in 0 until size) {
+            cellStarts[cellOf(slot) + 1]++
+        }
+        for (cell in 1 until cellStarts.size) {
+            cellStarts[cell] += cellStarts[cell - 1]
+        }
+        val next = cellStarts.copyOf(cellStarts.size - 1)
+        for (slot in 0 until size) {
+            cellContents[next[cellOf(slot)]++] = slot
+        }
+    }
+
+    private fun cellOf(slot: Int) = column(xs[slot]) + row(ys[slot]) * columns
+
+    private fun column(x: Double) = floor((x - minX) / cellSize).toInt().coerceIn(0, columns - 1)
+
+    private fun row(y: Double) = floor((y - minY) / cellSize).toInt().coerceIn(0, rows - 1)
+
+    /*
+     * Runs in parallel: reads the snapshot and only writes the forces of the pedestrian in the provided slot.
+     */
+    private fun computeForces(slot: Int) {
+        repulsion.clear(slot)
+        avoidance.clear(slot)
+        fallenAvoidance.clear(slot)
+        val comfortRange = comfortRanges[slot]
+        if (comfortRange == NOT_A_PEDESTRIAN) {
+            return
+        }
+        val x = xs[slot]
+        val y = ys[slot]
+        val (length, width) = rectangleOfInfluenceDimensions
+        val headingX = headings[2 * slot]
+        val headingY = headings[2 * slot + 1]
+        val angle = atan2(headingY, headingX)
+        val rectangle =
+            OrientedRectangle(
+                x + headingX * length / 2,
+                y + headingY * length / 2,
+                cos(angle),
+                sin(angle),
+                length / 2,
+                width / 2,
+            )
+        val reach = maxOf(comfortRange, FALLEN_AGENT_PERCEPTION_RADIUS) + largestHalfSide
+        forEachCandidate(
+            min(x - reach, rectangle.centerX - rectangle.extentX - largestHalfSide),
+            min(y - reach, rectangle.centerY - rectangle.extentY - largestHalfSide),
+            max(x + reach, rectangle.centerX + rectangle.extentX + largestHalfSide),
+            max(y + reach, rectangle.centerY + rectangle.extentY + largestHalfSide),
+        ) { other ->
+            val halfSide = halfSide(other)
+            if (other != slot && halfSide > 0) {
+                if (!fallen[other] && circleIntersects(x, y, comfortRange, other, halfSide)) {
+                    repulse(slot, other, comfortRange)
+                }
+                if (rectangle.intersects(xs[other], ys[other], halfSide)) {
+                    avoid(slot, other, avoidance)
+                }
+                if (fallen[other] && circleIntersects(x, y, FALLEN_AGENT_PERCEPTION_RADIUS, other, halfSide)) {
+                    avoid(slot, other, fallenAvoidance)
+                }
+            }
+        }
+    }
+
+    private inline fun forEachCandidate(
+        fromX: Double,
+        fromY: Double,
+        toX: Double,
+        toY: Double,
+        action: (Int) -> Unit,
+    ) {
+        for (row in row(fromY)..row(toY)) {
+            for (cell in row * columns + column(fromX)..row * columns + column(toX)) {
+                for (index in cellStarts[cell] until cellStarts[cell + 1]) {
+                    action(cellContents[index])
+                }
+            }
+        }
+    }
+
+    private fun circleIntersects(x: Double, y: Double, radius: Double, other: Int, halfSide: Double): Boolean {
+        val dx = max(abs(xs[other] - x) - halfSide, 0.0)
+        val dy = max(abs(ys[other] - y) - halfSide, 0.0)
+        return dx * dx + dy * dy < radius * radius
+    }
+
+    private fun repulse(slot: Int, other: Int, comfortRange: Double) {
+        val dx = xs[slot] - xs[other]
+        val dy = ys[slot] - ys[other]
+        val distance = sqrt(dx * dx + dy * dy)
+        val intensity = (comfortRange + radii[other] - distance).coerceAtLeast(0.0) / distance
+        if (distance > 0 && intensity > 0) {
+            repulsion[2 * slot] += dx * intensity
+            repulsion[2 * slot + 1] += dy * intensity
+        }
+    }
+
+    private fun avoid(slot: Int, other: Int, forces: DoubleArray) {
+        val dx = xs[slot] - xs[other]
+        val dy = ys[slot] - ys[other]
+        val velocityX = velocities[2 * slot]
+        val velocityY = velocities[2 * slot + 1]
+        /*
+         * (distance × velocity) × distance, which lives on the plane
+         */
+        val cross = dx * velocityY - dy * velocityX
+        val tangentialX = -cross * dy
+        val tangentialY = cross * dx
+        val magnitude = sqrt(tangentialX * tangentialX + tangentialY * tangentialY)
+        if (magnitude > 0) {
+            val distanceWeight = sqrt(dx * dx + dy * dy) - rectangleOfInfluenceDimensions.first / 2
+            val sameDirection = velocityX * velocities[2 * other] + velocityY * velocities[2 * other + 1] > 0
+            val directionWeight = if (sameDirection) DIRECTION_WEIGHT else 2 * DIRECTION_WEIGHT
+            val weight = distanceWeight * distanceWeight * directionWeight
+            forces[2 * slot] += tangentialX / magnitude * weight
+            forces[2 * slot + 1] += tangentialY / magnitude * weight
+        }
+    }
+
+    private fun DoubleArray.clear(slot: Int) {
+        this[2 * slot] = 0.0
+        this[2 * slot + 1] = 0.0
+    }
+
+    /*
+     * A rectangle centered in (centerX, centerY) whose sides are aligned to (cos, sin) and to its normal.
+     */
+    private class OrientedRectangle(
+        val centerX: Double,
+        val centerY: Double,
+        val cos: Double,
+        val sin: Double,
+        val halfLength: Double,
+        val halfWidth: Double,
+    ) {
+        val extentX = halfLength * abs(cos) + halfWidth * abs(sin)
+        val extentY = halfLength * abs(sin) + halfWidth * abs(cos)
+
+        /*
+         * Separating axis test against the axis-aligned square centered in (x, y).
+         */
+        fun intersects(x: Double, y: Double, halfSide: Double): Boolean {
+            val dx = x - centerX
+            val dy = y - centerY
+            val projection = halfSide * (abs(cos) + abs(sin))
+            return abs(dx) < extentX + halfSide &&
+                abs(dy) < extentY + halfSide &&
+                abs(dx * cos + dy * sin) < halfLength + projection &&
+                abs(dy * cos - dx * sin) < halfWidth + projection
+        }
+    }
+
+    private companion object {
+        private const val serialVersionUID = 1L
+        private const val NOT_A_PEDESTRIAN = -1.0
+        private const val PARALLELISM_THRESHOLD = 256
+        private const val CELLS_PER_NODE = 4
+        private val SQRT_2 = sqrt(2.0)
+    }
+}
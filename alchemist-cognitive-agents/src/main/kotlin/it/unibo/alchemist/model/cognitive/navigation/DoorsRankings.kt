@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.cognitive.navigation
+
+import com.google.common.collect.MapMaker
+import it.unibo.alchemist.model.geometry.ConvexPolygon
+import it.unibo.alchemist.model.geometry.Segment2DImpl
+import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DNavigationGraph
+import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DPassage
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.util.concurrent.ConcurrentHashMap
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath
+import org.jgrapht.graph.DefaultEdge
+import org.jgrapht.graph.DefaultUndirectedWeightedGraph
+
+/**
+ * Door rankings (see [Pursue.computeDoorsRankings]) shared among all the pedestrians navigating the same
+ * [Euclidean2DNavigationGraph].
+ * The rankings of the doors of a room only depend on the room itself, on its outgoing passages, and on the
+ * destination: they are computed once per (room, destination) pair, with a single Dijkstra visit rooted in the
+ * destination, and then served from the cache.
+ * Entries are invalidated whenever the doors in sight from the room change;
+ * graphs are weakly referenced, so that tables are discarded along with the environment they belong to.
+ * Graphs are compared by identity, as their equality and hash code visit all their vertices and edges.
+ */
+object DoorsRankings {
+    private val tables: MutableMap<Euclidean2DNavigationGraph, MutableMap<RoomAndDestination, Rankings>> =
+        MapMaker().weakKeys().makeMap()
+
+    /**
+     * Returns the rankings of the [doorsInSight] of [room] (a node of [graph]), a lower rank meaning the passage
+     * is preferable to reach the [destination].
+     */
+    fun of(
+        graph: Euclidean2DNavigationGraph,
+        room: ConvexPolygon,
+        doorsInSight: List<Euclidean2DPassage>,
+        destination: Euclidean2DPosition,
+    ): Map<Euclidean2DPassage, Int> {
+        val table = tables.computeIfAbsent(graph) { ConcurrentHashMap() }
+        val key = RoomAndDestination(room, destination)
+        val cached = table[key]
+        if (cached != null && cached.doors == doorsInSight) {
+            return cached.rankings
+        }
+        return Rankings(doorsInSight.toList(), compute(room, doorsInSight, destination))
+            .also { table[key] = it }
+            .rankings
+    }
+
+    /**
+     * Computes the rankings from scratch. The shortest paths are computed in a graph composed of the doors'
+     * midpoints, the room vertices and the [destination], under the constraint that paths must bypass [room].
+     */
+    fun compute(
+        room: ConvexPolygon,
+        doorsInSight: List<Euclidean2DPassage>,
+        destination: Euclidean2DPosition,
+    ): Map<Euclidean2DPassage, Int> {
+        val graph = DefaultUndirectedWeightedGraph<Euclidean2DPosition, DefaultEdge>(DefaultEdge::class.java)
+        /*
+         * Maps each door's midpoint to the correspondent door object
+         */
+        val doors = doorsInSight.map { it.passageShapeOnTail.midPoint to it }
+        (room.vertices() + doors.map { it.first } + destination).forEach { graph.addVertex(it) }
+        room.edges().forEach { side ->
+            /*
+             * The midpoints of the doors lying on the side being considered
+             */
+            val doorCenters =
+                doors
+                    .map { it.first }
+                    .filter { side.contains(it) }
+                    .sortedBy { it.distanceTo(side.first) }
+                    .toTypedArray()
+            mutableListOf(side.first, *doorCenters, side.second)
+                .zipWithNext()
+                .forEach {
+                    graph.addEdge(it.first, it.second)
+                    graph.setEdgeWeight(it.first, it.second, it.first.distanceTo(it.second))
+                }
+        }
+        graph.vertexSet().toList().forEach {
+            if (it != destination && !room.intersects(Segment2DImpl(it, destination))) {
+                graph.addEdge(it, destination)
+                graph.setEdgeWeight(it, destination, it.distanceTo(destination))
+            }
+        }
+        /*
+         * The graph is undirected: a single visit from the destination provides the distances of all the doors.
+         */
+        val fromDestination = DijkstraShortestPath(graph).getPaths(destination)
+        val sorted =
+            doors
+                .sortedBy { (midPoint, _) -> fromDestination.getWeight(midPoint) }
+                .map { it.second }
+        return doorsInSight.associateWith { sorted.indexOf(it) + 1 }
+    }
+
+    private data class RoomAndDestination(val room: ConvexPolygon, val destination: Euclidean2DPosition)
+
+    private class Rankings(val doors: List<Euclidean2DPassage>, val rankings: Map<Euclidean2DPassage, Int>)
+}
@@ -15,6 +15,8 @@ import it.unibo.alchemist.model.cognitive.NavigationStrategy
 import it.unibo.alchemist.model.cognitive.NavigationStrategy2D
 import it.unibo.alchemist.model.cognitive.OrientingProperty
 import it.unibo.alchemist.model.cognitive.actions.NavigationAction2D
+import it.unibo.alchemist.model.cognitive.environments.CrowdDensity
+import it.unibo.alchemist.model.cognitive.environments.EnvironmentWithCrowdDensity
 import it.unibo.alchemist.model.geometry.ConvexPolygon
 import it.unibo.alchemist.model.geometry.Euclidean2DConvexShape
 import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DPassage
@@ -120,15 +122,21 @@ open class Explore<T, L : Euclidean2DConvexShape, R>(
 
     /**
      * Area occupied by pedestrians / total area of this room. Falls in [0,1].
+     * If the environment keeps track of its [CrowdDensity], the number of pedestrians in the room is read from it,
+     * otherwise it is computed with a range query.
      */
-    protected open val ConvexPolygon.congestionLevel: Double get() =
-        environment
-            .getNodesWithinRange(centroid, radius)
-            .asSequence()
-            .map { environment.getPosition(it) }
-            .count { contains(it) }
-            .let { it * node.area / area }
-            .coerceAtMost(1.0)
+    protected open val ConvexPolygon.congestionLevel: Double get() {
+        @Suppress("UNCHECKED_CAST")
+        val crowdDensity = (environment as? EnvironmentWithCrowdDensity<T>)?.crowdDensity
+        val occupants =
+            crowdDensity?.occupancy(this)
+                ?: environment
+                    .getNodesWithinRange(centroid, radius)
+                    .asSequence()
+                    .map { environment.getPosition(it) }
+                    .count { contains(it) }
+        return (occupants * node.area / area).coerceAtMost(1.0)
+    }
 
     /**
      * A rough estimation of the area of a [ConvexPolygon].
@@ -13,13 +13,9 @@ import it.unibo.alchemist.model.cognitive.NavigationStrategy
 import it.unibo.alchemist.model.cognitive.actions.NavigationAction2D
 import it.unibo.alchemist.model.geometry.ConvexPolygon
 import it.unibo.alchemist.model.geometry.Euclidean2DConvexShape
-import it.unibo.alchemist.model.geometry.Segment2DImpl
 import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DPassage
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
 import kotlin.math.pow
-import org.jgrapht.alg.shortestpath.DijkstraShortestPath
-import org.jgrapht.graph.DefaultEdge
-import org.jgrapht.graph.DefaultUndirectedWeightedGraph
 
 /**
  * A [NavigationStrategy] that pursues a known static [destination] without a predefined route
@@ -85,42 +81,9 @@ open class Pursue<T, L : Euclidean2DConvexShape, R>(
      * To do so, a graph composed by the doors' midpoints, the room vertices and the [destination]
      * is built, then the shortest path between each door and the [destination] is computed and
      * each door is ranked consequently (the shorter the path, the lower the rank).
+     * As the rankings only depend on the room and on the [destination], they are shared among all the
+     * pedestrians navigating the same environment (see [DoorsRankings]).
      */
-    protected open fun computeDoorsRankings(currentRoom: ConvexPolygon): Map<Euclidean2DPassage, Int> = with(action) {
-        val graph = DefaultUndirectedWeightedGraph<Euclidean2DPosition, DefaultEdge>(DefaultEdge::class.java)
-        /*
-         * Maps each door's midpoint to the correspondent door object
-         */
-        val doors = doorsInSight().map { it.passageShapeOnTail.midPoint to it }
-        (currentRoom.vertices() + doors.map { it.first } + destination).forEach { graph.addVertex(it) }
-        currentRoom.edges().forEach { side ->
-            /*
-             * The midpoints of the doors lying on the side being considered
-             */
-            val doorCenters =
-                doors
-                    .map { it.first }
-                    .filter { side.contains(it) }
-                    .sortedBy { it.distanceTo(side.first) }
-                    .toTypedArray()
-            mutableListOf(side.first, *doorCenters, side.second)
-                .zipWithNext()
-                .forEach {
-                    graph.addEdge(it.first, it.second)
-                    graph.setEdgeWeight(it.first, it.second, it.first.distanceTo(it.second))
-                }
-        }
-        graph.vertexSet().forEach {
-            if (it != destination && !currentRoom.intersects(Segment2DImpl(it, destination))) {
-                graph.addEdge(it, destination)
-                graph.setEdgeWeight(it, destination, it.distanceTo(destination))
-            }
-        }
-        val dijkstra = DijkstraShortestPath(graph)
-        val sorted =
-            doors
-                .sortedBy { (midPoint, _) -> dijkstra.getPath(midPoint, destination)?.weight }
-                .map { it.second }
-        doorsInSight().associate { it to sorted.indexOf(it) + 1 }
-    }
+    protected open fun computeDoorsRankings(currentRoom: ConvexPolygon): Map<Euclidean2DPassage, Int> =
+        DoorsRankings.of(action.environment.graph, currentRoom, action.doorsInSight(), destination)
 }
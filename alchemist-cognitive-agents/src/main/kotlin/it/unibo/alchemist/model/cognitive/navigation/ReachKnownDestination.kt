@@ -18,6 +18,7 @@ import it.unibo.alchemist.model.positions.Euclidean2DPosition
 import it.unibo.alchemist.util.Sequences.cartesianProduct
 import org.jgrapht.Graphs.predecessorListOf
 import org.jgrapht.Graphs.successorListOf
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm
 import org.jgrapht.alg.shortestpath.BFSShortestPath
 
 /**
@@ -99,6 +100,11 @@ open class ReachKnownDestination<T, L : Euclidean2DConvexShape, R>(
                             start.centroid.distanceTo(currPos) + end.centroid.distanceTo(destination)
                         }
                     }
+            /*
+             * Candidate pairs often share their first landmark: a single visit per landmark serves all of them.
+             */
+            val shortestPaths = BFSShortestPath(this)
+            val pathsFrom = HashMap<L, ShortestPathAlgorithm.SingleSourcePaths<L, Euclidean2DPassage>>()
             sequence
                 .mapNotNull { (start, end) ->
                     /*
@@ -106,7 +112,7 @@ open class ReachKnownDestination<T, L : Euclidean2DConvexShape, R>(
                      * in the future things may change and a policy deciding which path to pick may (need to) be
                      * introduced.
                      */
-                    BFSShortestPath(this).getPath(start, end)?.vertexList
+                    pathsFrom.getOrPut(start) { shortestPaths.getPaths(start) }.getPath(end)?.vertexList
                 }.firstOrNull()
                 .orEmpty()
         }
@@ -14,6 +14,7 @@ import it.unibo.alchemist.model.Node.Companion.asProperty
 import it.unibo.alchemist.model.Node.Companion.asPropertyOrNull
 import it.unibo.alchemist.model.cognitive.CognitiveProperty
 import it.unibo.alchemist.model.cognitive.PedestrianProperty
+import it.unibo.alchemist.model.cognitive.environments.EnvironmentWithDynamics
 import it.unibo.alchemist.model.geometry.Euclidean2DShape
 import it.unibo.alchemist.model.geometry.Euclidean2DShapeFactory
 import it.unibo.alchemist.model.geometry.Euclidean2DTransformation
@@ -31,6 +32,8 @@ import org.apache.commons.math3.random.RandomGenerator
 
 /**
  * Base implementation of a pedestrian's capability to experience physical interactions in a 2D space.
+ * If the [environment] is an [EnvironmentWithDynamics] with a
+ * [it.unibo.alchemist.model.cognitive.environments.SocialForceKernel], forces are read from it.
  */
 class PhysicalPedestrian2D<T>(
     private val randomGenerator: RandomGenerator,
@@ -86,6 +89,8 @@ class PhysicalPedestrian2D<T>(
 
     private val Node<T>.position get() = environment.getPosition(this)
 
+    private val socialForces by lazy { (environment as? EnvironmentWithDynamics<T>)?.socialForces }
+
     override fun checkAndPossiblyFall() {
         if (!isFallen && shouldFall(repulsionForces())) {
             isFallen = true
@@ -96,9 +101,8 @@ class PhysicalPedestrian2D<T>(
     override fun shouldFall(pushingForces: List<Euclidean2DPosition>) =
         pushingForces.fold(Euclidean2DPosition.zero) { acc, f -> acc + f }.magnitude > pedestrian.runningSpeed
 
-    override fun repulsionForces(): List<Euclidean2DPosition> = collectForces(::repulse, comfortArea) {
-        !it.asProperty<T, PhysicalPedestrian2D<T>>().isFallen
-    }
+    override fun repulsionForces(): List<Euclidean2DPosition> = socialForces?.repulsionForces(node)
+        ?: collectForces(::repulse, comfortArea) { !it.asProperty<T, PhysicalPedestrian2D<T>>().isFallen }
 
     override fun repulse(other: Node<T>): Euclidean2DPosition {
         val myShape = nodeShape.transformed { origin(environment.getPosition(node)) }
@@ -113,7 +117,7 @@ class PhysicalPedestrian2D<T>(
         }
     }
 
-    override fun avoidanceForces() = collectForces(::avoid, rectangleOfInfluence)
+    override fun avoidanceForces() = socialForces?.avoidanceForces(node) ?: collectForces(::avoid, rectangleOfInfluence)
 
     override fun avoid(other: Node<T>): Euclidean2DPosition {
         if (environment is Dynamics2DEnvironment) {
@@ -150,9 +154,8 @@ class PhysicalPedestrian2D<T>(
         else -> DIRECTION_WEIGHT * 2
     }
 
-    override fun fallenAgentAvoidanceForces() = collectForces(::avoid, fallenAgentPerceptionArea) {
-        it.asProperty<T, PhysicalPedestrian2D<T>>().isFallen
-    }
+    override fun fallenAgentAvoidanceForces() = socialForces?.fallenAgentAvoidanceForces(node)
+        ?: collectForces(::avoid, fallenAgentPerceptionArea) { it.asProperty<T, PhysicalPedestrian2D<T>>().isFallen }
 
     override fun onFall(listener: (Node<T>) -> Unit) {
         fallenAgentListeners += listener
@@ -181,7 +184,7 @@ class PhysicalPedestrian2D<T>(
     override fun toString() = "${super.toString()}[desiredSpaceThreshold=$desiredSpaceTreshold, " +
         "comfortRay=$comfortRay, isFallen=$isFallen]"
 
-    private companion object {
+    internal companion object {
         /**
          * Minimum value for normal state [comfortRay] (in meters).
          */
@@ -196,19 +199,19 @@ class PhysicalPedestrian2D<T>(
          * Dimension (in meters) of the rectangle of influence (width, height).
          * This dimensions have been set according to the work of [Pelechano et al](https://doi.org/10.2312/SCA/SCA07/099-108)
          */
-        private val rectangleOfInfluenceDimensions: Pair<Double, Double> = Pair(3.0, 1.0)
+        internal val rectangleOfInfluenceDimensions: Pair<Double, Double> = Pair(3.0, 1.0)
 
         /**
          * Direction tangential force weight factor for when two nodes are moving in the same direction.
          * See the work of [Pelechano et al](https://doi.org/10.2312/SCA/SCA07/099-108).
          */
-        private const val DIRECTION_WEIGHT = 1.2
+        internal const val DIRECTION_WEIGHT = 1.2
 
         /**
          * Fallen agent perception radius (in meters).
          * For further information please refer to the work of
          * [Pelechano et. al](https://doi.org/10.2312/SCA/SCA07/099-108).
          */
-        private const val FALLEN_AGENT_PERCEPTION_RADIUS = 1.5
+        internal const val FALLEN_AGENT_PERCEPTION_RADIUS = 1.5
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.cognitive.environments
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.SupportedIncarnations
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.geometry.AwtMutableConvexPolygon
+import it.unibo.alchemist.model.geometry.ConvexPolygon
+import it.unibo.alchemist.model.geometry.Segment2DImpl
+import it.unibo.alchemist.model.geometry.navigationgraph.DirectedEuclidean2DNavigationGraph
+import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DNavigationGraph
+import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DPassage
+import it.unibo.alchemist.model.nodes.GenericNode
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import org.apache.commons.math3.random.MersenneTwister
+
+class TestCrowdDensity :
+    StringSpec({
+        val incarnation = SupportedIncarnations.get<Any, Euclidean2DPosition>("protelis").orElseThrow()
+        val environment = Continuous2DEnvironment(incarnation)
+        val rooms = (0 until ROOMS).flatMap { x -> (0 until ROOMS).map { y -> square(x * SIDE, y * SIDE) } }
+        val graph = grid(rooms)
+
+        fun node(): Node<Any> = GenericNode(environment)
+
+        "occupancy should match a brute-force count while nodes move, jump, leave, and get removed" {
+            val random = MersenneTwister(1)
+            val density = CrowdDensity<Any>(graph)
+            val positions = LinkedHashMap<Node<Any>, Euclidean2DPosition>()
+            fun coordinate() = random.nextDouble() * (ROOMS + 1) * SIDE - SIDE / 2.0
+            repeat(OPERATIONS) {
+                val choice = random.nextDouble()
+                when {
+                    positions.isEmpty() || choice < 0.2 -> {
+                        val node = node()
+                        positions[node] = position(coordinate(), coordinate())
+                        density.nodeMoved(node, positions.getValue(node))
+                    }
+                    choice < 0.3 -> {
+                        val node = positions.keys.elementAt(random.nextInt(positions.size))
+                        positions.remove(node)
+                        density.nodeRemoved(node)
+                    }
+                    else -> {
+                        val node = positions.keys.elementAt(random.nextInt(positions.size))
+                        // Mostly short steps, resolved through the neighbors of the previous room, sometimes jumps
+                        val destination =
+                            if (choice < 0.9) {
+                                val step = { (random.nextDouble() - 0.5) * SIDE }
+                                positions.getValue(node).let { position(it.x + step(), it.y + step()) }
+                            } else {
+                                position(coordinate(), coordinate())
+                            }
+                        positions[node] = destination
+                        density.nodeMoved(node, destination)
+                    }
+                }
+                rooms.forEach { room ->
+                    density.occupancy(room) shouldBe positions.values.count { room.contains(it) }
+                }
+            }
+        }
+
+        "nodes on shared borders should be counted in a single room" {
+            val density = CrowdDensity<Any>(graph)
+            val node = node()
+            listOf(
+                position(SIDE, 1),
+                position(SIDE, SIDE),
+                position(2 * SIDE, SIDE + 1),
+                position(1, SIDE),
+            ).forEach { border ->
+                density.nodeMoved(node, border)
+                rooms.sumOf { density.occupancy(it) } shouldBe 1
+                rooms.forEach { room -> density.occupancy(room) shouldBe if (room.contains(border)) 1 else 0 }
+            }
+            density.nodeMoved(node, position(-1, -1))
+            rooms.sumOf { density.occupancy(it) } shouldBe 0
+            density.nodeRemoved(node)
+            rooms.sumOf { density.occupancy(it) } shouldBe 0
+        }
+
+        "environments with dynamics should expose the density of their backing environment" {
+            EnvironmentWithDynamics(incarnation, "images/congestion-avoidance.png").crowdDensity.shouldNotBeNull()
+            EnvironmentWithDynamics(incarnation).crowdDensity.shouldBeNull()
+        }
+    })
+
+private const val SIDE = 4
+
+private const val ROOMS = 3
+
+private const val OPERATIONS = 2000
+
+private fun position(x: Number, y: Number) = Euclidean2DPosition(x.toDouble(), y.toDouble())
+
+private fun square(x: Int, y: Int): ConvexPolygon =
+    AwtMutableConvexPolygon(
+        mutableListOf(position(x, y), position(x + SIDE, y), position(x + SIDE, y + SIDE), position(x, y + SIDE)),
+    )
+
+/*
+ * Connects each room with the ones sharing a side with it.
+ */
+private fun grid(rooms: List<ConvexPolygon>): Euclidean2DNavigationGraph =
+    DirectedEuclidean2DNavigationGraph(Euclidean2DPassage::class.java).apply {
+        rooms.forEach { addVertex(it) }
+        rooms.forEach { tail ->
+            rooms.forEach { head ->
+                val shared = tail.vertices().filter { it in head.vertices() }
+                if (head !== tail && shared.size == 2) {
+                    addEdge(tail, head, Euclidean2DPassage(tail, head, Segment2DImpl(shared[0], shared[1])))
+                }
+            }
+        }
+    }
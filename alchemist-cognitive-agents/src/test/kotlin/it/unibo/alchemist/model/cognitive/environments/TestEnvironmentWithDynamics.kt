@@ -10,11 +10,15 @@ package it.unibo.alchemist.model.cognitive.environments
 
 import io.kotest.assertions.throwables.shouldThrow
 import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.doubles.shouldBeLessThan
+import io.kotest.matchers.ints.shouldBeGreaterThan
 import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.model.Node.Companion.asProperty
 import it.unibo.alchemist.model.Position
 import it.unibo.alchemist.model.SupportedIncarnations
 import it.unibo.alchemist.model.geometry.Vector
 import it.unibo.alchemist.model.physics.environments.Dynamics2DEnvironment
+import it.unibo.alchemist.model.physics.properties.PhysicalPedestrian2D
 import it.unibo.alchemist.model.physics.reactions.PhysicsUpdate
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
 import it.unibo.alchemist.model.timedistributions.ExponentialTime
@@ -65,4 +69,33 @@ class TestEnvironmentWithDynamics<T, P> :
             }
             environment.globalReactions.first().rate shouldBe 2.0
         }
+        "The social force kernel computes the same forces of each pedestrian" {
+            val environment = loadYamlSimulation<T, P>("social_forces.yml").environment as EnvironmentWithDynamics
+            val directions = listOf(Euclidean2DPosition(1.0, 0.0), Euclidean2DPosition(0.0, 1.0))
+            environment.nodes.forEachIndexed { index, node ->
+                val direction = directions[index % directions.size] * if (index % 3 == 0) -1.0 else 1.0
+                environment.setVelocity(node, direction)
+                environment.setHeading(node, direction)
+            }
+            val kernel = SocialForceKernel(environment)
+            var interacting = 0
+            environment.nodes.forEach { node ->
+                val physics = node.asProperty<T, PhysicalPedestrian2D<T>>()
+                listOf(
+                    kernel.repulsionForces(node) to physics.repulsionForces(),
+                    kernel.avoidanceForces(node) to physics.avoidanceForces(),
+                    kernel.fallenAgentAvoidanceForces(node) to physics.fallenAgentAvoidanceForces(),
+                ).forEach { (computed, expected) ->
+                    if (expected.isNotEmpty()) {
+                        interacting++
+                    }
+                    (computed.total() - expected.total()).magnitude shouldBeLessThan TOLERANCE
+                }
+            }
+            interacting shouldBeGreaterThan 0
+        }
     }) where P : Position<P>, P : Vector<P>
+
+private const val TOLERANCE = 1e-9
+
+private fun List<Euclidean2DPosition>.total() = fold(Euclidean2DPosition.zero) { acc, force -> acc + force }
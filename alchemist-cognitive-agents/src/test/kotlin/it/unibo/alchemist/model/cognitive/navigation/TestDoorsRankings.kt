@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.cognitive.navigation
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.kotest.matchers.types.shouldNotBeSameInstanceAs
+import it.unibo.alchemist.model.geometry.AwtMutableConvexPolygon
+import it.unibo.alchemist.model.geometry.ConvexPolygon
+import it.unibo.alchemist.model.geometry.Segment2DImpl
+import it.unibo.alchemist.model.geometry.navigationgraph.DirectedEuclidean2DNavigationGraph
+import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DNavigationGraph
+import it.unibo.alchemist.model.geometry.navigationgraph.Euclidean2DPassage
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+
+class TestDoorsRankings :
+    StringSpec({
+        val room = square(0, 0)
+        val east = square(SIDE, 0)
+        val north = square(0, SIDE)
+        val eastDoor = Euclidean2DPassage(room, east, Segment2DImpl(position(SIDE, 1), position(SIDE, 3)))
+        val northDoor = Euclidean2DPassage(room, north, Segment2DImpl(position(1, SIDE), position(3, SIDE)))
+        val doors = listOf(eastDoor, northDoor)
+        val destination = position(10, 2)
+
+        fun graph(): Euclidean2DNavigationGraph =
+            DirectedEuclidean2DNavigationGraph(Euclidean2DPassage::class.java).apply {
+                listOf(room, east, north).forEach { addVertex(it) }
+                doors.forEach { addEdge(it.tail, it.head, it) }
+            }
+
+        "rankings should be computed once and then reused" {
+            val graph = graph()
+            val rankings = DoorsRankings.of(graph, room, doors, destination)
+            rankings shouldBe mapOf(eastDoor to 1, northDoor to 2)
+            rankings shouldBe DoorsRankings.compute(room, doors, destination)
+            DoorsRankings.of(graph, room, doors.toList(), destination) shouldBeSameInstanceAs rankings
+        }
+
+        "rankings should be recomputed when the doors in sight change" {
+            val graph = graph()
+            val rankings = DoorsRankings.of(graph, room, doors, destination)
+            val onlyNorth = DoorsRankings.of(graph, room, listOf(northDoor), destination)
+            onlyNorth shouldBe mapOf(northDoor to 1)
+            val again = DoorsRankings.of(graph, room, doors, destination)
+            again shouldNotBeSameInstanceAs rankings
+            again shouldBe rankings
+        }
+
+        "equal graphs should not share rankings" {
+            val rankings = DoorsRankings.of(graph(), room, doors, destination)
+            DoorsRankings.of(graph(), room, doors, destination) shouldNotBeSameInstanceAs rankings
+        }
+    })
+
+private const val SIDE = 4
+
+private fun position(x: Number, y: Number) = Euclidean2DPosition(x.toDouble(), y.toDouble())
+
+private fun square(x: Int, y: Int): ConvexPolygon =
+    AwtMutableConvexPolygon(
+        mutableListOf(position(x, y), position(x + SIDE, y), position(x + SIDE, y + SIDE), position(x, y + SIDE)),
+    )
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.monitors
+
+import it.unibo.alchemist.boundary.OutputMonitor
+import it.unibo.alchemist.core.Engine
+import it.unibo.alchemist.core.EngineProfiler
+import it.unibo.alchemist.core.ProfileSnapshot
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Position
+import it.unibo.alchemist.model.Time
+import java.io.File
+
+/**
+ * Enables the profiling of the [Engine] it is attached to, recording one step every [samplingPeriod]
+ * (see [EngineProfiler]): the profiler gets [attached][Engine.attachProfiler] once the simulation is initialized,
+ * and detached when it is over.
+ * The collected statistics can be read at any time through [profiler];
+ * if an [exportPath] is provided, once the simulation is over they are written there,
+ * both as CSV and as JSON, in two files named [fileName].
+ * The time and the dependency updates of the categories that are only counted (actions and conditions)
+ * are left empty in the CSV, and are null in the JSON.
+ *
+ * The monitor must be attached before the simulation starts.
+ *
+ * @param T the concentration type
+ * @param P the position type
+ */
+class ProfilingMonitor<T, P : Position<out P>>
+@JvmOverloads
+constructor(
+    val samplingPeriod: Long = DEFAULT_SAMPLING_PERIOD,
+    val exportPath: String? = null,
+    val fileName: String = DEFAULT_FILE_NAME,
+) : OutputMonitor<T, P> {
+    /**
+     * The profiler collecting the statistics.
+     */
+    val profiler: EngineProfiler = EngineProfiler(samplingPeriod)
+
+    override fun initialized(environment: Environment<T, P>) {
+        (environment.simulation as? Engine<*, *>)?.attachProfiler(profiler)
+    }
+
+    override fun finished(environment: Environment<T, P>, time: Time, step: Long) {
+        (environment.simulation as? Engine<*, *>)?.detachProfiler(profiler)
+        exportPath?.let { path ->
+            val folder = File(path).apply { mkdirs() }
+            val snapshot = profiler.snapshot()
+            File(folder, "$fileName.csv").writeText(snapshot.toCSV())
+            File(folder, "$fileName.json").writeText(snapshot.toJSON())
+        }
+    }
+
+    private companion object {
+        private const val DEFAULT_SAMPLING_PERIOD = 16L
+        private const val DEFAULT_FILE_NAME = "profile"
+
+        private fun ProfileSnapshot.toCSV(): String = buildString {
+            appendLine("# samplingPeriod=$samplingPeriod sampledSteps=$sampledSteps")
+            appendLine("# neighborhoodChanges=$neighborhoodChanges reschedules=$reschedules")
+            appendLine("# averageSchedulerDepth=$averageSchedulerDepth maxSchedulerDepth=$maxSchedulerDepth")
+            appendLine("category,name,count,nanos,dependencyUpdates,reschedules")
+            entries.forEach {
+                val columns = listOf(it.category, it.name, it.count, it.nanos, it.dependencyUpdates, it.reschedules)
+                appendLine(columns.joinToString(",") { column -> column?.toString().orEmpty() })
+            }
+        }
+
+        private fun String.quoted(): String = buildString {
+            append('"')
+            this@quoted.forEach { char ->
+                when {
+                    char == '"' || char == '\\' -> append('\\').append(char)
+                    char < ' ' -> append("\\u%04x".format(char.code))
+                    else -> append(char)
+                }
+            }
+            append('"')
+        }
+
+        private fun ProfileSnapshot.toJSON(): String = buildString {
+            append("{\"samplingPeriod\":$samplingPeriod,\"sampledSteps\":$sampledSteps,")
+            append("\"neighborhoodChanges\":$neighborhoodChanges,\"reschedules\":$reschedules,")
+            append("\"averageSchedulerDepth\":$averageSchedulerDepth,\"maxSchedulerDepth\":$maxSchedulerDepth,")
+            append("\"entries\":[")
+            entries.forEachIndexed { index, entry ->
+                if (index > 0) {
+                    append(',')
+                }
+                append("{\"category\":${entry.category.name.quoted()},\"name\":${entry.name.quoted()},")
+                append("\"count\":${entry.count},\"nanos\":${entry.nanos},")
+                append("\"dependencyUpdates\":${entry.dependencyUpdates},\"reschedules\":${entry.reschedules}}")
+            }
+            append("]}")
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core
+
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Dependency
+import it.unibo.alchemist.model.Molecule
+
+/**
+ * Interns [Dependency] objects into dense integer ids, and summarizes the inbound and outbound dependencies
+ * of [Actionable]s as bitsets, so that checking whether two reactions depend on each other does not require
+ * intersecting their dependency sets.
+ *
+ * Only dependencies relying on the default, equality-based [Dependency.dependsOn] and [Dependency.makesDependent]
+ * (e.g., [Molecule]s such as SimpleMolecule, or [Dependency.MOVEMENT]) get interned.
+ * [Dependency.EVERYTHING] and [Dependency.EVERY_MOLECULE] are tracked with dedicated flags,
+ * all other dependencies are compared pairwise, as their semantics is user-defined.
+ */
+internal class DependencyRegistry {
+    private val ids = HashMap<Dependency, Int>()
+
+    init {
+        intern(Dependency.MOVEMENT)
+    }
+
+    private fun intern(dependency: Dependency): Int = ids.getOrPut(dependency) { ids.size }
+
+    /**
+     * Computes the [Signature] of a set of [dependencies].
+     */
+    fun signatureOf(dependencies: Collection<Dependency>): Signature {
+        var flags = 0
+        val interned = mutableListOf<Int>()
+        val custom = mutableListOf<Dependency>()
+        dependencies.forEach { dependency ->
+            when {
+                dependency === Dependency.EVERYTHING -> flags = flags or EVERYTHING
+                dependency === Dependency.EVERY_MOLECULE -> flags = flags or EVERY_MOLECULE
+                else -> {
+                    if (dependency is Molecule) {
+                        flags = flags or ANY_MOLECULE
+                    }
+                    if (hasEqualitySemantics.get(dependency.javaClass)) {
+                        interned += intern(dependency)
+                    } else {
+                        custom += dependency
+                    }
+                }
+            }
+        }
+        val words = LongArray(interned.maxOrNull()?.let { it / Long.SIZE_BITS + 1 } ?: 0)
+        interned.forEach { id -> words[id / Long.SIZE_BITS] = words[id / Long.SIZE_BITS] or (1L shl id) }
+        return Signature(dependencies.toTypedArray(), flags, words, custom.toTypedArray())
+    }
+
+    /**
+     * Computes the [Signatures] of the inbound and outbound dependencies of [actionable].
+     */
+    fun signaturesOf(actionable: Actionable<*>): Signatures = Signatures(
+        signatureOf(actionable.inboundDependencies),
+        signatureOf(actionable.outboundDependencies),
+    )
+
+    /**
+     * The summary of a set of dependencies.
+     */
+    class Signature(
+        private val dependencies: Array<Dependency>,
+        private val flags: Int,
+        private val words: LongArray,
+        private val custom: Array<Dependency>,
+    ) {
+        private fun has(flag: Int) = flags and flag != 0
+
+        /**
+         * Returns true if a reaction whose inbound dependencies are summarized by this signature depends
+         * on a reaction whose outbound dependencies are summarized by [outbound].
+         * The result is the same of checking whether any inbound dependency [Dependency.dependsOn] any outbound
+         * one, or any outbound dependency [Dependency.makesDependent] any inbound one.
+         */
+        fun dependsOn(outbound: Signature): Boolean = when {
+            dependencies.isEmpty() || outbound.dependencies.isEmpty() -> false
+            has(EVERYTHING) || outbound.has(EVERYTHING) -> true
+            has(EVERY_MOLECULE) && outbound.has(EVERY_MOLECULE or ANY_MOLECULE) -> true
+            outbound.has(EVERY_MOLECULE) && has(EVERY_MOLECULE or ANY_MOLECULE) -> true
+            else -> intersects(outbound) || customDependsOn(outbound)
+        }
+
+        private fun intersects(other: Signature): Boolean {
+            for (word in 0 until minOf(words.size, other.words.size)) {
+                if (words[word] and other.words[word] != 0L) {
+                    return true
+                }
+            }
+            return false
+        }
+
+        private fun customDependsOn(outbound: Signature): Boolean =
+            custom.any { inbound ->
+                outbound.dependencies.any { inbound.dependsOn(it) || it.makesDependent(inbound) }
+            } ||
+                outbound.custom.any { out -> dependencies.any { it.dependsOn(out) || out.makesDependent(it) } }
+    }
+
+    /**
+     * The [inbound] and [outbound] dependency [Signature]s of an [Actionable].
+     */
+    data class Signatures(val inbound: Signature, val outbound: Signature)
+
+    private companion object {
+        private const val EVERYTHING = 1
+        private const val EVERY_MOLECULE = 2
+        private const val ANY_MOLECULE = 4
+
+        private val hasEqualitySemantics =
+            object : ClassValue<Boolean>() {
+                override fun computeValue(type: Class<*>): Boolean = listOf("dependsOn", "makesDependent").all {
+                    type.getMethod(it, Dependency::class.java).declaringClass == Dependency::class.java
+                }
+            }
+    }
+}
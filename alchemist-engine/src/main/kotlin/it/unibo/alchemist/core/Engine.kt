@@ -89,6 +89,15 @@ open class Engine<T, P : Position<out P>>(
     /** List of registered output monitors for simulation events. */
     protected val monitors: MutableList<OutputMonitor<T, P>> = CopyOnWriteArrayList()
 
+    /** The attached profiler, if any. */
+    @Volatile private var profiler: EngineProfiler? = null
+
+    /** The number of reactions in the scheduler. */
+    private var scheduledReactions: Long = 0
+
+    /** The profiler, if the current step is being recorded. */
+    private var sampling: EngineProfiler? = null
+
     /**
      * Constructs a simulation with a default scheduler.
      *
@@ -114,6 +123,27 @@ open class Engine<T, P : Position<out P>>(
         monitors.add(op)
     }
 
+    /**
+     * Records the execution of the following steps into [profiler], replacing the currently attached one, if any.
+     * Profiling monitors attach their profiler when the simulation gets initialized.
+     *
+     * @param profiler the [EngineProfiler] to attach
+     */
+    fun attachProfiler(profiler: EngineProfiler) {
+        this.profiler = profiler
+    }
+
+    /**
+     * Stops recording into [profiler], if it is the attached one.
+     *
+     * @param profiler the [EngineProfiler] to detach
+     */
+    fun detachProfiler(profiler: EngineProfiler) {
+        if (this.profiler === profiler) {
+            this.profiler = null
+        }
+    }
+
     /** Ensures that the method is called from the simulation thread. */
     private fun checkCaller() {
         check(this::class.java == BatchEngine::class.java || Thread.currentThread() == simulationThread) {
@@ -134,6 +164,7 @@ open class Engine<T, P : Position<out P>>(
      * Performs a single step of the simulation.
      */
     protected open fun doStep() {
+        sampling = profiler?.takeIf { it.isSampled(step) }?.also { it.stepSampled(scheduledReactions) }
         val nextEvent = scheduler.getNext() ?: run {
             newStatus(Status.TERMINATED)
             LOGGER.info("No more reactions.")
@@ -146,16 +177,21 @@ open class Engine<T, P : Position<out P>>(
         currentTime = scheduledTime
         if (scheduledTime.isFinite && nextEvent.canExecute()) {
             nextEvent.conditions.forEach { it.reactionReady() }
+            val start = sampling?.let { System.nanoTime() }
             nextEvent.execute()
+            val elapsed = start?.let { System.nanoTime() - it }
             var toUpdate: Set<Actionable<T>> = dependencyGraph.outboundDependencies(nextEvent)
             if (afterExecutionUpdates.isNotEmpty()) {
                 afterExecutionUpdates.forEach { it.performChanges() }
                 afterExecutionUpdates.clear()
                 toUpdate = Sets.union(toUpdate, dependencyGraph.outboundDependencies(nextEvent))
             }
+            elapsed?.let { sampling?.executed(nextEvent, it, toUpdate.size) }
             toUpdate.forEach { updateReaction(it) }
         }
+        val start = sampling?.let { System.nanoTime() }
         nextEvent.update(time, true, environment)
+        start?.let { sampling?.updated(nextEvent, System.nanoTime() - it, rescheduled = true) }
         scheduler.updateReaction(nextEvent)
         monitors.forEach { it.stepDone(environment, nextEvent, time, step) }
         if (environment.isTerminated) {
@@ -163,6 +199,7 @@ open class Engine<T, P : Position<out P>>(
             LOGGER.info("Termination condition reached.")
         }
         currentStep = step + 1
+        sampling = null
     }
 
     /** @return the simulation environment. */
@@ -204,6 +241,7 @@ open class Engine<T, P : Position<out P>>(
      */
     override fun neighborAdded(node: Node<T>, n: Node<T>) {
         checkCaller()
+        sampling?.neighborhoodChanged()
         afterExecutionUpdates.add(NeighborAdded(node, n))
     }
 
@@ -215,6 +253,7 @@ open class Engine<T, P : Position<out P>>(
      */
     override fun neighborRemoved(node: Node<T>, n: Node<T>) {
         checkCaller()
+        sampling?.neighborhoodChanged()
         afterExecutionUpdates.add(NeighborRemoved(node, n))
     }
 
@@ -303,9 +342,16 @@ open class Engine<T, P : Position<out P>>(
         afterExecutionUpdates.add(update)
     }
 
-    /** Retrieves the reactions that require updates after execution. */
+    /**
+     * Retrieves the reactions that require updates after execution.
+     * Propensity-independent reactions are skipped, as only their own execution can reschedule them.
+     */
     private fun reactionsToUpdateAfterExecution(): Sequence<Actionable<T>> =
-        afterExecutionUpdates.asSequence().flatMap { it.reactionsToUpdate }.distinct()
+        afterExecutionUpdates
+            .asSequence()
+            .flatMap { it.reactionsToUpdate }
+            .filterNot { it.isPropensityIndependent }
+            .distinct()
 
     private fun processCommand(command: CheckedRunnable) {
         command.run()
@@ -430,6 +476,7 @@ open class Engine<T, P : Position<out P>>(
         dependencyGraph.createDependencies(reaction)
         reaction.initializationComplete(time, environment)
         scheduler.addReaction(reaction)
+        scheduledReactions++
     }
 
     /** Terminates the simulation. */
@@ -445,8 +492,11 @@ open class Engine<T, P : Position<out P>>(
      */
     protected fun updateReaction(r: Actionable<T>) {
         val previousTau = r.tau
+        val start = sampling?.let { System.nanoTime() }
         r.update(time, false, environment)
-        if (r.tau != previousTau) scheduler.updateReaction(r)
+        val rescheduled = r.tau != previousTau
+        start?.let { sampling?.updated(r, System.nanoTime() - it, rescheduled) }
+        if (rescheduled) scheduler.updateReaction(r)
     }
 
     /**
@@ -547,6 +597,7 @@ open class Engine<T, P : Position<out P>>(
         override fun performChanges() {
             dependencyGraph.removeDependencies(sourceReaction)
             scheduler.removeReaction(sourceReaction)
+            scheduledReactions--
         }
     }
 
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import it.unibo.alchemist.model.Actionable
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.Reaction
+import java.util.WeakHashMap
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAccumulator
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Collects statistics about the execution of an [Engine], recording one step every [samplingPeriod].
+ * Only the sampled steps pay the cost of measuring time and of updating the counters,
+ * so that the overhead can be tuned by changing the sampling period:
+ * multiplying the recorded values by the sampling period provides an estimate of the totals.
+ *
+ * The recorded values are kept into striped, lock-free counters, so that they can be read through [snapshot]
+ * from any thread while the simulation runs.
+ * Recording is meant to be performed by the simulation thread only.
+ */
+class EngineProfiler(val samplingPeriod: Long = DEFAULT_SAMPLING_PERIOD) {
+    private val sampledSteps = LongAdder()
+    private val neighborhoodChanges = LongAdder()
+    private val reschedules = LongAdder()
+    private val schedulerDepth = LongAdder()
+    private val maxSchedulerDepth = LongAccumulator({ first, second -> maxOf(first, second) }, 0)
+    private val counters = ConcurrentHashMap<Pair<ProfileCategory, String>, Counters>()
+    private val nodeGroups = WeakHashMap<Node<*>, String>()
+
+    init {
+        require(samplingPeriod > 0) { "The sampling period must be positive, but it is $samplingPeriod" }
+    }
+
+    /**
+     * Returns true if the [step] must be recorded.
+     */
+    fun isSampled(step: Long): Boolean = step % samplingPeriod == 0L
+
+    private fun counters(category: ProfileCategory, name: String): Counters =
+        counters.computeIfAbsent(category to name) { Counters() }
+
+    private val Any.typeName: String get() = this::class.java.simpleName.ifEmpty { this::class.java.name }
+
+    /*
+     * Groups nodes by the kind of their properties, e.g., cells, pedestrians, or plain devices.
+     */
+    private val Actionable<*>.nodeGroup: String
+        get() = when (this) {
+            is Reaction<*> ->
+                nodeGroups.getOrPut(node) {
+                    node.properties
+                        .map { it.typeName }
+                        .sorted()
+                        .joinToString("+")
+                        .ifEmpty { node.typeName }
+                }
+            else -> GLOBAL_GROUP
+        }
+
+    internal fun stepSampled(scheduled: Long) {
+        sampledSteps.increment()
+        val depth = (Long.SIZE_BITS - scheduled.countLeadingZeroBits()).toLong()
+        schedulerDepth.add(depth)
+        maxSchedulerDepth.accumulate(depth)
+    }
+
+    internal fun executed(reaction: Actionable<*>, nanos: Long, dependencyUpdates: Int) {
+        counters(ProfileCategory.REACTION, reaction.typeName).record(nanos, dependencyUpdates.toLong())
+        counters(ProfileCategory.NODE_GROUP, reaction.nodeGroup).record(nanos, dependencyUpdates.toLong())
+        reaction.actions.forEach { counters(ProfileCategory.ACTION, it.typeName).count.increment() }
+        reaction.conditions.forEach { counters(ProfileCategory.CONDITION, it.typeName).count.increment() }
+    }
+
+    internal fun updated(reaction: Actionable<*>, nanos: Long, rescheduled: Boolean) {
+        counters(ProfileCategory.UPDATE, reaction.typeName).record(nanos, 0, rescheduled)
+        if (rescheduled) {
+            reschedules.increment()
+        }
+    }
+
+    internal fun neighborhoodChanged() = neighborhoodChanges.increment()
+
+    /**
+     * Returns a copy of the statistics collected so far.
+     */
+    fun snapshot(): ProfileSnapshot {
+        val steps = sampledSteps.sum()
+        return ProfileSnapshot(
+            samplingPeriod = samplingPeriod,
+            sampledSteps = steps,
+            neighborhoodChanges = neighborhoodChanges.sum(),
+            reschedules = reschedules.sum(),
+            averageSchedulerDepth = if (steps == 0L) 0.0 else schedulerDepth.sum().toDouble() / steps,
+            maxSchedulerDepth = maxSchedulerDepth.get(),
+            entries =
+                counters
+                    .map { (key, counter) ->
+                        val (category, name) = key
+                        ProfileEntry(
+                            category = category,
+                            name = name,
+                            count = counter.count.sum(),
+                            nanos = counter.nanos.sum().takeIf { category.isMeasured },
+                            dependencyUpdates = counter.dependencyUpdates.sum().takeIf { category.isMeasured },
+                            reschedules = counter.reschedules.sum(),
+                        )
+                    }.sortedWith(compareBy({ it.category }, { -(it.nanos ?: 0) }, { it.name })),
+        )
+    }
+
+    private class Counters {
+        val count = LongAdder()
+        val nanos = LongAdder()
+        val dependencyUpdates = LongAdder()
+        val reschedules = LongAdder()
+
+        fun record(elapsed: Long, updates: Long, rescheduled: Boolean = false) {
+            count.increment()
+            nanos.add(elapsed)
+            dependencyUpdates.add(updates)
+            if (rescheduled) {
+                reschedules.increment()
+            }
+        }
+    }
+
+    private companion object {
+        private const val DEFAULT_SAMPLING_PERIOD = 16L
+        private const val GLOBAL_GROUP = "global"
+    }
+}
+
+/**
+ * The kind of element a [ProfileEntry] refers to.
+ *
+ * @property isMeasured whether time and dependency updates are measured, or only the occurrences are counted
+ */
+enum class ProfileCategory(val isMeasured: Boolean) {
+    /**
+     * Executions of a reaction type: time spent in `execute()`, and number of dependent reactions updated.
+     */
+    REACTION(true),
+
+    /**
+     * Updates of a reaction type: time spent in `update()`, and number of times the reaction got rescheduled.
+     */
+    UPDATE(true),
+
+    /**
+     * Executions of an action type, as part of the execution of its reaction: only counted.
+     */
+    ACTION(false),
+
+    /**
+     * Evaluations of a condition type, as part of the execution of its reaction: only counted.
+     */
+    CONDITION(false),
+
+    /**
+     * Executions of the reactions of a group of nodes having the same kinds of properties.
+     */
+    NODE_GROUP(true),
+}
+
+/**
+ * The statistics recorded for the element [name] of a [category], on the sampled steps.
+ *
+ * @property category the kind of element
+ * @property name the name of the element
+ * @property count the number of executions or updates
+ * @property nanos the time spent executing or updating, in nanoseconds,
+ * or null if the [category] is not [measured][ProfileCategory.isMeasured]
+ * @property dependencyUpdates the number of dependent reactions updated after the executions,
+ * or null if the [category] is not [measured][ProfileCategory.isMeasured]
+ * @property reschedules the number of updates that changed the scheduling of the reaction
+ */
+data class ProfileEntry(
+    val category: ProfileCategory,
+    val name: String,
+    val count: Long,
+    val nanos: Long?,
+    val dependencyUpdates: Long?,
+    val reschedules: Long,
+)
+
+/**
+ * A copy of the statistics collected by an [EngineProfiler].
+ *
+ * @property samplingPeriod one step every [samplingPeriod] has been recorded
+ * @property sampledSteps the number of recorded steps
+ * @property neighborhoodChanges the number of neighbors added or removed during the recorded steps
+ * @property reschedules the number of reaction updates that changed their scheduling during the recorded steps
+ * @property averageSchedulerDepth the average depth of the scheduler (a binary heap) at the recorded steps
+ * @property maxSchedulerDepth the maximum depth of the scheduler at the recorded steps
+ * @property entries the statistics of each reaction, action, condition, and node group
+ */
+data class ProfileSnapshot(
+    val samplingPeriod: Long,
+    val sampledSteps: Long,
+    val neighborhoodChanges: Long,
+    val reschedules: Long,
+    val averageSchedulerDepth: Double,
+    val maxSchedulerDepth: Long,
+    val entries: List<ProfileEntry>,
+)
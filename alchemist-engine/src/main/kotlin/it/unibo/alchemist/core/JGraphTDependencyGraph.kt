@@ -35,6 +35,12 @@ class JGraphTDependencyGraph<T>(private val environment: Environment<T, *>) : De
     private val outGlobals = ArrayListSet<Actionable<T>>()
     private val graph: DefaultDirectedGraph<Actionable<T>, Edge<T>> = DefaultDirectedGraph(null, null, false)
     private val runtimeRemovalCache = mutableSetOf<Actionable<T>>()
+    private val registry = DependencyRegistry()
+
+    /*
+     * Dependencies are summarized when reactions enter the graph.
+     */
+    private val signatures = HashMap<Actionable<T>, DependencyRegistry.Signatures>()
 
     override fun createDependencies(newReaction: Actionable<T>) {
         val allReactions = graph.vertexSet()
@@ -100,6 +106,7 @@ class JGraphTDependencyGraph<T>(private val environment: Environment<T, *>) : De
         check(graph.addVertex(newReaction)) {
             "$newReaction was already in the dependency graph"
         }
+        signatures[newReaction] = registry.signaturesOf(newReaction)
         inboundCandidates
             .filter { newReaction.dependsOn(it) }
             .forEach { graph.addEdge(it, newReaction, Edge(it, newReaction)) }
@@ -126,6 +133,7 @@ class JGraphTDependencyGraph<T>(private val environment: Environment<T, *>) : De
         if (!graph.removeVertex(reaction)) {
             bug("Reaction does not exists in the dependency graph.")
         }
+        signatures.remove(reaction)
         if (reaction.inputContext == Context.GLOBAL && !inGlobals.remove(reaction)) {
             bug("Inconsistent state: $reaction, with global input context, was not in the appropriate pool.")
         }
@@ -233,11 +241,14 @@ class JGraphTDependencyGraph<T>(private val environment: Environment<T, *>) : De
 
     private val Actionable<T>.node: Node<T> get() = checkNotNull(this as? Reaction).node
 
-    private fun Actionable<T>.dependsOn(other: Actionable<T>) = inboundDependencies.any { inbound ->
-        other.outboundDependencies.any { outbound ->
-            inbound.dependsOn(outbound) || outbound.makesDependent(inbound)
-        }
-    }
+    private val Actionable<T>.signatures get() = this@JGraphTDependencyGraph.signatures[this]
+        ?: registry.signaturesOf(this)
+
+    /*
+     * Propensity-independent reactions are only rescheduled by their own execution, so nothing can influence them.
+     */
+    private fun Actionable<T>.dependsOn(other: Actionable<T>) =
+        !isPropensityIndependent && signatures.inbound.dependsOn(other.signatures.outbound)
 
     private val Node<T>.neighborhood get() = environment.getNeighborhood(this).neighbors
 
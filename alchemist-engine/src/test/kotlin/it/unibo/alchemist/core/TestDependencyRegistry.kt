@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.model.Dependency
+import it.unibo.alchemist.model.molecules.SimpleMolecule
+
+private object Custom : Dependency {
+    override fun dependsOn(dependency: Dependency) = dependency == Dependency.MOVEMENT
+}
+
+class TestDependencyRegistry :
+    StringSpec(
+        {
+            val registry = DependencyRegistry()
+            val molecules = (0 until 100).map { SimpleMolecule("m$it") }
+            val dependencies =
+                molecules + listOf(Dependency.EVERYTHING, Dependency.EVERY_MOLECULE, Dependency.MOVEMENT, Custom)
+            "signatures should agree with pairwise dependency checks" {
+                val sets =
+                    dependencies.map { listOf(it) } +
+                        listOf(emptyList(), listOf(molecules[1], molecules[99]), listOf(molecules[64], Custom))
+                sets.forEach { inbound ->
+                    sets.forEach { outbound ->
+                        val expected =
+                            inbound.any { i -> outbound.any { o -> i.dependsOn(o) || o.makesDependent(i) } }
+                        registry.signatureOf(inbound).dependsOn(registry.signatureOf(outbound)) shouldBe expected
+                    }
+                }
+            }
+            "equal molecules should share their id" {
+                registry
+                    .signatureOf(listOf(SimpleMolecule("m42")))
+                    .dependsOn(registry.signatureOf(listOf(molecules[42]))) shouldBe true
+            }
+        },
+    )
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.FreeSpec
+import io.kotest.matchers.booleans.shouldBeTrue
+import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import it.unibo.alchemist.boundary.monitors.ProfilingMonitor
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.linkingrules.ConnectWithinDistance
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import kotlin.io.path.createTempDirectory
+import org.apache.commons.math3.random.MersenneTwister
+
+class TestProfiling :
+    FreeSpec({
+        "The profiling monitor should record one step every sampling period" {
+            val environment = environmentWithReactions()
+            val folder = createTempDirectory("alchemist-profiling").toFile()
+            val monitor = ProfilingMonitor<Double, Euclidean2DPosition>(SAMPLING_PERIOD, folder.absolutePath)
+            val engine = Engine(environment)
+            engine.addOutputMonitor(monitor)
+            engine.play()
+            engine.run()
+            engine.error.isEmpty shouldBe true
+            val profile = monitor.profiler.snapshot()
+            profile.sampledSteps shouldBe (engine.step + SAMPLING_PERIOD - 1) / SAMPLING_PERIOD
+            profile.maxSchedulerDepth shouldBe 3
+            fun total(category: ProfileCategory) = profile.entries.filter { it.category == category }.sumOf { it.count }
+            total(ProfileCategory.REACTION) shouldBe profile.sampledSteps
+            total(ProfileCategory.NODE_GROUP) shouldBe profile.sampledSteps
+            total(ProfileCategory.UPDATE) shouldBeGreaterThanOrEqual profile.sampledSteps
+            folder.resolve("profile.json").readText() shouldContain "\"sampledSteps\":${profile.sampledSteps}"
+            folder.resolve("profile.csv").exists().shouldBeTrue()
+            folder.deleteRecursively()
+        }
+        "Actions and conditions should only be counted" {
+            val environment = environmentWithReactions()
+            val profiler = EngineProfiler(SAMPLING_PERIOD)
+            val engine = Engine(environment)
+            engine.attachProfiler(profiler)
+            engine.play()
+            engine.run()
+            engine.error.isEmpty shouldBe true
+            val profile = profiler.snapshot()
+            val (counted, measured) = profile.entries.partition {
+                it.category == ProfileCategory.ACTION || it.category == ProfileCategory.CONDITION
+            }
+            counted.map { it.category }.toSet() shouldBe setOf(ProfileCategory.ACTION, ProfileCategory.CONDITION)
+            counted.forEach {
+                it.nanos.shouldBeNull()
+                it.dependencyUpdates.shouldBeNull()
+            }
+            measured.forEach {
+                it.nanos.shouldNotBeNull()
+                it.dependencyUpdates.shouldNotBeNull()
+            }
+        }
+    })
+
+private const val SAMPLING_PERIOD = 4L
+
+private const val STEPS = 1000L
+
+private fun environmentWithReactions(): Environment<Double, Euclidean2DPosition> {
+    val random = MersenneTwister(0)
+    val incarnation = BiochemistryIncarnation()
+    val environment = Continuous2DEnvironment(incarnation)
+    environment.linkingRule = ConnectWithinDistance(1.0)
+    listOf(0.0, 0.5).forEach { x ->
+        val node = incarnation.createNode(random, environment, null)
+        node.setConcentration(incarnation.createMolecule("a"), 100.0)
+        listOf("[a] --> [b]", "[b] --> [a]").forEach { program ->
+            node.addReaction(
+                incarnation.createReaction(random, environment, node, ExponentialTime(1.0, random), program),
+            )
+        }
+        environment.addNode(node, environment.makePosition(x, 0.0))
+    }
+    environment.addTerminator { it.simulation.step >= STEPS }
+    return environment
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.core
+
+import io.kotest.core.spec.style.FreeSpec
+import io.kotest.matchers.collections.shouldContain
+import io.kotest.matchers.collections.shouldNotContain
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.TimeDistribution
+import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.linkingrules.NoLinks
+import it.unibo.alchemist.model.reactions.Event
+import it.unibo.alchemist.model.timedistributions.DiracComb
+import it.unibo.alchemist.model.timedistributions.ExponentialTime
+import org.apache.commons.math3.random.MersenneTwister
+
+class TestPropensityIndependence :
+    FreeSpec({
+        "Reactions with a propensity-independent time distribution should not depend on other reactions" {
+            val random = MersenneTwister(1)
+            val incarnation = BiochemistryIncarnation()
+            val environment = Continuous2DEnvironment(incarnation).apply { linkingRule = NoLinks() }
+            val node = incarnation.createNode(random, environment, null)
+            fun reaction(description: String) =
+                incarnation.createReaction(random, environment, node, ExponentialTime(1.0, random), description)
+            val producer = reaction("[b]-->[a]")
+            val consumer = reaction("[a]-->[b]")
+            fun Node<Double>.event(timeDistribution: TimeDistribution<Double>) = Event(this, timeDistribution).apply {
+                conditions = consumer.conditions
+                actions = consumer.actions
+            }
+            val periodic = node.event(DiracComb(1.0))
+            val markovian = node.event(ExponentialTime(1.0, random))
+            periodic.isPropensityIndependent shouldBe true
+            markovian.isPropensityIndependent shouldBe false
+            consumer.isPropensityIndependent shouldBe false
+            listOf(producer, periodic, markovian).forEach { node.addReaction(it) }
+            environment.addNode(node, environment.makePosition(0, 0))
+            with(JGraphTDependencyGraph(environment)) {
+                node.reactions.forEach { createDependencies(it) }
+                val dependencies = outboundDependencies(producer)
+                dependencies shouldContain markovian
+                dependencies shouldNotContain periodic
+                outboundDependencies(periodic) shouldContain producer
+            }
+        }
+    })
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
  * listed, for each module, in the respective subproject's build.gradle.kts file.
  *
  * This file is part of Alchemist, and is distributed under the terms of the
@@ -10,11 +10,74 @@
 package it.unibo.alchemist.model.environments
 
 import it.unibo.alchemist.model.Incarnation
+import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
 
 /**
  * Implementation of [Euclidean2DEnvironment].
+ *
+ * If [packedCoordinates] is true, the coordinates of the nodes are also kept in primitive columns indexed by a
+ * dense node slot: [getX], [getY], and [getDistanceBetweenNodes] read them directly,
+ * with no position lookup nor coordinate array copy.
+ * The columns are disabled by default, as keeping them in sync costs memory and time upon every movement.
  */
-open class Continuous2DEnvironment<T>(incarnation: Incarnation<T, Euclidean2DPosition>) :
+open class Continuous2DEnvironment<T>
+@JvmOverloads
+constructor(incarnation: Incarnation<T, Euclidean2DPosition>, packedCoordinates: Boolean = false) :
     Abstract2DEnvironment<T, Euclidean2DPosition>(incarnation),
-    Euclidean2DEnvironment<T>
+    Euclidean2DEnvironment<T> {
+    private val packed: PackedCoordinates2D? = if (packedCoordinates) PackedCoordinates2D() else null
+
+    /*
+     * The slot of the node in the packed columns, negative if there is none
+     */
+    private fun slotOf(node: Node<T>): Int = packed?.slotOf(node.id) ?: NO_SLOT
+
+    /**
+     * The first coordinate of the position of [node].
+     */
+    fun getX(node: Node<T>): Double {
+        val slot = slotOf(node)
+        return if (slot < 0) getPosition(node).x else checkNotNull(packed).x(slot)
+    }
+
+    /**
+     * The second coordinate of the position of [node].
+     */
+    fun getY(node: Node<T>): Double {
+        val slot = slotOf(node)
+        return if (slot < 0) getPosition(node).y else checkNotNull(packed).y(slot)
+    }
+
+    override fun getDistanceBetweenNodes(n1: Node<T>, n2: Node<T>): Double {
+        val first = slotOf(n1)
+        val second = slotOf(n2)
+        return when {
+            first < 0 || second < 0 -> super.getDistanceBetweenNodes(n1, n2)
+            else -> checkNotNull(packed).distance(first, second)
+        }
+    }
+
+    /*
+     * Same corners as Euclidean2DPosition.boundingBox, with no intermediate positions
+     */
+    override fun queryCorners(center: Euclidean2DPosition, range: Double): Array<DoubleArray> = arrayOf(
+        doubleArrayOf(center.x - range, center.y + range),
+        doubleArrayOf(center.x + range, center.y - range),
+    )
+
+    override fun positionChanged(node: Node<T>, position: Euclidean2DPosition?) {
+        super.positionChanged(node, position)
+        packed?.run {
+            when (position) {
+                null -> remove(node.id)
+                else -> set(node.id, position.x, position.y)
+            }
+        }
+    }
+
+    private companion object {
+        private const val serialVersionUID = 1L
+        private const val NO_SLOT = -1
+    }
+}
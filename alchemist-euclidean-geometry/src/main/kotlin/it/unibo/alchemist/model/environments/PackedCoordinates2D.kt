@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.environments
+
+import gnu.trove.map.hash.TIntIntHashMap
+import java.io.Serializable
+import kotlin.math.sqrt
+
+/**
+ * Structure-of-arrays copy of bidimensional node positions:
+ * coordinates are kept in two primitive columns, indexed by a dense slot assigned to each node id.
+ * Removing a node moves the last slot in its place, so that columns never have holes.
+ */
+internal class PackedCoordinates2D : Serializable {
+    private val slots = TIntIntHashMap(INITIAL_CAPACITY, LOAD_FACTOR, NO_ID, NO_SLOT)
+    private var ids = IntArray(INITIAL_CAPACITY)
+    private var xs = DoubleArray(INITIAL_CAPACITY)
+    private var ys = DoubleArray(INITIAL_CAPACITY)
+
+    /**
+     * The number of stored positions.
+     */
+    var size: Int = 0
+        private set
+
+    /**
+     * Returns the slot of the node with the provided [id], or a negative number if there is none.
+     */
+    fun slotOf(id: Int): Int = slots[id]
+
+    /**
+     * Stores (or updates) the coordinates of the node with the provided [id].
+     */
+    fun set(id: Int, x: Double, y: Double) {
+        var slot = slots[id]
+        if (slot == NO_SLOT) {
+            if (size == ids.size) {
+                val capacity = size * 2
+                ids = ids.copyOf(capacity)
+                xs = xs.copyOf(capacity)
+                ys = ys.copyOf(capacity)
+            }
+            slot = size++
+            ids[slot] = id
+            slots.put(id, slot)
+        }
+        xs[slot] = x
+        ys[slot] = y
+    }
+
+    /**
+     * Removes the coordinates of the node with the provided [id], if present.
+     */
+    fun remove(id: Int) {
+        val slot = slots.remove(id)
+        if (slot != NO_SLOT) {
+            val last = --size
+            if (slot != last) {
+                ids[slot] = ids[last]
+                xs[slot] = xs[last]
+                ys[slot] = ys[last]
+                slots.put(ids[slot], slot)
+            }
+        }
+    }
+
+    /**
+     * The first coordinate stored in [slot].
+     */
+    fun x(slot: Int): Double = xs[slot]
+
+    /**
+     * The second coordinate stored in [slot].
+     */
+    fun y(slot: Int): Double = ys[slot]
+
+    /**
+     * The squared euclidean distance between the positions stored in slots [first] and [second].
+     */
+    fun squaredDistance(first: Int, second: Int): Double {
+        val dx = xs[first] - xs[second]
+        val dy = ys[first] - ys[second]
+        return dx * dx + dy * dy
+    }
+
+    /**
+     * The euclidean distance between the positions stored in slots [first] and [second].
+     */
+    fun distance(first: Int, second: Int): Double = sqrt(squaredDistance(first, second))
+
+    private companion object {
+        private const val serialVersionUID = 1L
+        private const val INITIAL_CAPACITY = 16
+        private const val LOAD_FACTOR = 0.5f
+        private const val NO_ID = Int.MIN_VALUE
+        private const val NO_SLOT = -1
+    }
+}
@@ -10,15 +10,19 @@
 package it.unibo.alchemist.model.environments;
 
 import it.unibo.alchemist.model.Incarnation;
+import it.unibo.alchemist.model.Molecule;
 import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.SupportedIncarnations;
 import it.unibo.alchemist.model.linkingrules.NoLinks;
+import it.unibo.alchemist.model.molecules.SimpleMolecule;
 import it.unibo.alchemist.model.nodes.GenericNode;
 import it.unibo.alchemist.model.positions.Euclidean2DPosition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -119,4 +123,65 @@ final class TestContinuous2DEnvironment {
         assertEquals(Collections.singletonList(dummy2), environment.getNodesWithinRange(dummy, Math.nextUp(0)));
     }
 
+    /**
+     * Test that change epochs follow movements and actual changes of concentration.
+     */
+    @Test
+    void testChangeEpochs() {
+        final GenericNode<Integer> node = (GenericNode<Integer>) createIntNode();
+        final Molecule molecule = new SimpleMolecule("test");
+        environment.addNode(node, new Euclidean2DPosition(ZEROS));
+        node.setConcentration(molecule, 1);
+        assertEquals(0, environment.getChangeEpoch());
+        environment.enableChangeTracking();
+        node.setConcentration(molecule, 1);
+        assertEquals(0, environment.getChangeEpoch());
+        node.setConcentration(molecule, 2);
+        assertEquals(1, environment.getChangeEpoch());
+        assertEquals(1, node.getChangeEpoch());
+        environment.moveNodeToPosition(node, new Euclidean2DPosition(ZEROS));
+        assertEquals(1, environment.getChangeEpoch());
+        environment.moveNodeToPosition(node, new Euclidean2DPosition(P2_3));
+        assertEquals(2, environment.getChangeEpoch());
+        node.removeConcentration(molecule);
+        assertEquals(3, node.getChangeEpoch());
+        environment.removeNode(node);
+        assertEquals(4, environment.getChangeEpoch());
+    }
+
+    /**
+     * Test that packed coordinates follow additions, movements, and removals.
+     */
+    @Test
+    void testPackedCoordinates() {
+        environment = new Continuous2DEnvironment<>(INCARNATION, true);
+        environment.setLinkingRule(new NoLinks<>());
+        final List<Node<Integer>> nodes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final Node<Integer> node = createIntNode();
+            environment.addNode(node, new Euclidean2DPosition(i, -i));
+            nodes.add(node);
+        }
+        environment.moveNodeToPosition(nodes.get(3), new Euclidean2DPosition(P2_3));
+        environment.removeNode(nodes.remove(0));
+        environment.removeNode(nodes.remove(7));
+        for (final Node<Integer> node : nodes) {
+            final Euclidean2DPosition position = environment.getPosition(node);
+            assertEquals(position.getX(), environment.getX(node));
+            assertEquals(position.getY(), environment.getY(node));
+            for (final Node<Integer> other : nodes) {
+                assertEquals(
+                    position.distanceTo(environment.getPosition(other)),
+                    environment.getDistanceBetweenNodes(node, other)
+                );
+            }
+        }
+        try {
+            environment.getX(createIntNode());
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertFalse(e.getMessage().isEmpty());
+        }
+    }
+
 }
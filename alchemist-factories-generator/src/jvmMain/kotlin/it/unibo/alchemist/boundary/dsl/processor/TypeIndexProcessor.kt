@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.dsl.processor
+
+import com.google.devtools.ksp.getAllSuperTypes
+import com.google.devtools.ksp.isAbstract
+import com.google.devtools.ksp.processing.CodeGenerator
+import com.google.devtools.ksp.processing.Dependencies
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.symbol.ClassKind
+import com.google.devtools.ksp.symbol.KSAnnotated
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSDeclaration
+import com.google.devtools.ksp.symbol.KSFile
+import com.google.devtools.ksp.symbol.KSTypeAlias
+import java.io.PrintWriter
+import java.nio.charset.StandardCharsets
+
+/**
+ * Symbol processor that writes an index of the types declared in a module along with all their supertypes,
+ * which `ClassPathScanner` reads at runtime in place of scanning the module.
+ *
+ * Each line of the index is in the form `K binary.TypeName:binary.SuperType1,binary.SuperType2,...`,
+ * where `K` is `C` for concrete classes, and `A` for abstract classes and interfaces.
+ */
+class TypeIndexProcessor(private val codeGenerator: CodeGenerator) : SymbolProcessor {
+    private val entries = sortedMapOf<String, String>()
+    private val sources = mutableSetOf<KSFile>()
+
+    override fun process(resolver: Resolver): List<KSAnnotated> {
+        /*
+         * The index is an aggregating output: all files are visited, not just the new ones.
+         */
+        resolver.getAllFiles().forEach { file ->
+            file.declarations
+                .filterIsInstance<KSClassDeclaration>()
+                .flatMap { it.withNestedClasses() }
+                .filter { it.classKind != ClassKind.ANNOTATION_CLASS && it.classKind != ClassKind.ENUM_ENTRY }
+                .forEach { declaration ->
+                    val kind = if (declaration.isConcrete()) "C" else "A"
+                    entries[declaration.binaryName] =
+                        declaration
+                            .getAllSuperTypes()
+                            .mapNotNull { it.declaration.resolveAliases()?.binaryName }
+                            .filterNot { it == "kotlin.Any" }
+                            .distinct()
+                            .sorted()
+                            .joinToString(separator = ",", prefix = "$kind ${declaration.binaryName}:")
+                    sources += file
+                }
+        }
+        return emptyList()
+    }
+
+    override fun finish() {
+        if (entries.isNotEmpty()) {
+            val file =
+                codeGenerator.createNewFileByPath(
+                    dependencies = Dependencies(true, *sources.toTypedArray()),
+                    path = TYPE_INDEX,
+                    extensionName = "",
+                )
+            PrintWriter(file, true, StandardCharsets.UTF_8).use { writer ->
+                entries.values.forEach(writer::println)
+            }
+        }
+    }
+
+    private companion object {
+        /**
+         * Must match the location read by `it.unibo.alchemist.util.ClassPathScanner`.
+         */
+        private const val TYPE_INDEX = "META-INF/alchemist/type-index"
+
+        private fun KSClassDeclaration.withNestedClasses(): Sequence<KSClassDeclaration> = sequenceOf(this) +
+            declarations.filterIsInstance<KSClassDeclaration>().flatMap { it.withNestedClasses() }
+
+        private fun KSClassDeclaration.isConcrete() =
+            classKind in setOf(ClassKind.CLASS, ClassKind.OBJECT, ClassKind.ENUM_CLASS) && !isAbstract()
+
+        private tailrec fun KSDeclaration.resolveAliases(): KSClassDeclaration? = when (this) {
+            is KSClassDeclaration -> this
+            is KSTypeAlias -> type.resolve().declaration.resolveAliases()
+            else -> null
+        }
+
+        /*
+         * The JVM name of the class: nested classes are separated by '$'.
+         */
+        private val KSClassDeclaration.binaryName: String
+            get() =
+                when (val parent = parentDeclaration) {
+                    is KSClassDeclaration -> "${parent.binaryName}$${simpleName.asString()}"
+                    else -> checkNotNull(qualifiedName).asString()
+                }
+    }
+}
@@ -41,7 +41,7 @@ buildscript {
 
 dependencies {
     runtimeOnly(rootProject)
-    rootProject.allprojects.filterNot { it == project }.forEach {
+    rootProject.allprojects.filterNot { it == project || it == alchemist("benchmarks") }.forEach {
         runtimeOnly(it)
         dokka(it)
     }
@@ -77,6 +77,8 @@ tasks.withType<ShadowJar>().configureEach {
         "gradle",
         "gradlew.bat",
         "gradlew",
+        // Per-module type indexes would clash: the merged jar gets scanned instead
+        "META-INF/alchemist/type-index",
     )
     isZip64 = true
     mergeServiceFiles()
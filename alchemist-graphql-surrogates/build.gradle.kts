@@ -22,6 +22,7 @@ dependencies {
     implementation(libs.graphql.hooks.provider)
     implementation(libs.kotlinx.serialization.json)
     implementation(libs.bundles.graphql.server)
+    implementation(alchemist("engine"))
     implementation(alchemist("implementationbase"))
 }
 
@@ -12,13 +12,19 @@ package it.unibo.alchemist.boundary.graphql.schema.model.surrogates
 import com.expediagroup.graphql.generator.annotations.GraphQLDescription
 import com.expediagroup.graphql.generator.annotations.GraphQLIgnore
 import it.unibo.alchemist.boundary.graphql.schema.util.NodeToPosMap
+import it.unibo.alchemist.boundary.graphql.schema.util.PositionSurrogateUtils
 import it.unibo.alchemist.boundary.graphql.schema.util.toNodeToPosMap
+import it.unibo.alchemist.core.Status
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Layer
 import it.unibo.alchemist.model.Molecule
+import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.Position
 import it.unibo.alchemist.model.times.DoubleTime
+import kotlin.math.sqrt
+import kotlinx.coroutines.CompletableDeferred
 import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.withTimeoutOrNull
 
 /**
  * A surrogate for [Environment].
@@ -111,6 +117,136 @@ data class EnvironmentSurrogate<T, P : Position<out P>>(
         return if (isAdded) newNode.toGraphQLNodeSurrogate() else null
     }
 
+    /**
+     * Returns a page of the nodes whose position lies within the box between [lowerCorner] and [upperCorner]
+     * (both included) and that satisfy all the [filters].
+     * Nodes are sorted by id: [first] nodes are returned, starting after the one identified by the cursor [after].
+     * Contents are restricted to the provided [molecules] (all molecules if null).
+     * The page is copied on the simulation thread between two events, see [NodePage].
+     */
+    @GraphQLDescription("A page of the nodes within the given box, satisfying the filters")
+    suspend fun nodesInBox(
+        lowerCorner: PositionInput,
+        upperCorner: PositionInput,
+        filters: List<MoleculeFilterInput>?,
+        molecules: List<MoleculeInput>?,
+        first: Int?,
+        after: String?,
+    ): NodePage {
+        require(lowerCorner.coordinates.size == dimensions && upperCorner.coordinates.size == dimensions) {
+            "The corners of the box must have $dimensions coordinates, but they are $lowerCorner and $upperCorner"
+        }
+        val lower = lowerCorner.coordinates
+        val upper = upperCorner.coordinates
+        val center = lower.zip(upper) { min, max -> (min + max) / 2 }
+        /*
+         * The spatial index is queried with the sphere circumscribing the box (slightly enlarged to account for
+         * rounding errors), the nodes outside the box are discarded afterwards.
+         */
+        val range = sqrt(lower.zip(upper) { min, max -> (max - min) * (max - min) }.sum()) / 2 * (1 + RANGE_TOLERANCE)
+        return queryNodes(center, range, filters, molecules, first, after) { coordinates ->
+            coordinates.indices.all { coordinates[it] in lower[it]..upper[it] }
+        }
+    }
+
+    /**
+     * Returns a page of the nodes within [range] from [center] that satisfy all the [filters].
+     * Nodes are sorted by id: [first] nodes are returned, starting after the one identified by the cursor [after].
+     * Contents are restricted to the provided [molecules] (all molecules if null).
+     * The page is copied on the simulation thread between two events, see [NodePage].
+     */
+    @GraphQLDescription("A page of the nodes within the given range from the center, satisfying the filters")
+    suspend fun nodesInRange(
+        center: PositionInput,
+        range: Double,
+        filters: List<MoleculeFilterInput>?,
+        molecules: List<MoleculeInput>?,
+        first: Int?,
+        after: String?,
+    ): NodePage {
+        require(center.coordinates.size == dimensions) {
+            "The center must have $dimensions coordinates, but it is $center"
+        }
+        return queryNodes(center.coordinates, range, filters, molecules, first, after) { true }
+    }
+
+    private suspend fun queryNodes(
+        center: List<Double>,
+        range: Double,
+        filters: List<MoleculeFilterInput>?,
+        molecules: List<MoleculeInput>?,
+        first: Int?,
+        after: String?,
+        inside: (DoubleArray) -> Boolean,
+    ): NodePage {
+        val pageSize = first ?: DEFAULT_PAGE_SIZE
+        require(pageSize >= 0) { "The page size must not be negative, but it is $pageSize" }
+        val afterId = after?.let { requireNotNull(it.toIntOrNull()) { "Invalid cursor: $it" } } ?: Int.MIN_VALUE
+        val projection = molecules?.mapTo(mutableSetOf()) { it.name }
+        return onSimulationThread {
+            val matching: List<Node<T>> =
+                origin
+                    .getNodesWithinRange(origin.makePosition(center), range)
+                    .filter { node ->
+                        inside(origin.getPosition(node).coordinates) &&
+                            filters.orEmpty().all { filter ->
+                                node.contents.any { (molecule, concentration) ->
+                                    molecule.name == filter.molecule && filter.test(concentration)
+                                }
+                            }
+                    }.sortedBy { it.id }
+            val start = matching.indexOfFirst { it.id > afterId }.takeIf { it >= 0 } ?: matching.size
+            val page =
+                matching.subList(start, minOf(matching.size, start + pageSize)).map { node ->
+                    val position = PositionSurrogateUtils.toPositionSurrogate(origin.getPosition(node))
+                    node.toNodeSnapshot(position, projection)
+                }
+            NodePage(
+                nodes = page,
+                totalCount = matching.size,
+                endCursor = page.lastOrNull()?.id?.toString(),
+                hasNextPage = start + page.size < matching.size,
+                time = origin.simulation.time.toDouble(),
+                step = origin.simulation.step,
+            )
+        }
+    }
+
+    /*
+     * Runs the query on the simulation thread, between two events.
+     * Before the simulation starts and once it is over its state does not change, so the query is run directly.
+     */
+    private suspend fun <R> onSimulationThread(query: () -> R): R {
+        val simulation = origin.simulation
+        if (simulation.status == Status.INIT || simulation.status == Status.TERMINATED) {
+            return query()
+        }
+        val result = CompletableDeferred<R>()
+        try {
+            simulation.schedule {
+                result.completeWith(runCatching(query))
+            }
+        } catch (terminated: IllegalStateException) {
+            /*
+             * The simulation terminated after the status check: its state no longer changes.
+             * Any other scheduling failure is reported to the caller instead of waiting for a result that never comes.
+             */
+            if (simulation.status == Status.TERMINATED) {
+                return query()
+            }
+            throw terminated
+        }
+        while (true) {
+            withTimeoutOrNull(TERMINATION_POLL_MILLIS) { result.await() }?.let { return it }
+            if (simulation.status == Status.TERMINATED) {
+                /*
+                 * The simulation ended before processing the query, and discarded it.
+                 */
+                return if (result.isCompleted) result.await() else query()
+            }
+        }
+    }
+
     /**
      * Returns the [LayerSurrogate] associated with the molecule represented by the given [MoleculeInput].
      *
@@ -132,6 +268,20 @@ data class EnvironmentSurrogate<T, P : Position<out P>>(
      */
     private fun getLayerFromMoleculeInput(m: MoleculeInput) =
         moleculeToLayer.filterKeys { it.name == m.name }.values.firstOrNull()
+
+    private companion object {
+        /*
+         * Page size used when none is requested.
+         */
+        private const val DEFAULT_PAGE_SIZE = 1000
+
+        /*
+         * How often a pending query checks whether the simulation terminated without running it.
+         */
+        private const val TERMINATION_POLL_MILLIS = 100L
+
+        private const val RANGE_TOLERANCE = 1e-9
+    }
 }
 
 /**
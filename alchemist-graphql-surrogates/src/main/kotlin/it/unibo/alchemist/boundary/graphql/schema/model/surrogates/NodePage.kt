@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.graphql.schema.model.surrogates
+
+import com.expediagroup.graphql.generator.annotations.GraphQLDescription
+import com.expediagroup.graphql.generator.annotations.GraphQLIgnore
+import it.unibo.alchemist.boundary.graphql.schema.util.MoleculeToConcentrationEntry
+import it.unibo.alchemist.boundary.graphql.schema.util.encodeConcentrationContentToString
+import it.unibo.alchemist.model.Molecule
+import it.unibo.alchemist.model.Node
+
+/**
+ * An immutable copy of the state of a node, taken at the time of the [NodePage] containing it.
+ *
+ * @property id the id of the node
+ * @property position the position of the node
+ * @property contents the molecules of the node with their concentrations,
+ * restricted to the molecules requested by the query
+ */
+@GraphQLDescription("A copy of the state of a node")
+data class NodeSnapshot(
+    val id: Int,
+    val position: PositionSurrogate,
+    val contents: List<MoleculeToConcentrationEntry>,
+)
+
+/**
+ * A page of the nodes selected by a query, copied on the simulation thread between two events,
+ * so that all its nodes are consistent with each other and with the reported [time] and [step].
+ *
+ * @property nodes the nodes in this page, sorted by id
+ * @property totalCount the number of nodes matching the query, in all pages
+ * @property endCursor the cursor to pass as `after` argument to get the next page, null if this page is empty
+ * @property hasNextPage whether there are further nodes matching the query after this page
+ * @property time the simulation time at which the nodes have been copied
+ * @property step the simulation step at which the nodes have been copied
+ */
+@GraphQLDescription("A page of nodes, consistently copied at the given time and step")
+data class NodePage(
+    val nodes: List<NodeSnapshot>,
+    val totalCount: Int,
+    val endCursor: String?,
+    val hasNextPage: Boolean,
+    val time: Double,
+    val step: Long,
+)
+
+/**
+ * GraphQL input object for a predicate on the concentration of a molecule.
+ * A node satisfies the predicate if it contains the molecule and:
+ * - if [min] or [max] are provided, its concentration is a number within [[min], [max]];
+ * - if [equalTo] is provided, the (JSON) string representation of its concentration is [equalTo].
+ *
+ * @property molecule the name of the molecule
+ * @property min the minimum (inclusive) value of the concentration
+ * @property max the maximum (inclusive) value of the concentration
+ * @property equalTo the expected string representation of the concentration
+ */
+@GraphQLDescription("A predicate on the concentration of a molecule, used as input object")
+data class MoleculeFilterInput(
+    val molecule: String,
+    val min: Double? = null,
+    val max: Double? = null,
+    val equalTo: String? = null,
+) {
+    /**
+     * Tests whether the [concentration] of the molecule satisfies this predicate.
+     */
+    @GraphQLIgnore
+    fun test(concentration: Any?): Boolean {
+        if (min != null || max != null) {
+            val value = (concentration as? Number)?.toDouble() ?: return false
+            if (min != null && value < min || max != null && value > max) {
+                return false
+            }
+        }
+        return equalTo == null || equalTo == encodeConcentrationContentToString(concentration)
+    }
+}
+
+/**
+ * Copies the state of this [Node], in the provided [position],
+ * retaining only the [molecules] in its contents (all of them if null).
+ */
+internal fun <T> Node<T>.toNodeSnapshot(position: PositionSurrogate, molecules: Set<String>?) = NodeSnapshot(
+    id,
+    position,
+    contents.mapNotNull { (molecule: Molecule, concentration) ->
+        if (molecules == null || molecule.name in molecules) {
+            MoleculeToConcentrationEntry(
+                molecule.toGraphQLMoleculeSurrogate(),
+                encodeConcentrationContentToString(concentration),
+            )
+        } else {
+            null
+        }
+    },
+)
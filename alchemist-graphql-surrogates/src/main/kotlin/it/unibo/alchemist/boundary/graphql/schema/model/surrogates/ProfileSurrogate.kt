@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.graphql.schema.model.surrogates
+
+import com.expediagroup.graphql.generator.annotations.GraphQLDescription
+import com.expediagroup.graphql.generator.annotations.GraphQLIgnore
+import it.unibo.alchemist.core.ProfileEntry
+import it.unibo.alchemist.core.ProfileSnapshot
+
+/**
+ * A surrogate for [ProfileSnapshot].
+ * @property origin the original [ProfileSnapshot] wrapped by this surrogate
+ */
+@GraphQLDescription("The statistics collected by profiling the engine on a sample of the steps")
+data class ProfileSurrogate(@param:GraphQLIgnore override val origin: ProfileSnapshot) :
+    GraphQLSurrogate<ProfileSnapshot>(origin) {
+    /**
+     * One step every [samplingPeriod] is recorded.
+     */
+    @GraphQLDescription("One step every samplingPeriod is recorded")
+    val samplingPeriod: Long = origin.samplingPeriod
+
+    /**
+     * The number of recorded steps.
+     */
+    @GraphQLDescription("The number of recorded steps")
+    val sampledSteps: Long = origin.sampledSteps
+
+    /**
+     * The number of neighbors added or removed during the recorded steps.
+     */
+    @GraphQLDescription("The number of neighbors added or removed during the recorded steps")
+    val neighborhoodChanges: Long = origin.neighborhoodChanges
+
+    /**
+     * The number of reaction updates that changed their scheduling during the recorded steps.
+     */
+    @GraphQLDescription("The number of reaction updates that changed their scheduling during the recorded steps")
+    val reschedules: Long = origin.reschedules
+
+    /**
+     * The average depth of the scheduler at the recorded steps.
+     */
+    @GraphQLDescription("The average depth of the scheduler at the recorded steps")
+    val averageSchedulerDepth: Double = origin.averageSchedulerDepth
+
+    /**
+     * The maximum depth of the scheduler at the recorded steps.
+     */
+    @GraphQLDescription("The maximum depth of the scheduler at the recorded steps")
+    val maxSchedulerDepth: Long = origin.maxSchedulerDepth
+
+    /**
+     * The statistics of each reaction, action, condition, and node group.
+     */
+    @GraphQLDescription("The statistics of each reaction, action, condition, and node group")
+    val entries: List<ProfileEntrySurrogate> = origin.entries.map { ProfileEntrySurrogate(it) }
+}
+
+/**
+ * A surrogate for [ProfileEntry].
+ * @property origin the original [ProfileEntry] wrapped by this surrogate
+ */
+@GraphQLDescription("The statistics recorded for an element of the simulation")
+data class ProfileEntrySurrogate(@param:GraphQLIgnore override val origin: ProfileEntry) :
+    GraphQLSurrogate<ProfileEntry>(origin) {
+    /**
+     * The kind of element: reaction, update, action, condition, or node group.
+     */
+    @GraphQLDescription("The kind of element: REACTION, UPDATE, ACTION, CONDITION, or NODE_GROUP")
+    val category: String = origin.category.name
+
+    /**
+     * The name of the element.
+     */
+    @GraphQLDescription("The name of the element")
+    val name: String = origin.name
+
+    /**
+     * The number of executions or updates.
+     */
+    @GraphQLDescription("The number of executions or updates")
+    val count: Long = origin.count
+
+    /**
+     * The time spent executing or updating, in nanoseconds, or null for actions and conditions, which are only counted.
+     */
+    @GraphQLDescription("The time spent executing or updating, in nanoseconds; null for ACTION and CONDITION")
+    val nanos: Long? = origin.nanos
+
+    /**
+     * The number of dependent reactions updated after the executions, or null for actions and conditions.
+     */
+    @GraphQLDescription("The number of dependent reactions updated after the executions; null for ACTION and CONDITION")
+    val dependencyUpdates: Long? = origin.dependencyUpdates
+
+    /**
+     * The number of updates that changed the scheduling of the reaction.
+     */
+    @GraphQLDescription("The number of updates that changed the scheduling of the reaction")
+    val reschedules: Long = origin.reschedules
+}
+
+/**
+ * Converts a [ProfileSnapshot] to a [ProfileSurrogate].
+ * @return a [ProfileSurrogate] representing the given [ProfileSnapshot]
+ */
+fun ProfileSnapshot.toGraphQLProfileSurrogate() = ProfileSurrogate(this)
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.graphql.schema.operations.queries
+
+import com.expediagroup.graphql.generator.annotations.GraphQLDescription
+import com.expediagroup.graphql.server.operations.Query
+import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.ProfileSurrogate
+import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.toGraphQLProfileSurrogate
+import it.unibo.alchemist.boundary.monitors.ProfilingMonitor
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Position
+
+/**
+ * Set of GraphQL queries on the profiling of the engine.
+ */
+class ProfilingQueries<T, P : Position<out P>>(private val environment: Environment<T, P>) : Query {
+    /**
+     * Returns the statistics collected so far by the [ProfilingMonitor] attached to the simulation, if any.
+     *
+     * @return the profiling statistics, or null if the simulation is not being profiled
+     */
+    @GraphQLDescription("The statistics collected so far by profiling the engine, if profiling is enabled.")
+    fun profile(): ProfileSurrogate? =
+        environment.simulation.outputMonitors
+            .filterIsInstance<ProfilingMonitor<*, *>>()
+            .firstOrNull()
+            ?.profiler
+            ?.snapshot()
+            ?.toGraphQLProfileSurrogate()
+}
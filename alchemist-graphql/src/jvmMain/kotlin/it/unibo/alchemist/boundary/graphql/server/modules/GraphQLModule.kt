@@ -23,6 +23,7 @@ import io.ktor.server.websocket.WebSockets
 import it.unibo.alchemist.boundary.graphql.schema.operations.mutations.SimulationControl
 import it.unibo.alchemist.boundary.graphql.schema.operations.queries.EnvironmentQueries
 import it.unibo.alchemist.boundary.graphql.schema.operations.queries.NodeQueries
+import it.unibo.alchemist.boundary.graphql.schema.operations.queries.ProfilingQueries
 import it.unibo.alchemist.boundary.graphql.schema.operations.subscriptions.EnvironmentSubscriptions
 import it.unibo.alchemist.boundary.graphql.schema.operations.subscriptions.NodeSubscriptions
 import it.unibo.alchemist.model.Environment
@@ -63,6 +64,7 @@ fun Application.graphQLModule(environment: Environment<*, *>) {
                 listOf(
                     EnvironmentQueries(environment),
                     NodeQueries(environment),
+                    ProfilingQueries(environment),
                 )
             mutations =
                 listOf(
@@ -11,7 +11,11 @@ package it.unibo.alchemist.boundary.graphql.schema.model
 
 import it.unibo.alchemist.boundary.GraphQLTestEnvironments
 import it.unibo.alchemist.boundary.graphql.schema.model.NodeSurrogateTest.Companion.checkNodeSurrogate
+import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.MoleculeFilterInput
+import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.MoleculeInput
 import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.NeighborhoodSurrogate
+import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.NodePage
+import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.PositionInput
 import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.toGraphQLEnvironmentSurrogate
 import it.unibo.alchemist.boundary.graphql.schema.model.surrogates.toGraphQLNodeSurrogate
 import it.unibo.alchemist.model.Neighborhood
@@ -21,6 +25,7 @@ import it.unibo.alchemist.model.geometry.Vector
 import java.util.concurrent.TimeUnit
 import kotlin.test.assertEquals
 import kotlin.test.assertTrue
+import kotlinx.coroutines.runBlocking
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.Timeout
 
@@ -56,7 +61,66 @@ class EnvironmentSurrogateTest<T, P> where T : Any, P : Position<P>, P : Vector<
         }
     }
 
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    fun `Spatial queries should return filtered pages of the matching nodes`() {
+        GraphQLTestEnvironments.loadTests<T, P> { envWrapper ->
+            val envSurrogate = envWrapper.toGraphQLEnvironmentSurrogate()
+            val names = envWrapper.nodes.flatMap { node -> node.contents.keys.map { it.name } }.distinct()
+            names.forEach { name ->
+                val filters = listOf(MoleculeFilterInput(name))
+                val expectedInBox =
+                    envWrapper.nodes
+                        .filter { node ->
+                            envWrapper.getPosition(node).coordinates.all { it in -1.0..1.0 } &&
+                                node.contents.keys.any { it.name == name }
+                        }.map { it.id }
+                        .sorted()
+                val inBox =
+                    collectPages { after ->
+                        envSurrogate.nodesInBox(
+                            PositionInput(listOf(-1.0, -1.0)),
+                            PositionInput(listOf(1.0, 1.0)),
+                            filters,
+                            listOf(MoleculeInput(name)),
+                            PAGE_SIZE,
+                            after,
+                        )
+                    }
+                assertEquals(expectedInBox, inBox.flatMap { page -> page.nodes.map { it.id } })
+                inBox.forEach { page ->
+                    assertEquals(expectedInBox.size, page.totalCount)
+                    page.nodes.forEach { node ->
+                        assertEquals(listOf(name), node.contents.map { it.molecule.name })
+                    }
+                }
+                val center = envWrapper.makePosition(0.0, 0.0)
+                val expectedInRange =
+                    envWrapper.nodes
+                        .filter { envWrapper.getPosition(it).distanceTo(center) <= 1.0 }
+                        .map { it.id }
+                        .sorted()
+                val inRange =
+                    collectPages { after ->
+                        val origin = PositionInput(listOf(0.0, 0.0))
+                        envSurrogate.nodesInRange(origin, 1.0, null, listOf(), PAGE_SIZE, after)
+                    }
+                assertEquals(expectedInRange, inRange.flatMap { page -> page.nodes.map { it.id } })
+            }
+        }
+    }
+
     companion object {
+        private const val PAGE_SIZE = 7
+
+        private fun collectPages(query: suspend (String?) -> NodePage): List<NodePage> = runBlocking {
+            val pages = mutableListOf(query(null))
+            while (pages.last().hasNextPage) {
+                pages += query(pages.last().endCursor)
+            }
+            pages
+        }
+
         fun <T> checkNeighborhood(neighborhood: Neighborhood<T>, neighborhoodSurrogate: NeighborhoodSurrogate<T>) {
             assertEquals(neighborhood.size(), neighborhoodSurrogate.size)
             assertEquals(neighborhood.isEmpty, neighborhoodSurrogate.isEmpty())
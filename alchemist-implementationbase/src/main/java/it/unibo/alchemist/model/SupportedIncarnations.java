@@ -31,7 +31,7 @@ public final class SupportedIncarnations {
     private static final Map<String, Class<? extends Incarnation<?, ?>>> INCARNATIONS;
 
     static {
-        INCARNATIONS = ClassPathScanner.subTypesOf(
+        INCARNATIONS = ClassPathScanner.allSubTypesOf(
             Incarnation.class,
             "it.unibo.alchemist"
         ).stream()
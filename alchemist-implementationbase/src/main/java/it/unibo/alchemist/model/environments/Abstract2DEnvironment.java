@@ -18,6 +18,7 @@ import org.danilopianini.util.FlexibleQuadTree;
 
 import javax.annotation.Nonnull;
 import java.io.Serial;
+import java.util.Map;
 
 import static java.lang.Double.NEGATIVE_INFINITY;
 import static java.lang.Double.NaN;
@@ -127,6 +128,17 @@ public abstract class Abstract2DEnvironment<T, P extends Position2D<P>> extends
         ifEngineAvailable(sim -> sim.nodeMoved(node));
     }
 
+    /**
+     * Updates the environment bounds to include all the new positions, then commits them as a batch.
+     */
+    @Override
+    public void moveNodesToPositions(@Nonnull final Map<Node<T>, ? extends P> newPositions) {
+        for (final P position : newPositions.values()) {
+            includeObject(position);
+        }
+        super.moveNodesToPositions(newPositions);
+    }
+
     /**
      * Subclasses may want to override this method to hook to the node addition
      * event. Overriders should call the super implementation, as it ensures the
@@ -50,6 +50,16 @@ public final class Event<T> extends AbstractReaction<T> {
         return getTimeDistribution().getRate();
     }
 
+    /**
+     * Events have no internal status, so they are propensity-independent if their {@link TimeDistribution} is.
+     *
+     * @return true if the {@link TimeDistribution} is propensity-independent
+     */
+    @Override
+    public boolean isPropensityIndependent() {
+        return getTimeDistribution().isPropensityIndependent();
+    }
+
     @Override
     @Nonnull
     public Event<T> cloneOnNewNode(@Nonnull final Node<T> node, @Nonnull final Time currentTime) {
@@ -53,6 +53,14 @@ public class DiracComb<T> extends AbstractDistribution<T> {
         return 1 / timeInterval;
     }
 
+    /**
+     * @return true, as the next event is only computed upon execution
+     */
+    @Override
+    public final boolean isPropensityIndependent() {
+        return true;
+    }
+
     @Override
     protected final void updateStatus(
             final Time currentTime,
@@ -31,6 +31,7 @@ import java.io.ObjectOutputStream
 import java.io.Serial
 import java.util.Objects
 import java.util.Spliterator
+import java.util.concurrent.atomic.AtomicLong
 import java.util.function.Consumer
 import org.danilopianini.util.ArrayListSet
 import org.danilopianini.util.ImmutableListSet
@@ -101,10 +102,55 @@ abstract class AbstractEnvironment<T, P : Position<P>> protected constructor(
 
     private var terminationPredicate: TerminationPredicate<T, P> = TerminationPredicate { false }
 
+    private val epoch = AtomicLong()
+
+    /**
+     * Whether changes are being recorded, see [enableChangeTracking].
+     */
+    @Volatile
+    var isTrackingChanges: Boolean = false
+        private set
+
+    /**
+     * Counter of the changes (node additions, removals, and movements, and changes of the contents of the nodes
+     * reporting them) recorded since [enableChangeTracking] was called:
+     * if it did not increase between two reads, nothing changed in between.
+     */
+    val changeEpoch: Long get() = epoch.get()
+
+    /**
+     * The simulation step at which the last change was recorded, -1 if none was recorded.
+     */
+    @Volatile
+    var lastChangeStep: Long = -1
+        private set
+
     init {
         this.incarnation = requireNotNull(incarnation)
     }
 
+    /**
+     * Starts recording changes in [changeEpoch] and [lastChangeStep].
+     * Tracking is disabled by default, as detecting whether a concentration actually changed requires an equality
+     * check upon every write.
+     */
+    fun enableChangeTracking() {
+        isTrackingChanges = true
+    }
+
+    /**
+     * Records a change of a node, if changes are being tracked, and returns the resulting [changeEpoch].
+     * Nodes call it whenever their contents change, and can keep the returned epoch to tell when they last changed;
+     * the environment calls it whenever a node gets added, removed, or moved.
+     */
+    internal fun nodeChanged(): Long {
+        if (!isTrackingChanges) {
+            return epoch.get()
+        }
+        lastChangeStep = simulationOrNull?.step ?: 0
+        return epoch.incrementAndGet()
+    }
+
     override fun addLayer(molecule: Molecule, layer: Layer<T, P>) {
         check(molecule !in layers.keys) { "A layer for $molecule was already associated to this environment." }
         layers += molecule to layer
@@ -317,11 +363,42 @@ abstract class AbstractEnvironment<T, P : Position<P>> protected constructor(
         return toQueue(destination, oldNeighborhood, newNeighborhood)
     }
 
+    /**
+     * Commits all the [newPositions] at once: positions and the spatial index get updated first,
+     * with a single invalidation of the query cache, then neighborhoods are recomputed for the nodes that
+     * actually moved, and finally the simulation gets notified. No constraint is applied to the provided positions.
+     */
+    override fun moveNodesToPositions(newPositions: Map<Node<T>, P>) {
+        val moved = ArrayList<Node<T>>(newPositions.size)
+        newPositions.forEach { (node, position) ->
+            val previous = nodeToPos.put(node.id, position)
+            requireNotNull(previous) {
+                "Tried to move a node not previously present in the environment:\n" +
+                    "Node: $node\nRequested position: $position"
+            }
+            if (previous != position) {
+                check(spatialIndex.move(node, previous.coordinates, position.coordinates)) {
+                    "The spatial index is inconsistent with the position of $node"
+                }
+                moved.add(node)
+                positionChanged(node, position)
+                nodeChanged()
+            }
+        }
+        if (moved.isNotEmpty()) {
+            invalidateCache()
+            moved.forEach { updateNeighborhood(it, false) }
+            ifEngineAvailable { simulation -> moved.forEach(simulation::nodeMoved) }
+        }
+    }
+
     override fun removeNode(node: Node<T>) {
         invalidateCache()
         _nodes.remove(requireNotNull(node) { "Node cannot be null." })
         val pos = requireNotNull(nodeToPos.remove(node.id)) { "Node position cannot be null." }
         spatialIndex.remove(node, *pos.coordinates)
+        positionChanged(node, null)
+        nodeChanged()
         val neigh = neighCache.remove(node.id)
         neigh.forEach { neighCache.put(it.id, neighCache.remove(it.id).remove(node)) }
         ifEngineAvailable { it.nodeRemoved(node, neigh) }
@@ -329,9 +406,17 @@ abstract class AbstractEnvironment<T, P : Position<P>> protected constructor(
     }
 
     private fun runQuery(center: P, range: Double): List<Node<T>> = spatialIndex
-        .query(*center.boundingBox(range).map { it.coordinates }.toTypedArray())
+        .query(*queryCorners(center, range))
         .filter { getPosition(it).distanceTo(center) <= range }
 
+    /**
+     * The coordinates of the corners of the box used to query the spatial index for the nodes within [range]
+     * from [center]. Defaults to the coordinates of [center]'s [Position.boundingBox],
+     * subclasses can override it to compute them without creating intermediate positions.
+     */
+    protected open fun queryCorners(center: P, range: Double): Array<DoubleArray> =
+        center.boundingBox(range).map { it.coordinates }.toTypedArray()
+
     /**
      * Adds or updates a node's position in the position map.
      *
@@ -346,8 +431,19 @@ abstract class AbstractEnvironment<T, P : Position<P>> protected constructor(
         require(pos == null || spatialIndex.move(n, pos.coordinates, p.coordinates)) {
             "Tried to move a node not previously present in the environment:\nNode: $n\nRequested position: $p"
         }
+        if (p != pos) {
+            positionChanged(n, p)
+            nodeChanged()
+        }
     }
 
+    /**
+     * This method gets called whenever the [position] of [node] gets stored or updated,
+     * with a null [position] when the node gets removed.
+     * Subclasses can override it to keep additional representations of the node positions in sync.
+     */
+    protected open fun positionChanged(node: Node<T>, position: P?) = Unit
+
     override fun spliterator(): Spliterator<Node<T>> = nodes.spliterator()
 
     private fun toQueue(
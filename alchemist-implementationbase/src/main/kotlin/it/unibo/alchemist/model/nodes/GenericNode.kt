@@ -15,6 +15,7 @@ import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.NodeProperty
 import it.unibo.alchemist.model.Reaction
 import it.unibo.alchemist.model.Time
+import it.unibo.alchemist.model.environments.AbstractEnvironment
 import java.util.Collections
 import java.util.Spliterator
 import java.util.concurrent.Semaphore
@@ -43,6 +44,25 @@ constructor(
     val molecules: MutableMap<Molecule, T> = LinkedHashMap(),
     final override val properties: MutableList<NodeProperty<T>> = ArrayList(),
 ) : Node<T> {
+    /**
+     * The [AbstractEnvironment.changeEpoch] at which the contents of this node last changed,
+     * 0 if no change was recorded.
+     * Additions, removals, and movements of the node are recorded by the environment only.
+     */
+    @Volatile
+    var changeEpoch: Long = 0
+        private set
+
+    private val changeTracker: AbstractEnvironment<*, *>?
+        get() = (environment as? AbstractEnvironment<*, *>)?.takeIf { it.isTrackingChanges }
+
+    /**
+     * Notifies the environment that the contents of this node changed.
+     * Subclasses storing their contents outside [molecules] must call it upon every modification.
+     */
+    protected fun contentsChanged() {
+        changeTracker?.let { changeEpoch = it.nodeChanged() }
+    }
 
     final override fun addReaction(reactionToAdd: Reaction<T>) {
         reactions.add(reactionToAdd)
@@ -84,6 +104,7 @@ constructor(
         if (molecules.remove(moleculeToRemove) == null) {
             throw NoSuchElementException("$moleculeToRemove was not present in node $id")
         }
+        contentsChanged()
     }
 
     final override fun removeReaction(reactionToRemove: Reaction<T>) {
@@ -91,7 +112,11 @@ constructor(
     }
 
     override fun setConcentration(molecule: Molecule, concentration: T) {
-        molecules[molecule] = concentration
+        val previous = molecules.put(molecule, concentration)
+        val tracker = changeTracker
+        if (tracker != null && (previous == null || previous != concentration)) {
+            changeEpoch = tracker.nodeChanged()
+        }
     }
 
     final override fun addProperty(nodeProperty: NodeProperty<T>) {
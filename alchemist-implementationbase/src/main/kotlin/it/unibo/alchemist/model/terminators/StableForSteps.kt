@@ -8,14 +8,13 @@
  */
 package it.unibo.alchemist.model.terminators
 
-import com.google.common.collect.Maps
-import com.google.common.collect.Table
-import com.google.common.collect.Tables
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Molecule
 import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.Position
 import it.unibo.alchemist.model.TerminationPredicate
+import it.unibo.alchemist.model.environments.AbstractEnvironment
+import it.unibo.alchemist.model.nodes.GenericNode
 import java.util.function.Predicate
 
 /**
@@ -37,6 +36,12 @@ import java.util.function.Predicate
  * [test] should be called at every step of the simulation in order
  * to avoid missing checks.
  *
+ * Positions and contents of the nodes are compared with a copy taken at the previous check.
+ * On [AbstractEnvironment]s, the [AbstractEnvironment.changeEpoch] is used to skip the comparison when nothing was
+ * written since the previous check; otherwise, positions are compared, while the contents of [GenericNode]s are copied
+ * and compared only if their [GenericNode.changeEpoch] advanced.
+ * Writes that leave a node as it was (e.g., a value removed and inserted again) do not count as changes.
+ *
  * @constructor Creates a new [StableForSteps] with the given values.
  * @property checkInterval the recurrence of the test
  * @property equalIntervals the number of [checkInterval] intervals required to be unchanged for [test] to return true
@@ -44,8 +49,8 @@ import java.util.function.Predicate
 data class StableForSteps<T : Any, P : Position<P>>(private val checkInterval: Long, private val equalIntervals: Long) :
     TerminationPredicate<T, P> {
     private var success: Long = 0
-    private var positions: Map<Node<T>, P> = emptyMap()
-    private var contents = makeTable<T>(0)
+    private val snapshots: MutableMap<Node<T>, Snapshot<T, P>> = LinkedHashMap()
+    private var epoch: Long = -1
 
     init {
         require(checkInterval > 0 && equalIntervals > 0) {
@@ -55,26 +60,32 @@ data class StableForSteps<T : Any, P : Position<P>>(private val checkInterval: L
 
     override fun invoke(environment: Environment<T, P>): Boolean {
         if (environment.simulation.step % checkInterval == 0L) {
-            val newPositions = environment.associateBy({ it }, { environment.getPosition(it) })
-            val newContents = makeTable<T>(environment.nodeCount)
-            environment.forEach { node ->
-                node.contents.forEach { (molecule, concentration) ->
-                    newContents.put(node, molecule, concentration)
-                }
-            }
-            success = if (newPositions == positions && newContents == contents) success + 1 else 0
-            positions = newPositions
-            contents = newContents
+            success = if (isUnchanged(environment)) success + 1 else 0
         }
         return success == equalIntervals
     }
 
-    private companion object {
-        private fun <T : Any> makeTable(size: Int): Table<Node<T>, Molecule, T> =
-            Tables.newCustomTable<Node<T>, Molecule, T>(
-                Maps.newLinkedHashMapWithExpectedSize<Node<T>, Map<Molecule, T>>(size),
-            ) {
-                Maps.newLinkedHashMapWithExpectedSize(size)
-            }
+    private fun isUnchanged(environment: Environment<T, P>): Boolean {
+        val tracker = (environment as? AbstractEnvironment<T, P>)?.apply { enableChangeTracking() }
+        val previousEpoch = epoch
+        epoch = tracker?.changeEpoch ?: -1
+        if (tracker != null && epoch == previousEpoch) {
+            return true
+        }
+        var unchanged = true
+        environment.forEach { node ->
+            val previous = snapshots[node]
+            val contentsUnchanged = tracker != null && node is GenericNode<*> && node.changeEpoch <= previousEpoch
+            val contents = previous?.contents?.takeIf { contentsUnchanged } ?: node.contents.toMap()
+            val snapshot = Snapshot(environment.getPosition(node), contents)
+            unchanged = snapshots.put(node, snapshot) == snapshot && unchanged
+        }
+        if (snapshots.size != environment.nodeCount) {
+            snapshots.keys.retainAll(environment.nodes.toSet())
+            unchanged = false
+        }
+        return unchanged
     }
+
+    private data class Snapshot<T, P>(val position: P, val contents: Map<Molecule, T>)
 }
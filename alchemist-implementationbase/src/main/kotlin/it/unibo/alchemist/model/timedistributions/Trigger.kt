@@ -19,6 +19,8 @@ import it.unibo.alchemist.model.times.DoubleTime
 class Trigger<T>(time: Time) : AbstractDistribution<T>(time) {
     override fun getRate(): Double = Double.Companion.NaN
 
+    override fun isPropensityIndependent(): Boolean = true
+
     override fun updateStatus(currentTime: Time?, executed: Boolean, param: Double, environment: Environment<T, *>) {
         if (executed) {
             setNextOccurrence(DoubleTime(Double.Companion.POSITIVE_INFINITY))
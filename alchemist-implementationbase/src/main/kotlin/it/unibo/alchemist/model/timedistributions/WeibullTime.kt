@@ -77,6 +77,12 @@ open class WeibullTime<T> private constructor(
         start,
     )
 
+    /**
+     * Subclasses overriding [updateStatus] must override this method as well,
+     * if they react to non-executed updates.
+     */
+    override fun isPropensityIndependent(): Boolean = true
+
     override fun updateStatus(currentTime: Time, executed: Boolean, param: Double, environment: Environment<T?, *>?) {
         if (executed) {
             this.setNextOccurrence(currentTime.plus(DoubleTime(1.0 / this.genSample())))
@@ -12,30 +12,91 @@ package it.unibo.alchemist.util
 import com.github.benmanes.caffeine.cache.Caffeine
 import com.google.common.base.Objects
 import io.github.classgraph.ClassGraph
+import java.io.File
 import java.io.InputStream
 import java.lang.reflect.Modifier
+import java.net.URI
 import java.net.URL
 import java.util.regex.Pattern
 
 /**
  * An utility class providing support for loading arbitrary subclasses available in the classpath.
+ *
+ * Jars shipping a type index (generated at build time by the Alchemist factories generator) are never scanned.
+ * [subTypesOf] answers from the indexes alone whenever they know concrete subtypes of the requested type,
+ * and scans the rest of the classpath only on a miss;
+ * [allSubTypesOf] always merges the indexes with a scan of the classpath elements without an index.
  */
 object ClassPathScanner {
-    private val loader =
+    /*
+     * Must match the location written by the TypeIndexProcessor of alchemist-factories-generator.
+     */
+    private const val TYPE_INDEX = "META-INF/alchemist/type-index"
+
+    private val classLoader: ClassLoader
+        get() = Thread.currentThread().contextClassLoader ?: ClassPathScanner::class.java.classLoader
+
+    private val typeIndex by lazy { TypeIndex.load(classLoader) }
+
+    /*
+     * JDK types may be indexed under their Kotlin name (e.g., kotlin.Comparable): the index is not used.
+     */
+    private val ScanData.index: TypeIndex? get() = typeIndex.takeUnless { superClass.name.startsWith("java.") }
+
+    private val indexed =
         Caffeine.newBuilder().build<ScanData, List<Class<*>>> { scanData ->
-            classGraphForPackages(*scanData.inPackages)
-                .enableClassInfo()
-                .scan()
-                .let { scanResult ->
-                    if (scanData.superClass.isInterface) {
-                        scanResult.getClassesImplementing(scanData.superClass.name)
-                    } else {
-                        scanResult.getSubclasses(scanData.superClass.name)
-                    }
-                }.filter { !it.isAbstract }
-                .loadClasses()
+            lookup(scanData, scanData.index) { scanned[it] }
+        }
+
+    private val scanned =
+        Caffeine.newBuilder().build<ScanData, List<Class<*>>> { scanData ->
+            val index = scanData.index
+            val superClass = scanData.superClass
+            val fromIndex = index?.concreteSubtypesOf(superClass.name, scanData.inPackages).orEmpty().map(::load)
+            /*
+             * Classes in scanned elements may reach the supertype through indexed (hence unscanned) types.
+             */
+            val ancestors = listOf(superClass.name) + index?.subtypesOf(superClass.name).orEmpty()
+            val fromScan =
+                classGraphForPackages(*scanData.inPackages)
+                    .apply {
+                        if (index != null) {
+                            filterClasspathElements { it.canonicalPath !in index.indexedRoots }
+                        }
+                    }.enableClassInfo()
+                    .scan()
+                    .let { scanResult ->
+                        ancestors.flatMap { ancestor ->
+                            when {
+                                superClass.isInterface && ancestor == superClass.name ->
+                                    scanResult.getClassesImplementing(ancestor)
+                                ancestor == superClass.name -> scanResult.getSubclasses(ancestor)
+                                else ->
+                                    scanResult.getClassInfo(ancestor)?.let {
+                                        if (it.isInterface) it.classesImplementing else it.subclasses
+                                    }.orEmpty()
+                            }
+                        }
+                    }.filter { !it.isAbstract }
+                    .map { it.loadClass() }
+            (fromIndex + fromScan).distinct()
         }
 
+    private fun load(className: String): Class<*> = Class.forName(className, false, classLoader)
+
+    /**
+     * Answers from the [index] if it knows concrete subtypes of the requested type, delegates to [scan] otherwise.
+     */
+    internal fun lookup(
+        scanData: ScanData,
+        index: TypeIndex?,
+        scan: (ScanData) -> List<Class<*>>,
+    ): List<Class<*>> = index
+        ?.concreteSubtypesOf(scanData.superClass.name, scanData.inPackages)
+        ?.takeIf { it.isNotEmpty() }
+        ?.map(::load)
+        ?: scan(scanData)
+
     private fun classGraphForPackages(vararg inPackage: String): ClassGraph = ClassGraph()
         .apply {
             // WHITELIST package
@@ -45,7 +106,10 @@ object ClassPathScanner {
         }
 
     /**
-     * This function loads all subtypes of the provided Java class that can be discovered on the current classpath.
+     * This function loads the subtypes of the provided Java class that can be discovered on the current classpath.
+     * If the type indexes know some concrete subtypes of [superClass] (in the requested packages),
+     * only those are returned and the classpath is not scanned:
+     * subtypes declared in classpath elements without an index can be found through [allSubTypesOf].
      *
      * This function cannot use `reified` and `inline` (as it should have) due to Java being unaware of the required
      * transformation to use them.
@@ -54,15 +118,38 @@ object ClassPathScanner {
     @Suppress("UNCHECKED_CAST")
     fun <T> subTypesOf(superClass: Class<T>, vararg inPackage: String): List<Class<out T>> = when {
         Modifier.isFinal(superClass.modifiers) -> listOf(superClass)
-        else -> loader[ScanData(superClass, inPackage)] as List<Class<out T>>
+        else -> indexed[ScanData(superClass, inPackage)] as List<Class<out T>>
     }
 
     /**
-     * This function loads all subtypes of the provided Java class that can be discovered on the current classpath.
+     * This function loads the subtypes of the provided Java class that can be discovered on the current classpath.
+     * If the type indexes know some concrete subtypes of [T] (in the requested packages),
+     * only those are returned and the classpath is not scanned.
      */
     inline fun <reified T> subTypesOf(vararg inPackage: String): List<Class<out T>> =
         subTypesOf(T::class.java, *inPackage)
 
+    /**
+     * This function loads all subtypes of the provided Java class that can be discovered on the current classpath,
+     * merging the type indexes with a scan of the classpath elements that do not ship one.
+     *
+     * This function cannot use `reified` and `inline` (as it should have) due to Java being unaware of the required
+     * transformation to use them.
+     */
+    @JvmStatic
+    @Suppress("UNCHECKED_CAST")
+    fun <T> allSubTypesOf(superClass: Class<T>, vararg inPackage: String): List<Class<out T>> = when {
+        Modifier.isFinal(superClass.modifiers) -> listOf(superClass)
+        else -> scanned[ScanData(superClass, inPackage)] as List<Class<out T>>
+    }
+
+    /**
+     * This function loads all subtypes of the provided Java class that can be discovered on the current classpath,
+     * merging the type indexes with a scan of the classpath elements that do not ship one.
+     */
+    inline fun <reified T> allSubTypesOf(vararg inPackage: String): List<Class<out T>> =
+        allSubTypesOf(T::class.java, *inPackage)
+
     /**
      * This function returns a list of all the resources in a certain (optional) package matching a regular expression.
      *
@@ -82,7 +169,68 @@ object ClassPathScanner {
     fun resourcesMatchingAsStream(regex: String, vararg inPackage: String): List<InputStream> =
         resourcesMatching(regex, *inPackage).map { it.openStream() }
 
-    private data class ScanData(val superClass: Class<*>, val inPackages: Array<out String>) {
+    private fun String.isIn(packageName: String) = packageName.isEmpty() ||
+        startsWith(packageName) && getOrNull(packageName.length) == '.'
+
+    private val String.canonicalPath: String get() = File(this).canonicalPath
+
+    /**
+     * The union of the type indexes found on the classpath, along with the classpath roots they cover.
+     * Only jars are considered indexed: in exploded directories, resources and classes live in separate roots.
+     */
+    internal class TypeIndex(
+        val indexedRoots: Set<String>,
+        private val subtypes: Map<String, List<String>>,
+        private val concrete: Set<String>,
+    ) {
+        fun subtypesOf(superType: String): List<String> = subtypes[superType].orEmpty()
+
+        fun concreteSubtypesOf(superType: String, inPackages: Array<out String> = emptyArray()): List<String> =
+            subtypesOf(superType).filter { type ->
+                type in concrete && (inPackages.isEmpty() || inPackages.any { type.isIn(it) })
+            }
+
+        operator fun plus(other: TypeIndex): TypeIndex = TypeIndex(
+            indexedRoots + other.indexedRoots,
+            (subtypes.keys + other.subtypes.keys).associateWith {
+                (subtypesOf(it) + other.subtypesOf(it)).distinct()
+            },
+            concrete + other.concrete,
+        )
+
+        companion object {
+            val EMPTY = TypeIndex(emptySet(), emptyMap(), emptySet())
+
+            /**
+             * Parses the [lines] of the index found in the classpath [root] (if any).
+             */
+            fun parse(root: String?, lines: Sequence<String>): TypeIndex {
+                val subtypes = mutableMapOf<String, MutableList<String>>()
+                val concrete = mutableSetOf<String>()
+                lines.filter { it.isNotBlank() }.forEach { line ->
+                    val type = line.substringAfter(' ').substringBefore(':')
+                    if (line.startsWith("C ")) {
+                        concrete += type
+                    }
+                    line.substringAfter(':').split(',').filter { it.isNotEmpty() }.forEach {
+                        subtypes.getOrPut(it) { mutableListOf() } += type
+                    }
+                }
+                return TypeIndex(setOfNotNull(root), subtypes, concrete)
+            }
+
+            fun load(classLoader: ClassLoader): TypeIndex = classLoader
+                .getResources(TYPE_INDEX)
+                .asSequence()
+                .filter { it.protocol == "jar" && it.path.startsWith("file:") }
+                .map { url ->
+                    val root = File(URI(url.path.substringBeforeLast("!/"))).canonicalPath
+                    url.openStream().bufferedReader().useLines { parse(root, it) }
+                }.fold(EMPTY, TypeIndex::plus)
+        }
+    }
+
+    internal data class ScanData(val superClass: Class<*>, val inPackages: Array<out String>) {
         val hashCode = Objects.hashCode(superClass, *inPackages)
 
         override fun equals(other: Any?) = other === this ||
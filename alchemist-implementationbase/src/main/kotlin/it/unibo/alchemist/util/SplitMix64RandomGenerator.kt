@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.util
+
+import org.apache.commons.math3.random.BitsStreamGenerator
+
+/**
+ * A counter-based, splittable [org.apache.commons.math3.random.RandomGenerator] implementing SplitMix64.
+ *
+ * The i-th value of the stream is a bijective mix of `key + i * γ`: the state is just a [key] and a counter,
+ * and any number of statistically independent streams can be derived through [split],
+ * with no need to draw values from (and thus to modify the state of) the parent generator.
+ * Derived streams only depend on the key of the parent and on the provided identifiers:
+ * for instance, a stream keyed by a node id and a reaction index provides the same sequence
+ * regardless of the order in which streams get created, or of the thread using them.
+ */
+class SplitMix64RandomGenerator(seed: Long) : BitsStreamGenerator() {
+    /**
+     * The key identifying this stream.
+     */
+    var key: Long = seed
+        private set
+    private var counter: Long = 0
+
+    override fun setSeed(seed: Int) = setSeed(seed.toLong())
+
+    override fun setSeed(seed: IntArray) = setSeed(seed.fold(0L) { hash, value -> mix(hash + GOLDEN_GAMMA + value) })
+
+    override fun setSeed(seed: Long) {
+        key = seed
+        counter = 0
+        clear()
+    }
+
+    override fun next(bits: Int): Int = (nextLong() ushr Long.SIZE_BITS - bits).toInt()
+
+    override fun nextLong(): Long = mix(key + ++counter * GOLDEN_GAMMA)
+
+    /**
+     * Derives a new, independent stream, uniquely identified by this generator's [key] and by the [identifiers].
+     * The state of this generator is not affected.
+     */
+    fun split(vararg identifiers: Long): SplitMix64RandomGenerator = SplitMix64RandomGenerator(
+        identifiers.fold(mix(key)) { hash, identifier -> mix(hash xor mix(identifier + GOLDEN_GAMMA)) },
+    )
+
+    override fun toString(): String = "${javaClass.simpleName}(key=$key, counter=$counter)"
+
+    private companion object {
+        private const val serialVersionUID = 1L
+
+        /*
+         * Odd constant close to 2^64 / φ, see Steele, Lea, and Flood, "Fast splittable pseudorandom number generators"
+         */
+        private const val GOLDEN_GAMMA = -0x61c8864680b583ebL
+        private const val FIRST_MULTIPLIER = -0x40a7b892e31b1a47L
+        private const val SECOND_MULTIPLIER = -0x6b2fb644ecceee15L
+        private const val FIRST_SHIFT = 30
+        private const val SECOND_SHIFT = 27
+        private const val THIRD_SHIFT = 31
+
+        private fun mix(value: Long): Long {
+            var result = (value xor (value ushr FIRST_SHIFT)) * FIRST_MULTIPLIER
+            result = (result xor (result ushr SECOND_SHIFT)) * SECOND_MULTIPLIER
+            return result xor (result ushr THIRD_SHIFT)
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.terminators
+
+import it.unibo.alchemist.model.Action
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.model.actions.AbstractLocalAction
+import it.unibo.alchemist.model.molecules.SimpleMolecule
+
+/**
+ * Removes and inserts again the concentration of a molecule,
+ * with a different value if [changing] is true and with an equal one otherwise.
+ */
+class RewriteMolecule(node: Node<Any>, private val changing: Boolean) : AbstractLocalAction<Any>(node) {
+    override fun cloneAction(node: Node<Any>, reaction: Reaction<Any>): Action<Any> = RewriteMolecule(node, changing)
+
+    override fun execute() {
+        val value = if (node.contains(MOLECULE)) node.getConcentration(MOLECULE) as Int else 0
+        if (node.contains(MOLECULE)) {
+            node.removeConcentration(MOLECULE)
+        }
+        node.setConcentration(MOLECULE, if (changing) value + 1 else value)
+    }
+
+    private companion object {
+        private val MOLECULE = SimpleMolecule("rewritten")
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.terminators
+
+import io.kotest.core.spec.style.FreeSpec
+import io.kotest.matchers.comparables.shouldBeGreaterThan
+import io.kotest.matchers.comparables.shouldBeLessThan
+import it.unibo.alchemist.boundary.LoadAlchemist
+import it.unibo.alchemist.core.Simulation
+import it.unibo.alchemist.test.AlchemistTesting.runInCurrentThread
+import org.kaikikm.threadresloader.ResourceLoader
+
+class TestStableForSteps :
+    FreeSpec({
+        "rewriting equal values should not prevent stability" {
+            runFrom("rewrittenValues.yml").time.toDouble() shouldBeLessThan 100.0
+        }
+        "changing values should prevent stability" {
+            runFrom("changingValues.yml").time.toDouble() shouldBeGreaterThan 999.0
+        }
+        "moving nodes should prevent stability" {
+            runFrom("movingNode.yml").time.toDouble() shouldBeGreaterThan 999.0
+        }
+    })
+
+private fun runFrom(resource: String): Simulation<Any, Nothing> {
+    val simulation: Simulation<Any, Nothing> = LoadAlchemist.from(ResourceLoader.getResource(resource)).getDefault()
+    simulation.runInCurrentThread()
+    simulation.error.ifPresent { throw it }
+    return simulation
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.util
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
+import io.kotest.matchers.shouldBe
+import it.unibo.alchemist.util.ClassPathScanner.ScanData
+import it.unibo.alchemist.util.ClassPathScanner.TypeIndex
+import java.util.AbstractList
+import java.util.ArrayDeque
+import java.util.Deque
+import java.util.LinkedList
+
+/**
+ * Tests the type indexes used by [ClassPathScanner] in place of scanning the classpath.
+ */
+class TestClassPathScanner :
+    StringSpec({
+        val first =
+            TypeIndex.parse(
+                "/first.jar",
+                sequenceOf(
+                    "A java.util.AbstractList:java.util.Collection,java.util.List",
+                    "",
+                    "C java.util.ArrayList:java.util.AbstractList,java.util.Collection,java.util.List",
+                ),
+            )
+        val second =
+            TypeIndex.parse(
+                "/second.jar",
+                sequenceOf("C java.util.LinkedList:java.util.AbstractList,java.util.Deque,java.util.List"),
+            )
+        val merged = first + second
+
+        "indexes should be parsed" {
+            first.indexedRoots shouldContainExactly setOf("/first.jar")
+            first.subtypesOf("java.util.List") shouldContainExactly
+                listOf("java.util.AbstractList", "java.util.ArrayList")
+            first.concreteSubtypesOf("java.util.List") shouldContainExactly listOf("java.util.ArrayList")
+            first.subtypesOf("java.util.Deque").shouldBeEmpty()
+        }
+
+        "indexes should be merged" {
+            merged.indexedRoots shouldContainExactlyInAnyOrder setOf("/first.jar", "/second.jar")
+            merged.subtypesOf("java.util.AbstractList") shouldContainExactly
+                listOf("java.util.ArrayList", "java.util.LinkedList")
+            merged.concreteSubtypesOf("java.util.List") shouldContainExactly
+                listOf("java.util.ArrayList", "java.util.LinkedList")
+            merged.concreteSubtypesOf("java.util.Deque") shouldContainExactly listOf("java.util.LinkedList")
+            merged.concreteSubtypesOf("java.util.List", arrayOf("java.util.concurrent")).shouldBeEmpty()
+            (TypeIndex.EMPTY + first).subtypesOf("java.util.List") shouldBe first.subtypesOf("java.util.List")
+        }
+
+        "types covered by the index should not trigger a scan" {
+            val lookup = ClassPathScanner.lookup(ScanData(AbstractList::class.java, emptyArray()), merged) {
+                error("The classpath should not be scanned for $it")
+            }
+            lookup shouldContainExactly listOf(ArrayList::class.java, LinkedList::class.java)
+        }
+
+        "types unknown to the index should be scanned" {
+            val scanned = mutableListOf<ScanData>()
+            fun scan(scanData: ScanData): List<Class<*>> = listOf(ArrayDeque::class.java).also { scanned += scanData }
+            val deque = ScanData(Deque::class.java, arrayOf("java.util.concurrent"))
+            ClassPathScanner.lookup(deque, merged, ::scan) shouldContainExactly listOf(ArrayDeque::class.java)
+            ClassPathScanner.lookup(deque, null, ::scan) shouldContainExactly listOf(ArrayDeque::class.java)
+            scanned shouldContainExactly listOf(deque, deque)
+        }
+    })
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.util
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.doubles.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import kotlin.math.abs
+
+/**
+ * Checks the reproducibility and independence of [SplitMix64RandomGenerator] streams.
+ */
+class TestSplitMix64RandomGenerator :
+    StringSpec({
+
+        fun SplitMix64RandomGenerator.draw(count: Int = 100) = List(count) { nextLong() }
+
+        "the first values match the reference SplitMix64 implementation" {
+            SplitMix64RandomGenerator(0).draw(3) shouldBe
+                listOf(-2152535657050944081L, 7960286522194355700L, 487617019471545679L)
+        }
+
+        "reseeding restarts the stream" {
+            val generator = SplitMix64RandomGenerator(SEED)
+            val first = generator.draw()
+            generator.setSeed(SEED)
+            generator.draw() shouldBe first
+        }
+
+        "split streams do not depend on the parent state, nor on the order of creation" {
+            val parent = SplitMix64RandomGenerator(SEED)
+            val first = parent.split(1, 2).draw()
+            val second = parent.split(2, 1).draw()
+            parent.draw()
+            parent.split(2, 1).draw() shouldBe second
+            parent.split(1, 2).draw() shouldBe first
+            first shouldNotBe second
+            SplitMix64RandomGenerator(SEED + 1).split(1, 2).draw() shouldNotBe first
+        }
+
+        "doubles are uniformly distributed" {
+            val generator = SplitMix64RandomGenerator(SEED).split(3)
+            val mean = List(SAMPLES) { generator.nextDouble() }.average()
+            abs(mean - 0.5) shouldBeLessThan TOLERANCE
+        }
+    })
+
+private const val SEED = 42L
+private const val SAMPLES = 100_000
+private const val TOLERANCE = 0.01
@@ -9,7 +9,6 @@
 
 package it.unibo.alchemist.model.biochemistry.environments;
 
-import com.google.common.base.Optional;
 import it.unibo.alchemist.model.Neighborhood;
 import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.biochemistry.BiochemistryIncarnation;
@@ -18,16 +17,12 @@ import it.unibo.alchemist.model.biochemistry.CircularDeformableCellProperty;
 import it.unibo.alchemist.model.biochemistry.EnvironmentSupportingDeformableCells;
 import it.unibo.alchemist.model.positions.Euclidean2DPosition;
 import org.apache.commons.math3.util.FastMath;
-import org.danilopianini.lang.MathUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.io.Serial;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Comparator;
-import java.util.stream.Stream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Implements a limited environment supporting cells with a defined shape,
@@ -39,9 +34,14 @@ public final class BioRect2DEnvironmentNoOverlap
 
     @Serial
     private static final long serialVersionUID = 1L;
-    private static final Logger L = LoggerFactory.getLogger(BioRect2DEnvironmentNoOverlap.class);
-    private Optional<Node<Double>> biggestCellWithCircularArea = Optional.absent();
-    private Optional<Node<Double>> biggestCircularDeformableCell = Optional.absent();
+    /**
+     * Diameters of the cells with a circular shape (maximum diameters for the deformable ones).
+     */
+    private final DiameterMultiset circularCellDiameters = new DiameterMultiset();
+    /**
+     * Maximum diameters of the circular deformable cells.
+     */
+    private final DiameterMultiset deformableCellDiameters = new DiameterMultiset();
 
     /**
      * Returns an infinite {@link BioRect2DEnvironment}.
@@ -75,20 +75,28 @@ public final class BioRect2DEnvironmentNoOverlap
     protected boolean nodeShouldBeAdded(@Nonnull final Node<Double> node, @Nonnull final Euclidean2DPosition position) {
         final boolean isWithinLimits = super.nodeShouldBeAdded(node, position);
         if (isWithinLimits) {
-            if (node.asPropertyOrNull(CircularCellProperty.class) != null) {
-                double range = getMaxDiameterAmongCellWithCircularShape();
-                if (node.asProperty(CircularCellProperty.class).getDiameter() > range) {
-                    range = node.asProperty(CircularCellProperty.class).getDiameter();
+            final CircularCellProperty cell = node.asPropertyOrNull(CircularCellProperty.class);
+            if (cell != null) {
+                final double range = FastMath.max(getMaxDiameterAmongCellWithCircularShape(), cell.getDiameter());
+                if (range <= 0) {
+                    return true;
+                }
+                final double nodeRadius = cell.getRadius();
+                final double x = position.getX();
+                final double y = position.getY();
+                for (final Node<Double> other : getNodesWithinRange(position, range)) {
+                    final CircularCellProperty otherCell = other.asPropertyOrNull(CircularCellProperty.class);
+                    if (otherCell != null) {
+                        final Euclidean2DPosition otherPosition = getPosition(other);
+                        final double minDistance = nodeRadius + otherCell.getRadius();
+                        if (squaredDistance(x, y, otherPosition.getX(), otherPosition.getY())
+                                < minDistance * minDistance) {
+                            return false;
+                        }
+                    }
                 }
-                final double nodeRadius = node.asProperty(CircularCellProperty.class).getRadius();
-                return range <= 0
-                        || getNodesWithinRange(position, range).stream()
-                            .filter(n -> n.asPropertyOrNull(CircularCellProperty.class) != null)
-                            .noneMatch(n -> getPosition(n).distanceTo(position) < nodeRadius
-                                    + n.asProperty(CircularCellProperty.class).getRadius());
-            } else {
-                return true;
             }
+            return true;
         } else {
             return false;
         }
@@ -96,167 +104,122 @@ public final class BioRect2DEnvironmentNoOverlap
 
     @Override
     public void moveNodeToPosition(@Nonnull final Node<Double> node, @Nonnull final Euclidean2DPosition newPosition) {
-        final double[] cur = getPosition(node).getCoordinates();
-        final double[] np = newPosition.getCoordinates();
-        final Euclidean2DPosition nextWithinLimts = super.next(cur[0], cur[1], np[0], np[1]);
-        if (node.asPropertyOrNull(CircularCellProperty.class) != null) {
-            final Euclidean2DPosition nextPos = findNearestFreePosition(
-                    node,
-                    new Euclidean2DPosition(cur[0], cur[1]),
-                    nextWithinLimts
-            );
-            super.moveNodeToPosition(node, nextPos);
+        final Euclidean2DPosition current = getPosition(node);
+        final Euclidean2DPosition nextWithinLimts = super.next(
+            current.getX(),
+            current.getY(),
+            newPosition.getX(),
+            newPosition.getY()
+        );
+        final CircularCellProperty cell = node.asPropertyOrNull(CircularCellProperty.class);
+        if (cell != null) {
+            super.moveNodeToPosition(node, findNearestFreePosition(node, cell, current, nextWithinLimts));
         } else {
             super.moveNodeToPosition(node, nextWithinLimts);
         }
     }
 
     /*
-     * finds the first position, in the requested direction (requestedPos - originalPos),
+     * Finds the first position, in the requested direction (requestedPos - originalPos),
      * that can be occupied by the cell.
+     * The broad phase is a single range query on the spatial index, covering the whole area swept by the moving
+     * cell enlarged by the largest known cell; the narrow phase solves the swept-circle collision for every
+     * candidate using plain arithmetic on the coordinates.
      */
     private Euclidean2DPosition findNearestFreePosition(
-            final Node<Double> nodeToMove,
-            final Euclidean2DPosition originalPos,
-            final Euclidean2DPosition requestedPos) {
-        // get the maximum range depending on cellular shape
+        final Node<Double> nodeToMove,
+        final CircularCellProperty cellToMove,
+        final Euclidean2DPosition originalPos,
+        final Euclidean2DPosition requestedPos
+    ) {
         final double maxDiameter = getMaxDiameterAmongCellWithCircularShape();
-        final double distanceToReq = originalPos.distanceTo(requestedPos);
+        final double ox = originalPos.getX();
+        final double oy = originalPos.getY();
+        final double xVec = requestedPos.getX() - ox;
+        final double yVec = requestedPos.getY() - oy;
+        final double distanceToReq = FastMath.sqrt(xVec * xVec + yVec * yVec);
         if (maxDiameter == 0d || distanceToReq == 0) {
             return requestedPos;
         }
-        final double distanceToScan = distanceToReq + nodeToMove
-                .asProperty(CircularCellProperty.class).getRadius() + (maxDiameter / 2);
-        final double halfDistance = distanceToScan / 2;
-        // compute the position of the midpoint between originalPos and a point at distance distanceToScan
-        final double rx = requestedPos.getX();
-        final double ox = originalPos.getX();
-        final double xVec = rx - ox;
-        final double ry = requestedPos.getY();
-        final double oy = originalPos.getY();
-        final double yVec = ry - oy;
-        final double module = FastMath.sqrt(FastMath.pow(xVec, 2) + FastMath.pow(yVec, 2));
-        final double xVer = xVec / module;
-        final double yVer = yVec / module;
-        final double xVecToMid1 = xVer * halfDistance;
-        final double yVecToMid1 = yVer * halfDistance;
-        final Euclidean2DPosition vecToMid1 = new Euclidean2DPosition(xVecToMid1, yVecToMid1);
-        final Euclidean2DPosition midPoint = originalPos.plus(vecToMid1);
-        // compute optimum scanning range
-        double range = FastMath.sqrt(FastMath.pow(halfDistance, 2) + FastMath.pow(maxDiameter, 2));
-        final double newMaxDiameter = getNodesWithinRange(midPoint, range).stream()
-                .parallel()
-                .filter(n -> n.asPropertyOrNull(CircularCellProperty.class) != null)
-                .mapToDouble(n -> n.asProperty(CircularCellProperty.class).getDiameter())
-                .max()
-                .orElse(0);
-        final double newDistanceToScan = distanceToReq
-                + nodeToMove.asProperty(CircularCellProperty.class).getRadius() + newMaxDiameter / 2;
-        final double newHalfDistance = newDistanceToScan / 2;
-        final Euclidean2DPosition vecToMid2 = new Euclidean2DPosition(xVer * newHalfDistance, yVer * newHalfDistance);
-        final Euclidean2DPosition newMidPoint = originalPos.plus(vecToMid2);
-        range = FastMath.sqrt(FastMath.pow(newHalfDistance, 2) + FastMath.pow(newMaxDiameter, 2));
-        return getNodesWithinRange(newMidPoint, range).stream()
-                .filter(n -> !n.equals(nodeToMove) && n.asPropertyOrNull(CircularCellProperty.class) != null)
-                .filter(n -> selectNodes(n, nodeToMove, getPosition(nodeToMove), requestedPos, xVer, yVer))
-                .map(n -> getPositionIfNodeIsObstacle(nodeToMove, n, originalPos, oy, ox, ry, rx))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .min(Comparator.comparingDouble(p -> p.distanceTo(originalPos)))
-                .orElse(requestedPos);
+        final double xVer = xVec / distanceToReq;
+        final double yVer = yVec / distanceToReq;
+        final double movingRadius = cellToMove.getRadius();
+        // broad phase: circle around the midpoint of the swept segment, enlarged by the biggest cell
+        final double halfDistance = (distanceToReq + movingRadius + maxDiameter / 2) / 2;
+        final double range = FastMath.sqrt(halfDistance * halfDistance + maxDiameter * maxDiameter);
+        final Euclidean2DPosition midPoint =
+            new Euclidean2DPosition(ox + xVer * halfDistance, oy + yVer * halfDistance);
+        // narrow phase: the closest stopping point along the direction of movement wins
+        double bestTranslation = Double.NaN;
+        for (final Node<Double> node : getNodesWithinRange(midPoint, range)) {
+            final CircularCellProperty cell = node.asPropertyOrNull(CircularCellProperty.class);
+            if (cell != null && !node.equals(nodeToMove)) {
+                final Euclidean2DPosition obstacle = getPosition(node);
+                final double translation = sweptCircleTranslation(
+                    xVer,
+                    yVer,
+                    distanceToReq,
+                    obstacle.getX() - ox,
+                    obstacle.getY() - oy,
+                    cell.getRadius() + movingRadius
+                );
+                final boolean isCloser = Double.isNaN(bestTranslation)
+                    || FastMath.abs(translation) < FastMath.abs(bestTranslation);
+                if (!Double.isNaN(translation) && isCloser) {
+                    bestTranslation = translation;
+                }
+            }
+        }
+        if (Double.isNaN(bestTranslation)) {
+            return requestedPos;
+        }
+        return new Euclidean2DPosition(ox + xVer * bestTranslation, oy + yVer * bestTranslation);
     }
 
-    private boolean selectNodes(
-        final Node<Double> node,
-        final Node<Double> nodeToMove,
-        final Euclidean2DPosition origin,
-        final Euclidean2DPosition requestedPos,
+    /*
+     * Computes how far a circle can travel from the origin along the versor (xVer, yVer), for at most
+     * distanceToReq, before touching an obstacle located at (dx, dy) relative to the origin, when the sum of the
+     * radii is cellRange. Returns NaN if the obstacle does not hinder the movement.
+     */
+    private static double sweptCircleTranslation(
         final double xVer,
-        final double yVer
+        final double yVer,
+        final double distanceToReq,
+        final double dx,
+        final double dy,
+        final double cellRange
     ) {
-        // testing if node is between requested position and original position
-        final Euclidean2DPosition nodePos = getPosition(node);
-        final Euclidean2DPosition nodeOrientationFromOrigin = new Euclidean2DPosition(nodePos.getX() - origin.getX(),
-                nodePos.getY() - origin.getY());
-        final double scalarProductResult1 = xVer * nodeOrientationFromOrigin.getX()
-                + yVer * nodeOrientationFromOrigin.getY();
-        // testing if the node is near enough to the requested position to be an obstacle
-        final Euclidean2DPosition oppositeVersor = new Euclidean2DPosition(-xVer, -yVer);
-        final Euclidean2DPosition nodeOrientationFromReq = new Euclidean2DPosition(
-                nodePos.getX() - requestedPos.getX(),
-                nodePos.getY() - requestedPos.getY()
-        );
-        final double scalarProductResult2 =
-                oppositeVersor.getX() * nodeOrientationFromReq.getX()
-                + oppositeVersor.getY() * nodeOrientationFromReq.getY();
-        if (scalarProductResult2 <= 0) {
-            return nodePos.distanceTo(requestedPos) < node.asProperty(CircularCellProperty.class).getRadius()
-                    + nodeToMove.asProperty(CircularCellProperty.class).getRadius()
-                    && scalarProductResult1 >= 0;
+        // projection of the obstacle on the direction of movement: obstacles behind the cell are ignored
+        final double alongPath = xVer * dx + yVer * dy;
+        if (alongPath < 0) {
+            return Double.NaN;
         }
-        return scalarProductResult1 >= 0;
-    }
-
-    // returns the Optional containing the position of the node if it's an obstacle for movement
-    private Optional<Euclidean2DPosition> getPositionIfNodeIsObstacle(
-        final Node<Double> nodeToMove,
-        final Node<Double> node,
-        final Euclidean2DPosition originalPos,
-        final double yo,
-        final double xo,
-        final double yr,
-        final double xr
-    ) {
-        // original position
-        final Euclidean2DPosition possibleObstaclePosition = getPosition(node);
-        // coordinates of original position, requested position and of node's position
-        final double yn = possibleObstaclePosition.getY();
-        final double xn = possibleObstaclePosition.getX();
-        // cellular range
-        final double cellRange = node.asProperty(CircularCellProperty.class).getRadius()
-                + nodeToMove.asProperty(CircularCellProperty.class).getRadius();
-        // compute intersection
-        final double xIntersect;
-        final double yIntersect;
-        if (MathUtils.fuzzyEquals(yo, yr)) {
-            yIntersect = yo;
-            xIntersect = xn;
-        } else if (MathUtils.fuzzyEquals(xo, xr)) {
-            xIntersect = xo;
-            yIntersect = yn;
-        } else {
-            // computes parameters of the straight line from original position to requested position
-            final double m1 = (yo - yr) / (xo - xr);
-            final double q1 = yo - m1 * xo;
-            // computes parameter of straight line, perpendicular to the previous, passing through the cell
-            final double m2 = -1 / m1;
-            final double q2 = yn - m2 * xn;
-            // compute the intersection between these two straight lines
-            xIntersect = (q2 - q1) / (m1 - m2);
-            yIntersect = m2 * xIntersect + q2;
+        // obstacles beyond the requested position only matter if they would overlap with the cell once arrived
+        if (alongPath > distanceToReq) {
+            final double fromReqX = dx - xVer * distanceToReq;
+            final double fromReqY = dy - yVer * distanceToReq;
+            if (fromReqX * fromReqX + fromReqY * fromReqY >= cellRange * cellRange) {
+                return Double.NaN;
+            }
         }
-        final Euclidean2DPosition intersection = new Euclidean2DPosition(xIntersect, yIntersect);
-        // computes distance between the cell and the first straight line
-        final double cat = intersection.distanceTo(possibleObstaclePosition);
-        // if `cat` is bigger than cellRange, actual cell isn't an obstacle for the cellular movement
-        if (cat >= cellRange) {
-            // so returns an empty optional
-            return Optional.absent();
+        // distance of the obstacle from the straight line of the movement
+        final double perpendicularX = dx - xVer * alongPath;
+        final double perpendicularY = dy - yVer * alongPath;
+        final double squaredCat = perpendicularX * perpendicularX + perpendicularY * perpendicularY;
+        final double squaredRange = cellRange * cellRange;
+        if (squaredCat >= squaredRange) {
+            return Double.NaN;
         }
-        // otherwise, compute the maximum possible distance for the cell
-        final double module = FastMath.sqrt(FastMath.pow(yIntersect - yo, 2) + FastMath.pow(xIntersect - xo, 2));
-        if (module == 0) { // if module == 0, the translation is 0, so return originalPos
-            return Optional.of(originalPos);
+        if (alongPath == 0) {
+            return 0;
         }
-        // compute the versor relative to the requested direction of cell movement
-        final double cat2 = FastMath.sqrt(FastMath.pow(cellRange, 2) - FastMath.pow(cat, 2));
-        final double distToSum = originalPos.distanceTo(intersection) - cat2;
-        final Euclidean2DPosition versor = new Euclidean2DPosition((xIntersect - xo) / module, (yIntersect - yo) / module);
-        // computes a vector representing the possible movement
-        final Euclidean2DPosition vectorToSum = new Euclidean2DPosition(distToSum * versor.getX(), distToSum * versor.getY());
-        // returns the right position of the cell
-        final Euclidean2DPosition result = originalPos.plus(vectorToSum);
-        return Optional.of(result);
+        return alongPath - FastMath.sqrt(squaredRange - squaredCat);
+    }
+
+    private static double squaredDistance(final double x1, final double y1, final double x2, final double y2) {
+        final double dx = x1 - x2;
+        final double dy = y1 - y2;
+        return dx * dx + dy * dy;
     }
 
     @Override
@@ -266,102 +229,58 @@ public final class BioRect2DEnvironmentNoOverlap
         final @Nonnull Neighborhood<Double> neighborhood
     ) {
         super.nodeAdded(node, position, neighborhood);
-        final var cell = node.asPropertyOrNull(CircularCellProperty.class);
-        if (cell != null && cell.getDiameter() > getMaxDiameterAmongCellWithCircularShape()) {
-            biggestCellWithCircularArea = Optional.of(node);
-        }
-        final var deformableCell = node.asPropertyOrNull(CircularDeformableCellProperty.class);
-        if (deformableCell != null && deformableCell.getMaximumDiameter() > getMaxDiameterAmongCircularDeformableCells()) {
-            biggestCircularDeformableCell = Optional.of(node);
-        }
+        updateDiameters(node, true);
     }
 
     @Override
     protected void nodeRemoved(final @Nonnull Node<Double> node, final @Nonnull Neighborhood<Double> neighborhood) {
-        if (node.asPropertyOrNull(CircularCellProperty.class) != null) {
-            if (biggestCircularDeformableCell.isPresent() && biggestCircularDeformableCell.get().equals(node)) {
-                biggestCircularDeformableCell = getBiggest(CircularDeformableCellProperty.class)
-                        .transform(CircularDeformableCellProperty::getNode);
-            }
-            if (biggestCellWithCircularArea.isPresent() && biggestCellWithCircularArea.get().equals(node)) {
-                biggestCellWithCircularArea = getBiggest(CircularCellProperty.class)
-                        .transform(CircularCellProperty::getNode);
-            }
-        }
+        super.nodeRemoved(node, neighborhood);
+        updateDiameters(node, false);
     }
 
-    private <C> Optional<C> getBiggest(final Class<C> cellClass) {
-        final boolean isDeformable;
-        if (cellClass.equals(CircularDeformableCellProperty.class)) {
-            isDeformable = true;
-        } else if (cellClass.equals(CircularCellProperty.class)) {
-            isDeformable = false;
+    private void updateDiameters(final Node<Double> node, final boolean added) {
+        final CircularDeformableCellProperty deformableCell =
+            node.asPropertyOrNull(CircularDeformableCellProperty.class);
+        if (deformableCell != null) {
+            circularCellDiameters.update(deformableCell.getMaximumDiameter(), added);
+            deformableCellDiameters.update(deformableCell.getMaximumDiameter(), added);
         } else {
-            throw new UnsupportedOperationException("Input type must be CellWithCircuolarShape or CircularDeformableCell");
+            final CircularCellProperty cell = node.asPropertyOrNull(CircularCellProperty.class);
+            if (cell != null) {
+                circularCellDiameters.update(cell.getDiameter(), added);
+            }
         }
-
-        return getNodes().stream()
-                .parallel()
-                .flatMap(n -> cellClass.isInstance(n) ? Stream.of(cellClass.cast(n)) : Stream.empty())
-                .max((c1, c2) -> {
-                    final Method diameterToCompare;
-                    try {
-                        if (isDeformable) {
-                            diameterToCompare = cellClass.getMethod("getMaxDiameter");
-                        } else {
-                            diameterToCompare = cellClass.getMethod("getDiameter");
-                        }
-                        if (diameterToCompare.getReturnType().equals(double.class)) {
-                            try {
-                                return Double.compare(
-                                        (double) diameterToCompare.invoke(c1),
-                                        (double) diameterToCompare.invoke(c2)
-                                );
-                            } catch (final IllegalAccessException e) {
-                                L.error("Method not accessible");
-                                return 0;
-                            } catch (final IllegalArgumentException e) {
-                                L.error("Wrong parameter types, or wrong parameters' number");
-                                return 0;
-                            } catch (final InvocationTargetException e) {
-                                L.error("Invoked method throwed an exception");
-                                return 0;
-                            } catch (final ExceptionInInitializerError e) {
-                                L.error("Initialization failed");
-                                return 0;
-                            }
-                        } else {
-                            throw new IllegalStateException(
-                                "Return type of method " + diameterToCompare.getName() + " should be double"
-                            );
-                        }
-                    } catch (final NoSuchMethodException e) {
-                        L.error(
-                            "Method {}not foung in class {}",
-                            isDeformable ? "getMaxDiameter" : "getDiameter",
-                            cellClass.getName()
-                        );
-                        return 0;
-                    }
-                })
-                .map(Optional::of)
-                .orElse(Optional.absent());
     }
 
     private double getMaxDiameterAmongCellWithCircularShape() {
-        return getDiameterFromCell(biggestCellWithCircularArea);
+        return circularCellDiameters.max();
     }
 
     @Override
     public double getMaxDiameterAmongCircularDeformableCells() {
-        return getDiameterFromCell(biggestCircularDeformableCell);
+        return deformableCellDiameters.max();
     }
 
-    private double getDiameterFromCell(final Optional<Node<Double>> biggest) {
-        return biggest
-                .transform(n -> n.asPropertyOrNull(CircularDeformableCellProperty.class) != null
-                        ? n.asProperty(CircularDeformableCellProperty.class).getMaximumDiameter()
-                        : n.asProperty(CircularCellProperty.class).getDiameter())
-                .or(0d);
-    }
+    /**
+     * Sorted multiset of diameters, allowing the maximum to be maintained incrementally as cells come and go.
+     */
+    private static final class DiameterMultiset implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final TreeMap<Double, Integer> counts = new TreeMap<>();
+
+        void update(final double diameter, final boolean add) {
+            if (add) {
+                counts.merge(diameter, 1, Integer::sum);
+            } else {
+                counts.computeIfPresent(diameter, (key, count) -> count > 1 ? count - 1 : null);
+            }
         }
+
+        double max() {
+            final Map.Entry<Double, Integer> last = counts.lastEntry();
+            return last == null ? 0d : last.getKey();
+        }
+    }
+}
@@ -144,6 +144,25 @@ class TestDeformableCell {
         );
     }
 
+    /**
+     * Testing that the maximum diameter follows the removal of the biggest cells.
+     */
+    @Test
+    void testMaxDiameterAfterRemoval() {
+        final EnvironmentSupportingDeformableCells<Euclidean2DPosition> deformableEnvironment =
+            (EnvironmentSupportingDeformableCells<Euclidean2DPosition>) environment;
+        environment.addNode(cellNode3, CELL_POS2_3);
+        environment.addNode(cellNode4, CELL_POS2_4);
+        environment.addNode(cellNode5, CELL_POS2_2);
+        assertEquals(3d, deformableEnvironment.getMaxDiameterAmongCircularDeformableCells(), PRECISION);
+        environment.removeNode(cellNode4);
+        assertEquals(2d, deformableEnvironment.getMaxDiameterAmongCircularDeformableCells(), PRECISION);
+        environment.removeNode(cellNode3);
+        assertEquals(2d, deformableEnvironment.getMaxDiameterAmongCircularDeformableCells(), PRECISION);
+        environment.removeNode(cellNode5);
+        assertEquals(0d, deformableEnvironment.getMaxDiameterAmongCircularDeformableCells(), PRECISION);
+    }
+
     /**
      * Testing {@link TensionPresent}.
      */
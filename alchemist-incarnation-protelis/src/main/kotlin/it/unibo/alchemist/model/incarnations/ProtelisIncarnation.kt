@@ -28,6 +28,7 @@ import it.unibo.alchemist.model.Time
 import it.unibo.alchemist.model.TimeDistribution
 import it.unibo.alchemist.model.molecules.SimpleMolecule
 import it.unibo.alchemist.model.nodes.GenericNode
+import it.unibo.alchemist.model.protelis.ProtelisPrograms
 import it.unibo.alchemist.model.protelis.actions.RunProtelisProgram
 import it.unibo.alchemist.model.protelis.actions.SendToNeighbor
 import it.unibo.alchemist.model.protelis.conditions.ComputationalRoundComplete
@@ -40,17 +41,17 @@ import it.unibo.alchemist.model.times.DoubleTime
 import java.io.Serial
 import java.lang.ref.WeakReference
 import java.time.Duration
-import java.util.Objects
-import java.util.Optional
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 import java.util.concurrent.Semaphore
 import javax.annotation.Nonnull
 import org.apache.commons.math3.random.MersenneTwister
 import org.apache.commons.math3.random.RandomGenerator
-import org.protelis.lang.ProtelisLoader
 import org.protelis.lang.datatype.DeviceUID
 import org.protelis.vm.CodePath
 import org.protelis.vm.ExecutionEnvironment
 import org.protelis.vm.NetworkManager
+import org.protelis.vm.ProtelisProgram
 import org.protelis.vm.ProtelisVM
 import org.protelis.vm.impl.AbstractExecutionContext
 import org.protelis.vm.impl.SimpleExecutionEnvironment
@@ -61,15 +62,21 @@ import org.slf4j.LoggerFactory
  * @param <P> position type
 </P> */
 class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
-    private val cache: LoadingCache<CacheKey, SynchronizedVM> =
+    /*
+     * The VMs evaluating property programs, for each node (compared by identity) and each (molecule, property).
+     * Each VM keeps its own state (e.g., of rep) across evaluations.
+     */
+    private val propertyVMs: LoadingCache<Node<Any>, ConcurrentMap<Pair<Molecule, String>, SynchronizedVM>> =
         CacheBuilder
             .newBuilder()
+            .weakKeys()
             .expireAfterAccess(Duration.ofMinutes(10))
-            .build(
-                object : CacheLoader<CacheKey, SynchronizedVM>() {
-                    override fun load(@Nonnull key: CacheKey): SynchronizedVM = SynchronizedVM(requireNotNull(key))
-                },
-            )
+            .build(CacheLoader.from { _: Node<Any> -> ConcurrentHashMap() })
+
+    /*
+     * Sources of property programs that failed to parse, to avoid re-parsing and logging them at every request.
+     */
+    private val invalidPrograms: MutableSet<String> = ConcurrentHashMap.newKeySet()
 
     override fun createAction(
         randomGenerator: RandomGenerator,
@@ -119,7 +126,7 @@ class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
 
     override fun createConcentration(descriptor: Any?): Any? = try {
         descriptor?.toString()?.let { program ->
-            SynchronizedVM(CacheKey(NoNode, createMolecule(program), program)).runCycle()
+            evaluate(NoNode, createMolecule(program), program)
         } ?: descriptor
     } catch (e: IllegalArgumentException) {
         LOGGER.warn("Invalid Protelis program injected as concentration:\n{}", descriptor, e)
@@ -228,8 +235,7 @@ class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
     override fun getProperty(node: Node<Any>, molecule: Molecule, property: String?): Double =
         @Suppress("TooGenericExceptionCaught")
         try {
-            val vm = cache.get(CacheKey(requireNotNull(node), requireNotNull(molecule), property.orEmpty()))
-            when (val result = vm.runCycle()) {
+            when (val result = evaluate(node, molecule, property.orEmpty())) {
                 is Number -> result.toDouble()
                 is String -> result.toDoubleOrNull() ?: if (result == property) 1.0 else 0.0
                 is Boolean -> if (result) 1.0 else 0.0
@@ -242,25 +248,53 @@ class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
 
     override fun toString(): String = this::class.simpleName ?: this::class.java.simpleName
 
-    private class CacheKey(node: Node<Any>, val molecule: Molecule, val property: String) {
-        private val nodeRef = WeakReference(node)
-        private val hash = Objects.hash(molecule, property, node)
-
-        val node: Node<Any>
-            get() =
-                checkNotNull(nodeRef.get()) {
-                    "Memory management issue: a Protelis node has been garbage-collected while still in use."
+    /*
+     * Property programs are parsed once and shared through ProtelisPrograms, while every node gets its own VMs.
+     * Programs injected as concentrations are not bound to any node, and get evaluated in a new VM.
+     */
+    private fun evaluate(node: Node<Any>, molecule: Molecule, property: String): Any {
+        val vm =
+            when (node) {
+                is NoNode -> propertyVM(node, molecule, property)
+                else -> {
+                    val vms = propertyVMs.getUnchecked(node)
+                    val key = molecule to property
+                    vms[key] ?: propertyVM(node, molecule, property)?.let { vms.putIfAbsent(key, it) ?: it }
                 }
+            }
+        return vm?.runCycle() ?: if (node is NoNode) property else node.getConcentration(molecule)
+    }
 
-        override fun equals(other: Any?) = other is CacheKey &&
-            other.nodeRef.get() === nodeRef.get() &&
-            other.molecule == molecule &&
-            other.property == property
+    private fun propertyVM(node: Node<Any>, molecule: Molecule, property: String): SynchronizedVM? =
+        propertyProgram(molecule, property)?.let { SynchronizedVM(ProtelisVM(it, DummyContext(node))) }
 
-        override fun hashCode(): Int = hash
+    private fun propertyProgram(molecule: Molecule, property: String): ProtelisProgram? = property
+        .takeIf { it.isNotBlank() }
+        ?.replace(VALUE_TOKEN, "env.get(\"${molecule.name}\")")
+        ?.takeUnless { it in invalidPrograms }
+        ?.let { source ->
+            @Suppress("TooGenericExceptionCaught")
+            try {
+                ProtelisPrograms.parse(source)
+            } catch (ex: RuntimeException) {
+                LOGGER.warn("Program ignored as invalid: \n{}", property)
+                LOGGER.debug("Debug information", ex)
+                invalidPrograms += source
+                null
+            }
+        }
+
+    private class SynchronizedVM(private val vm: ProtelisVM) {
+        fun runCycle(): Any = synchronized(this) {
+            vm.runCycle()
+            vm.currentValue
+        }
     }
 
-    private class DummyContext(private val node: Node<Any>) :
+    /*
+     * The node is weakly referenced, in order not to prevent the collection of the cached VMs.
+     */
+    private class DummyContext(node: Node<Any>) :
         AbstractExecutionContext<DummyContext?>(
             ProtectedExecutionEnvironment(node),
             object : NetworkManager {
@@ -269,6 +303,10 @@ class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
                 override fun shareState(toSend: Map<CodePath, Any>) = Unit
             },
         ) {
+        private val nodeReference = WeakReference(node)
+
+        private val node: Node<Any> get() = nodeReference.dereference()
+
         override fun getCurrentTime(): Number = 0
 
         override fun getDeviceUID(): DeviceUID = node.asPropertyOrNull<Any, ProtelisDevice<*>>() ?: NO_NODE_ID
@@ -296,9 +334,13 @@ class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
      * Node, but cannot modify it. This is used to prevent badly written
      * properties from interacting with the simulation flow.
      *
-     * @param node the [Node]
+     * @param node the [Node], weakly referenced: it must be kept reachable while this environment is in use
      */
-    class ProtectedExecutionEnvironment(private val node: Node<*>) : ExecutionEnvironment {
+    class ProtectedExecutionEnvironment(node: Node<*>) : ExecutionEnvironment {
+        private val nodeReference = WeakReference(node)
+
+        private val node: Node<*> get() = nodeReference.dereference()
+
         private val shadow: ExecutionEnvironment = SimpleExecutionEnvironment()
 
         override fun commit() = Unit
@@ -320,38 +362,6 @@ class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
             .toSet() + shadow.keySet()
     }
 
-    private class SynchronizedVM(val key: CacheKey) {
-        val mutex = Semaphore(1)
-        val vm: Optional<ProtelisVM> =
-            key.property
-                .takeIf { it.isNotBlank() }
-                ?.let {
-                    @Suppress("TooGenericExceptionCaught")
-                    try {
-                        val baseProgram = "env.get(\"${key.molecule.name}\")"
-                        ProtelisVM(ProtelisLoader.parse(it.replace(VALUE_TOKEN, baseProgram)), DummyContext(key.node))
-                    } catch (ex: RuntimeException) {
-                        LOGGER.warn("Program ignored as invalid: \n{}", key.property)
-                        LOGGER.debug("Debug information", ex)
-                        null
-                    }
-                }.let { Optional.ofNullable(it) }
-
-        fun runCycle(): Any {
-            val node = checkNotNull(key.node) { "The node should never be null" }
-            vm.orElse(null)?.let {
-                mutex.acquireUninterruptibly()
-                return try {
-                    it.runCycle()
-                    it.currentValue
-                } finally {
-                    mutex.release()
-                }
-            }
-            return if (node is NoNode) key.property else node.getConcentration(key.molecule)
-        }
-    }
-
     private data object NoNode : Node<Any> {
         @Serial
         private const val serialVersionUID = 1L
@@ -415,6 +425,10 @@ class ProtelisIncarnation<P : Position<P>> : Incarnation<Any, P> {
 
         private val LOGGER: Logger = LoggerFactory.getLogger(ProtelisIncarnation::class.java)
 
+        private fun <N : Node<*>> WeakReference<N>.dereference(): N = checkNotNull(get()) {
+            "Memory management issue: a Protelis node has been garbage-collected while still in use."
+        }
+
         @Nonnull
         private fun getIncomplete(
             protelisNode: Node<*>,
@@ -203,8 +203,8 @@ class AlchemistExecutionContext<P : Position<P>>(
     override fun nbrRange(): Field<Double> {
         val useRoutesAsDistances =
             this.environmentAccess is MapEnvironment<*, *, *> && node.contains(USE_ROUTES_AS_DISTANCES)
-        return buildFieldWithPosition { p: P ->
-            if (useRoutesAsDistances) {
+        if (useRoutesAsDistances) {
+            return buildFieldWithPosition { p: P ->
                 check(p is GeoPosition) {
                     "Illegal position type: " + p::class.simpleName + " " + p
                 }
@@ -220,18 +220,31 @@ class AlchemistExecutionContext<P : Position<P>>(
                     }
                     check(!precomputedRoutingDistance.isNaN())
                 }
-                return@buildFieldWithPosition routingDistance(p)
+                routingDistance(p)
             }
-            this.devicePosition.distanceTo(p)
         }
+        /*
+         * The local position is looked up once per field, rather than once per neighbor.
+         */
+        val origin = devicePosition
+        return buildField({ p: P -> origin.distanceTo(p) }, origin)
     }
 
-    override fun nbrVector(): Field<Tuple> = buildFieldWithPosition { p: P ->
-        val diff = this.devicePosition.minus(p.coordinates)
-        check(diff is Position2D<*>) {
-            "Protelis support for 3D environments not ready yet: $diff"
+    override fun nbrVector(): Field<Tuple> {
+        val origin = devicePosition
+        check(origin is Position2D<*>) {
+            "Protelis support for 3D environments not ready yet: $origin"
         }
-        DatatypeFactory.createTuple(diff.x, diff.y)
+        /*
+         * Differences are computed on the coordinates, without building intermediate positions.
+         */
+        return buildField(
+            { p: P ->
+                check(p is Position2D<*>) { "Protelis support for 3D environments not ready yet: $p" }
+                DatatypeFactory.createTuple(origin.x - p.x, origin.y - p.y)
+            },
+            origin,
+        )
     }
 
     override fun nextRandomDouble(): Double = randomGenerator.nextDouble()
@@ -8,8 +8,8 @@
  */
 package it.unibo.alchemist.model.protelis
 
-import com.google.common.collect.ImmutableMap
 import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.Neighborhood
 import it.unibo.alchemist.model.Node.Companion.asProperty
 import it.unibo.alchemist.model.Node.Companion.asPropertyOrNull
 import it.unibo.alchemist.model.Reaction
@@ -28,6 +28,12 @@ import org.protelis.vm.NetworkManager
  * send messages instantly. Instead, it records the last message to send, and
  * only when [simulateMessageArrival] is called the transfer is
  * actually performed.
+ *
+ * Received messages are kept in one slot per source, overwritten by newer messages.
+ * The neighbor state handed to Protelis is a read-only view that is refreshed in place at most once per round,
+ * and only if messages arrived, the neighborhood changed, or messages may have expired.
+ * The [ProtelisDevice]s of the neighbors and their network managers are resolved once per neighborhood,
+ * neighborhoods being immutable and replaced by the [Environment] upon change.
  */
 class AlchemistNetworkManager @JvmOverloads constructor(
     /**
@@ -56,53 +62,60 @@ class AlchemistNetworkManager @JvmOverloads constructor(
     private val environment: Environment<Any, *> = Objects.requireNonNull(program.environment)
     private val messages: MutableMap<DeviceUID, MessageInfo> = LinkedHashMap()
     private var toBeSent: Map<CodePath, Any> = emptyMap()
-    private var neighborState = ImmutableMap.of<DeviceUID, Map<CodePath, Any>>()
+    private val neighborState: MutableMap<DeviceUID, Map<CodePath, Any>> = LinkedHashMap()
+    private val neighborStateView: Map<DeviceUID, Map<CodePath, Any>> = Collections.unmodifiableMap(neighborState)
+    private var messagesChanged = false
     private var timeAtLastValidityCheck = Double.NEGATIVE_INFINITY
 
+    @Transient
+    private var neighbors: Neighbors? = null
+
+    @Transient
+    private var validatedNeighbors: Neighbors? = null
+
     init {
         require(retentionTime.isNaN() || retentionTime >= 0) { "The retention time can't be negative." }
     }
 
-    override fun getNeighborState(): ImmutableMap<DeviceUID, Map<CodePath, Any>> {
+    override fun getNeighborState(): Map<DeviceUID, Map<CodePath, Any>> {
         val currentTime = event.tau.toDouble()
         /*
-         * If no time has passed, the last result is still valid, otherwise needs to be recomputed
+         * If no time has passed, the last result is still valid, otherwise it may need to be recomputed
          */
-        return when {
-            timeAtLastValidityCheck == currentTime -> neighborState
-            messages.isEmpty() -> ImmutableMap.of()
-            else -> {
-                val stateBuilder = ImmutableMap.builder<DeviceUID, Map<CodePath, Any>>()
+        if (timeAtLastValidityCheck != currentTime) {
+            timeAtLastValidityCheck = currentTime
+            val retainsNeighbors = retentionTime.isNaN()
+            val currentNeighbors = if (retainsNeighbors) currentNeighbors() else null
+            if (messagesChanged || !retainsNeighbors || currentNeighbors !== validatedNeighbors) {
+                neighborState.clear()
                 val messagesIterator = messages.values.iterator()
-                val retainsNeighbors = retentionTime.isNaN()
-                val neighbors: Set<DeviceUID> = emptySet<DeviceUID>().takeUnless { retainsNeighbors }
-                    ?: environment.getNeighborhood(device.node)
-                        .neighbors
-                        .mapNotNull { it.asPropertyOrNull<Any, ProtelisDevice<*>>() }
-                        .toSet()
                 while (messagesIterator.hasNext()) {
                     val message = messagesIterator.next()
                     val messageIsValid =
-                        retainsNeighbors &&
-                            message.source in neighbors ||
-                            currentTime - message.time < retentionTime
+                        currentNeighbors?.contains(message.source) ?: (currentTime - message.time < retentionTime)
                     if (messageIsValid) {
-                        stateBuilder.put(message.source, message.payload)
+                        neighborState[message.source] = message.payload
                     } else {
                         // Removes from this.messages as well
                         messagesIterator.remove()
                     }
                 }
-                stateBuilder.build()
+                messagesChanged = false
+                validatedNeighbors = currentNeighbors
             }
-        }.also {
-            timeAtLastValidityCheck = currentTime
-            neighborState = it
         }
+        return neighborStateView
+    }
+
+    private fun currentNeighbors(): Neighbors {
+        val neighborhood = environment.getNeighborhood(device.node)
+        return neighbors?.takeIf { it.neighborhood === neighborhood }
+            ?: Neighbors(neighborhood).also { neighbors = it }
     }
 
     private fun receiveMessage(msg: MessageInfo) {
         messages[msg.source] = msg
+        messagesChanged = true
     }
 
     override fun shareState(toSend: Map<CodePath, Any>) {
@@ -119,24 +132,23 @@ class AlchemistNetworkManager @JvmOverloads constructor(
     fun simulateMessageArrival(currentTime: Double) {
         if (toBeSent.isNotEmpty()) {
             val msg = MessageInfo(currentTime, device, toBeSent)
-            environment.getNeighborhood(device.node)
-                .mapNotNull { it.asPropertyOrNull<Any, ProtelisDevice<*>>() }
-                .forEach { neighborDevice ->
-                    val destination = neighborDevice.getNetworkManager(program)
-                    var packetArrives = true
-                    if (distanceLossDistribution != null) {
-                        val distance = environment.getDistanceBetweenNodes(device.node, neighborDevice.node)
-                        val random = program.randomGenerator.nextDouble()
-                        packetArrives = random > distanceLossDistribution.cumulativeProbability(distance)
-                    }
-                    if (packetArrives) {
-                        /*
-                         * The node is running the program, and the loss model actually makes the packet arrive.
-                         * Otherwise, the message is discarded
-                         */
-                        destination.receiveMessage(msg)
-                    }
+            val neighbors = currentNeighbors()
+            for (index in neighbors.devices.indices) {
+                val neighborDevice = neighbors.devices[index] ?: continue
+                var packetArrives = true
+                if (distanceLossDistribution != null) {
+                    val distance = environment.getDistanceBetweenNodes(device.node, neighborDevice.node)
+                    val random = program.randomGenerator.nextDouble()
+                    packetArrives = random > distanceLossDistribution.cumulativeProbability(distance)
                 }
+                if (packetArrives) {
+                    /*
+                     * The node is running the program, and the loss model actually makes the packet arrive.
+                     * Otherwise, the message is discarded
+                     */
+                    neighbors.destination(index, program).receiveMessage(msg)
+                }
+            }
             toBeSent = emptyMap()
         }
     }
@@ -148,7 +160,25 @@ class AlchemistNetworkManager @JvmOverloads constructor(
         }
     }
 
+    /*
+     * The Protelis devices in a neighborhood, in neighborhood order (null for nodes that are not Protelis devices),
+     * along with their network managers, resolved lazily.
+     */
+    private class Neighbors(val neighborhood: Neighborhood<Any>) {
+        val devices: Array<ProtelisDevice<*>?> =
+            neighborhood.neighbors.map { it.asPropertyOrNull<Any, ProtelisDevice<*>>() }.toTypedArray()
+        private val uids: Set<DeviceUID> = devices.filterNotNullTo(HashSet())
+        private val destinations: Array<AlchemistNetworkManager?> = arrayOfNulls(devices.size)
+
+        operator fun contains(uid: DeviceUID): Boolean = uid in uids
+
+        fun destination(index: Int, program: RunProtelisProgram<*>): AlchemistNetworkManager =
+            destinations[index] ?: checkNotNull(devices[index]).getNetworkManager(program).also {
+                destinations[index] = it
+            }
+    }
+
     private companion object {
-        private const val serialVersionUID = 2L
+        private const val serialVersionUID = 3L
     }
 }
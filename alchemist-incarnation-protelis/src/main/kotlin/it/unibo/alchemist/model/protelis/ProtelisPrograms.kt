@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.protelis
+
+import com.google.common.cache.CacheBuilder
+import com.google.common.cache.CacheLoader
+import com.google.common.cache.LoadingCache
+import com.google.common.util.concurrent.UncheckedExecutionException
+import org.protelis.lang.ProtelisLoader
+import org.protelis.vm.ProtelisProgram
+
+/**
+ * Process-wide cache of parsed [ProtelisProgram]s, keyed by their source.
+ * Parsed programs hold no execution state (which lives in the VM and its execution context),
+ * hence the same instance can be shared by all the devices running the same source.
+ * Programs are softly referenced, and get parsed again if collected.
+ */
+object ProtelisPrograms {
+    private val programs: LoadingCache<String, ProtelisProgram> =
+        CacheBuilder
+            .newBuilder()
+            .softValues()
+            .build(CacheLoader.from { source: String -> ProtelisLoader.parse(source) })
+
+    /**
+     * Returns the [ProtelisProgram] for the provided [source], parsing it only if it is not cached.
+     * Parsing failures are propagated as thrown by [ProtelisLoader.parse].
+     */
+    fun parse(source: String): ProtelisProgram = try {
+        programs.getUnchecked(source)
+    } catch (exception: UncheckedExecutionException) {
+        throw exception.cause ?: exception
+    }
+}
@@ -19,13 +19,13 @@ import it.unibo.alchemist.model.Position
 import it.unibo.alchemist.model.Reaction
 import it.unibo.alchemist.model.molecules.SimpleMolecule
 import it.unibo.alchemist.model.protelis.AlchemistExecutionContext
+import it.unibo.alchemist.model.protelis.ProtelisPrograms
 import it.unibo.alchemist.model.protelis.properties.ProtelisDevice
 import it.unibo.alchemist.util.RealDistributions
 import java.io.ObjectInputStream
 import org.apache.commons.math3.distribution.RealDistribution
 import org.apache.commons.math3.random.RandomGenerator
 import org.danilopianini.util.ImmutableListSet
-import org.protelis.lang.ProtelisLoader
 import org.protelis.vm.ProtelisProgram
 import org.protelis.vm.ProtelisVM
 
@@ -35,8 +35,8 @@ import org.protelis.vm.ProtelisVM
  * Requires the current [randomGenerator] and [environment], a valid [ProtelisDevice] ([device]),
  * and the local [reaction] hosting the computation.
  *
- * The program can be created using a String ([originalProgram]), or, alternatively,
- * by providing a [ProtelisProgram] ([program]).
+ * The program can be created using a String ([originalProgram]), parsed once per source and shared
+ * through [ProtelisPrograms], or, alternatively, by providing a [ProtelisProgram] ([program]).
  *
  * [retentionTime] specifies whether, upon message usage, the received messages should be deleted
  * (assuming a reasonable synchronization among devices) or if they should remain in memory for a specified amount
@@ -114,7 +114,7 @@ class RunProtelisProgram<P : Position<P>> private constructor(
         device,
         reaction,
         originalProgram = program,
-        program = ProtelisLoader.parse(program),
+        program = ProtelisPrograms.parse(program),
         retentionTime = retentionTime,
         packetLossDistance = null,
     )
@@ -136,7 +136,7 @@ class RunProtelisProgram<P : Position<P>> private constructor(
         reaction,
         originalProgram = program,
         retentionTime = retentionTime,
-        program = ProtelisLoader.parse(program),
+        program = ProtelisPrograms.parse(program),
         packetLossDistance =
         RealDistributions.makeRealDistribution(
             randomGenerator,
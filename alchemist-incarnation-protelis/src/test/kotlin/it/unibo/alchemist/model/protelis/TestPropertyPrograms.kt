@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.protelis
+
+import it.unibo.alchemist.model.environments.Continuous2DEnvironment
+import it.unibo.alchemist.model.incarnations.ProtelisIncarnation
+import it.unibo.alchemist.model.molecules.SimpleMolecule
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import org.apache.commons.math3.random.MersenneTwister
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+/** Tests the evaluation of Protelis programs as node properties. */
+internal class TestPropertyPrograms {
+    private val incarnation = ProtelisIncarnation<Euclidean2DPosition>()
+    private val environment = Continuous2DEnvironment(incarnation)
+    private val randomGenerator = MersenneTwister(0)
+
+    /** Tests that the state of property programs survives across evaluations, separately for each node. */
+    @Test
+    fun testPropertyStateIsKept() {
+        val node = incarnation.createNode(randomGenerator, environment, null)
+        val other = incarnation.createNode(randomGenerator, environment, null)
+        assertEquals(1.0, incarnation.getProperty(node, MOLECULE, COUNTER))
+        assertEquals(2.0, incarnation.getProperty(node, MOLECULE, COUNTER))
+        assertEquals(1.0, incarnation.getProperty(other, MOLECULE, COUNTER))
+        assertEquals(3.0, incarnation.getProperty(node, MOLECULE, COUNTER))
+    }
+
+    private companion object {
+        private val MOLECULE = SimpleMolecule("counter")
+        private const val COUNTER = "rep (x <- 0) { x + 1 }"
+    }
+}
@@ -127,6 +127,7 @@ public final class LsaNode extends GenericNode<List<ILsaMolecule>> implements IL
             for (int i = 0; i < instances.size(); i++) {
                 if (matchedInstance.matches(instances.get(i))) {
                     instances.remove(i);
+                    contentsChanged();
                     return true;
                 }
             }
@@ -140,6 +141,7 @@ public final class LsaNode extends GenericNode<List<ILsaMolecule>> implements IL
             synchronized (instances) {
                 instances.add(inst);
             }
+            contentsChanged();
         } else {
             throw new IllegalStateException("Tried to insert uninstanced " + inst + " into " + this);
         }
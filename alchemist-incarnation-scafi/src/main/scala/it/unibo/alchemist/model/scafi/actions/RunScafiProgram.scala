@@ -22,6 +22,7 @@ import org.apache.commons.math3.util.FastMath
 import org.kaikikm.threadresloader.ResourceLoader
 
 import java.util.concurrent.TimeUnit
+import scala.collection.mutable
 import scala.concurrent.duration.FiniteDuration
 import scala.util.{Failure, Try}
 
@@ -81,7 +82,10 @@ sealed class RunScafiProgram[T, P <: Position[P]](
     ResourceLoader.classForName(programName).getDeclaredConstructor().newInstance().asInstanceOf[CONTEXT => EXPORT]
   val programNameMolecule = new SimpleMolecule(programName)
   lazy val nodeManager = new SimpleNodeManager(node)
-  private var neighborhoodManager: Map[ID, NeighborData[P]] = Map()
+  /*
+   * Exports received from neighbors (and the local one), indexed by device id and updated in place.
+   */
+  private val neighborhoodManager: mutable.Map[ID, NeighborData[P]] = mutable.HashMap()
   private val commonNames = new ScafiIncarnationForAlchemist.StandardSensorNames {}
   private var completed = false
   declareDependencyTo(Dependency.EVERY_MOLECULE)
@@ -112,49 +116,52 @@ sealed class RunScafiProgram[T, P <: Position[P]](
     if (!neighborhoodManager.contains(node.getId)) {
       neighborhoodManager += node.getId -> NeighborData(factory.emptyExport(), position, Double.NaN)
     }
-    neighborhoodManager = neighborhoodManager.filter { case (id, data) =>
+    neighborhoodManager.filterInPlace { case (id, data) =>
       id == node.getId || data.executionTime >= alchemistCurrentTime - retentionTime
     }
     val deltaTime: Long =
       currentTime - neighborhoodManager.get(node.getId).map(d => alchemistTimeToNanos(d.executionTime)).getOrElse(0L)
     val localSensors = node.getContents().asScala.map { case (k, v) => k.getName -> v }
 
-    val neighborhoodSensors = scala.collection.mutable.Map[CNAME, Map[ID, Any]]()
+    /*
+     * Neighbor sensors are computed lazily, only for the neighbors actually queried, and cached for the round.
+     */
+    val neighborhoodSensors = mutable.HashMap[CNAME, (NeighborData[P] => Any, mutable.Map[ID, Any])]()
     val exports: Iterable[(ID, EXPORT)] = neighborhoodManager.view.mapValues(_.exportData)
     val context = new ContextImpl(node.getId, exports, localSensors, Map.empty) {
-      override def nbrSense[T](nsns: CNAME)(nbr: ID): Option[T] =
-        neighborhoodSensors
-          .getOrElseUpdate(
-            nsns,
+      override def nbrSense[T](nsns: CNAME)(nbr: ID): Option[T] = {
+        val (sensor, values) = neighborhoodSensors.getOrElseUpdate(
+          nsns,
+          (
             nsns match {
               case commonNames.NBR_LAG =>
-                neighborhoodManager.mapValuesStrict[FiniteDuration](nbr =>
+                (nbr: NeighborData[P]) =>
                   FiniteDuration(alchemistTimeToNanos(alchemistCurrentTime - nbr.executionTime), TimeUnit.NANOSECONDS)
-                )
               /*
                * nbrDelay is estimated: it should be nbr(deltaTime), here we suppose the round frequency
                * is negligibly different between devices.
                */
               case commonNames.NBR_DELAY =>
-                neighborhoodManager.mapValuesStrict[FiniteDuration](nbr =>
+                (nbr: NeighborData[P]) =>
                   FiniteDuration(
                     alchemistTimeToNanos(nbr.executionTime) + deltaTime - currentTime,
                     TimeUnit.NANOSECONDS
                   )
-                )
-              case commonNames.NBR_RANGE => neighborhoodManager.mapValuesStrict[Double](_.position.distanceTo(position))
+              case commonNames.NBR_RANGE => (nbr: NeighborData[P]) => nbr.position.distanceTo(position)
               case commonNames.NBR_VECTOR =>
-                neighborhoodManager.mapValuesStrict[Point3D](_.position.minus(position.getCoordinates))
-              case NBR_ALCHEMIST_LAG =>
-                neighborhoodManager.mapValuesStrict[Double](alchemistCurrentTime - _.executionTime)
+                (nbr: NeighborData[P]) => euclideanToPoint(nbr.position.minus(position.getCoordinates))
+              case NBR_ALCHEMIST_LAG => (nbr: NeighborData[P]) => alchemistCurrentTime - nbr.executionTime
               case NBR_ALCHEMIST_DELAY =>
-                neighborhoodManager.mapValuesStrict(nbr =>
-                  alchemistTimeToNanos(nbr.executionTime) + deltaTime - currentTime
-                )
-            }
+                (nbr: NeighborData[P]) => alchemistTimeToNanos(nbr.executionTime) + deltaTime - currentTime
+            },
+            mutable.HashMap[ID, Any]()
           )
+        )
+        values
           .get(nbr)
+          .orElse(neighborhoodManager.get(nbr).map(data => values.getOrElseUpdate(nbr, sensor(data))))
           .map(_.asInstanceOf[T])
+      }
 
       override def sense[T](lsns: String): Option[T] = (lsns match {
         case LSNS_ALCHEMIST_COORDINATES => Some(position.getCoordinates)
@@ -186,11 +193,11 @@ sealed class RunScafiProgram[T, P <: Position[P]](
     val computed = program(context)
     node.setConcentration(programName, computed.root[T]())
     val toSend = NeighborData(computed, position, alchemistCurrentTime)
-    neighborhoodManager = neighborhoodManager + (node.getId -> toSend)
+    neighborhoodManager.update(node.getId, toSend)
     completed = true
   }
 
-  def sendExport(id: ID, exportData: NeighborData[P]): Unit = neighborhoodManager += id -> exportData
+  def sendExport(id: ID, exportData: NeighborData[P]): Unit = neighborhoodManager.update(id, exportData)
 
   def getExport(id: ID): Option[NeighborData[P]] = neighborhoodManager.get(id)
 
@@ -202,8 +209,4 @@ sealed class RunScafiProgram[T, P <: Position[P]](
 
 object RunScafiProgram {
   case class NeighborData[P <: Position[P]](exportData: EXPORT, position: P, executionTime: AlchemistTime)
-
-  implicit class RichMap[K, V](map: Map[K, V]) {
-    def mapValuesStrict[T](f: V => T): Map[K, T] = map.map(tp => tp._1 -> f(tp._2))
-  }
 }
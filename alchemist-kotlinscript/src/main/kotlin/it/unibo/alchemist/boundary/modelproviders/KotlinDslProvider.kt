@@ -12,6 +12,7 @@ package it.unibo.alchemist.boundary.modelproviders
 import it.unibo.alchemist.boundary.AlchemistLoaderProvider
 import it.unibo.alchemist.boundary.Loader
 import it.unibo.alchemist.kotlinscript.AlchemistScript
+import it.unibo.alchemist.kotlinscript.AlchemistScriptCache
 import java.io.InputStream
 import java.io.Reader
 import java.net.URL
@@ -31,7 +32,10 @@ import kotlin.script.experimental.jvmhost.createJvmCompilationConfigurationFromT
 object KotlinDslProvider : AlchemistLoaderProvider {
     override val fileExtensions: Regex = "(?i)kts".toRegex()
 
-    private val host = BasicJvmScriptingHost()
+    /**
+     * Scripting host reusing compiled scripts from [AlchemistScriptCache].
+     */
+    private val host = BasicJvmScriptingHost(AlchemistScriptCache.hostConfiguration)
     private val compilationConfiguration = createJvmCompilationConfigurationFromTemplate<AlchemistScript>()
     private val baseClassLoader = this::class.java.classLoader
 
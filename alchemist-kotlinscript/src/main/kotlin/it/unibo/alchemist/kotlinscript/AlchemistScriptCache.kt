@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.kotlinscript
+
+import it.unibo.alchemist.boundary.Loader
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.LinkOption
+import java.nio.file.Path
+import java.nio.file.attribute.PosixFilePermission
+import java.nio.file.attribute.PosixFilePermissions
+import java.security.MessageDigest
+import kotlin.script.experimental.api.ScriptCompilationConfiguration
+import kotlin.script.experimental.api.SourceCode
+import kotlin.script.experimental.api.importScripts
+import kotlin.script.experimental.host.ScriptingHostConfiguration
+import kotlin.script.experimental.jvm.compilationCache
+import kotlin.script.experimental.jvm.jvm
+import kotlin.script.experimental.jvmhost.CompiledScriptJarsCache
+import org.slf4j.LoggerFactory
+
+/**
+ * On-disk cache of compiled Alchemist Kotlin DSL scripts.
+ *
+ * Compiled scripts are stored as jars in [directory], named after a hash of the script source,
+ * of the sources of the scripts it imports, of the compilation configuration,
+ * and of the Alchemist and Kotlin versions in use:
+ * any change to them leads to a new compilation, while unchanged scripts are loaded without compiling.
+ * The directory defaults to `alchemist/kotlin-dsl` in the user cache directory (`XDG_CACHE_HOME`, or `~/.cache`),
+ * and can be changed through the [DIRECTORY_PROPERTY] system property.
+ *
+ * As the cached jars get loaded and executed, the directory is created accessible by its owner only,
+ * and the cache is disabled if it is owned by another user or if other users can write in it.
+ */
+object AlchemistScriptCache {
+    /**
+     * System property that can be used to set the cache directory.
+     */
+    const val DIRECTORY_PROPERTY = "alchemist.kotlinscript.cache"
+
+    /**
+     * The directory where compiled scripts are stored.
+     */
+    val directory: File =
+        System.getProperty(DIRECTORY_PROPERTY)?.let(::File)
+            ?: File(
+                System.getenv("XDG_CACHE_HOME")?.takeIf { it.isNotBlank() }?.let(::File)
+                    ?: File(System.getProperty("user.home"), ".cache"),
+                "alchemist${File.separator}kotlin-dsl",
+            )
+
+    /**
+     * A host configuration enabling the cache, to be passed to the scripting host.
+     */
+    val hostConfiguration: ScriptingHostConfiguration = hostConfiguration(directory)
+
+    /*
+     * Fingerprint of the Alchemist and Kotlin classes in use: cached scripts compiled against
+     * a different version get ignored.
+     */
+    private val environmentFingerprint: String by lazy {
+        val alchemist =
+            listOf(Loader::class.java, AlchemistScript::class.java)
+                .mapNotNull { it.protectionDomain?.codeSource?.location?.path }
+                .distinct()
+                .joinToString(separator = ";") { path ->
+                    val location = File(path)
+                    val lastModified =
+                        when {
+                            location.isDirectory -> location.walkTopDown().maxOfOrNull { it.lastModified() }
+                            else -> location.lastModified()
+                        }
+                    "$path:${location.length()}:$lastModified"
+                }
+        "${Loader::class.java.`package`?.implementationVersion}|$alchemist|${KotlinVersion.CURRENT}"
+    }
+
+    private val OWNER_ONLY = PosixFilePermissions.fromString("rwx------")
+
+    private val SHARED_WRITE = setOf(PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_WRITE)
+
+    private val logger = LoggerFactory.getLogger(AlchemistScriptCache::class.java)
+
+    /*
+     * Creates the directory accessible by its owner only if missing,
+     * and checks that it is owned by the current user and not writable by others.
+     */
+    private fun Path.checkTrusted(): Boolean {
+        val posix = "posix" in fileSystem.supportedFileAttributeViews()
+        if (Files.notExists(this, LinkOption.NOFOLLOW_LINKS)) {
+            when {
+                posix -> Files.createDirectories(this, PosixFilePermissions.asFileAttribute(OWNER_ONLY))
+                else -> Files.createDirectories(this)
+            }
+        }
+        if (!Files.isDirectory(this, LinkOption.NOFOLLOW_LINKS)) {
+            throw IOException("$this is not a directory")
+        }
+        val currentUser = fileSystem.userPrincipalLookupService.lookupPrincipalByName(System.getProperty("user.name"))
+        val owner = Files.getOwner(this, LinkOption.NOFOLLOW_LINKS)
+        val writableByOthers = posix &&
+            Files.getPosixFilePermissions(this, LinkOption.NOFOLLOW_LINKS).any { it in SHARED_WRITE }
+        return when {
+            owner != currentUser -> false.also {
+                logger.warn(
+                    "Kotlin DSL scripts will not be cached: {} is owned by {}, not by {}",
+                    this,
+                    owner,
+                    currentUser,
+                )
+            }
+            writableByOthers -> false.also {
+                logger.warn("Kotlin DSL scripts will not be cached: {} is writable by other users", this)
+            }
+            else -> true
+        }
+    }
+
+    /*
+     * A host configuration storing compiled scripts in [directory], if it can be trusted.
+     */
+    internal fun hostConfiguration(directory: File): ScriptingHostConfiguration {
+        val trusted by lazy { isTrusted(directory) }
+        return ScriptingHostConfiguration {
+            jvm {
+                compilationCache(
+                    CompiledScriptJarsCache { script, configuration ->
+                        if (trusted) jarFor(directory, script, configuration) else null
+                    },
+                )
+            }
+        }
+    }
+
+    /*
+     * Whether compiled scripts can be stored in and loaded from [directory], creating it if missing.
+     */
+    internal fun isTrusted(directory: File): Boolean = runCatching { directory.toPath().checkTrusted() }
+        .onFailure { logger.warn("Kotlin DSL scripts will not be cached: cannot prepare {}", directory, it) }
+        .getOrDefault(false)
+
+    /*
+     * The jar in [directory] caching the compiled [script].
+     * Every hashed part is preceded by its length, so that different splits of the same text do not collide.
+     */
+    internal fun jarFor(directory: File, script: SourceCode, configuration: ScriptCompilationConfiguration): File {
+        val digest = MessageDigest.getInstance("SHA-256")
+        fun update(text: String) {
+            val bytes = text.toByteArray()
+            digest.update(ByteBuffer.allocate(Int.SIZE_BYTES).putInt(bytes.size).array())
+            digest.update(bytes)
+        }
+        update(environmentFingerprint)
+        update(script.text)
+        configuration[ScriptCompilationConfiguration.importScripts].orEmpty().forEach { update(it.text) }
+        configuration.notTransientData.entries
+            .sortedBy { it.key.name }
+            .forEach { update("${it.key.name}=${it.value}") }
+        val hash = digest.digest().joinToString(separator = "") { "%02x".format(it) }
+        return File(directory, "$hash.jar")
+    }
+}
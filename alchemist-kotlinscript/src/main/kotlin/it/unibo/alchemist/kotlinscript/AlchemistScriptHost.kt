@@ -34,7 +34,7 @@ fun main(vararg args: String) {
     require(args.size == 1) { "usage: <app> <file.alchemist.kts>" }
 
     val scriptFile = File(args[0])
-    val result = BasicJvmScriptingHost().eval(
+    val result = BasicJvmScriptingHost(AlchemistScriptCache.hostConfiguration).eval(
         scriptFile.toScriptSource(),
         AlchemistCompilationConfiguration,
         ScriptEvaluationConfiguration {
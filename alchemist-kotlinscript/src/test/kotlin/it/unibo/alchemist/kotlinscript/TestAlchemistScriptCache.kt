@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.kotlinscript
+
+import java.io.File
+import java.nio.file.FileSystems
+import java.nio.file.Files
+import java.nio.file.attribute.PosixFilePermissions
+import kotlin.script.experimental.api.ResultWithDiagnostics
+import kotlin.script.experimental.api.ScriptCompilationConfiguration
+import kotlin.script.experimental.api.importScripts
+import kotlin.script.experimental.host.toScriptSource
+import kotlin.script.experimental.jvmhost.BasicJvmScriptingHost
+import kotlin.script.experimental.jvmhost.createJvmCompilationConfigurationFromTemplate
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertInstanceOf
+import org.junit.jupiter.api.Assertions.assertNotEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+
+class TestAlchemistScriptCache {
+
+    @TempDir
+    lateinit var directory: File
+
+    private val configuration = createJvmCompilationConfigurationFromTemplate<AlchemistScript>()
+
+    @Test
+    fun `a second load reuses the compiled jar`() {
+        val cache = File(directory, "cache")
+        val host = BasicJvmScriptingHost(AlchemistScriptCache.hostConfiguration(cache))
+        val script = "val answer = 6 * 7".toScriptSource()
+        assertInstanceOf(ResultWithDiagnostics.Success::class.java, host.eval(script, configuration, null))
+        val jars = cache.jars()
+        assertEquals(1, jars.size)
+        val jar = jars.single()
+        assertEquals(AlchemistScriptCache.jarFor(cache, script, configuration), jar)
+        assertTrue(jar.setLastModified(LAST_MODIFIED))
+        assertInstanceOf(ResultWithDiagnostics.Success::class.java, host.eval(script, configuration, null))
+        assertEquals(listOf(jar), cache.jars())
+        assertEquals(LAST_MODIFIED, jar.lastModified())
+    }
+
+    @Test
+    fun `changing the script changes the jar`() {
+        assertNotEquals(
+            AlchemistScriptCache.jarFor(directory, "val answer = 42".toScriptSource(), configuration),
+            AlchemistScriptCache.jarFor(directory, "val answer = 43".toScriptSource(), configuration),
+        )
+    }
+
+    @Test
+    fun `changing the imported scripts changes the jar`() {
+        val script = "val answer = 42".toScriptSource()
+        assertNotEquals(
+            AlchemistScriptCache.jarFor(directory, script, configuration.importing("val imported = 1")),
+            AlchemistScriptCache.jarFor(directory, script, configuration.importing("val imported = 2")),
+        )
+    }
+
+    @Test
+    fun `moving text between the script and its imports changes the jar`() {
+        assertNotEquals(
+            AlchemistScriptCache.jarFor(directory, "ab".toScriptSource(), configuration.importing("c")),
+            AlchemistScriptCache.jarFor(directory, "a".toScriptSource(), configuration.importing("bc")),
+        )
+    }
+
+    @Test
+    fun `a missing directory is created accessible by its owner only`() {
+        assumePosix()
+        val cache = File(directory, "cache")
+        assertTrue(AlchemistScriptCache.isTrusted(cache))
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(cache.toPath())))
+    }
+
+    @Test
+    fun `a directory writable by others disables the cache`() {
+        assumePosix()
+        val cache = File(directory, "cache")
+        Files.createDirectory(cache.toPath())
+        Files.setPosixFilePermissions(cache.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"))
+        assertFalse(AlchemistScriptCache.isTrusted(cache))
+        val host = BasicJvmScriptingHost(AlchemistScriptCache.hostConfiguration(cache))
+        assertInstanceOf(
+            ResultWithDiagnostics.Success::class.java,
+            host.eval("val answer = 42".toScriptSource(), configuration, null),
+        )
+        assertEquals(emptyList<File>(), cache.jars())
+    }
+
+    private companion object {
+        const val LAST_MODIFIED = 1_000_000_000_000L
+
+        fun File.jars(): List<File> = listFiles { file -> file.extension == "jar" }.orEmpty().toList()
+
+        fun ScriptCompilationConfiguration.importing(text: String) = ScriptCompilationConfiguration(this) {
+            importScripts(text.toScriptSource())
+        }
+
+        fun assumePosix() = assumeTrue("posix" in FileSystems.getDefault().supportedFileAttributeViews())
+    }
+}
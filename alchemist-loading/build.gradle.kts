@@ -37,7 +37,6 @@ dependencies {
     implementation(libs.jirf)
     implementation(libs.kasechange)
     implementation(libs.kotlin.reflect)
-    implementation(libs.kotlin.coroutines.core)
     implementation(libs.mongodb)
     implementation(libs.snakeyaml)
 
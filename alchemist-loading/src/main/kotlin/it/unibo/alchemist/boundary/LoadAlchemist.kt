@@ -110,7 +110,7 @@ object LoadAlchemist {
 
     @JvmStatic
     private inline fun <reified T : Extensions> loadForExtension(extension: String) = ClassPathScanner
-        .subTypesOf<T>(extractPackageFrom<LoadAlchemist>())
+        .allSubTypesOf<T>(extractPackageFrom<LoadAlchemist>())
         .mapNotNull { it.kotlin.objectInstance }
         .filter { it.fileExtensions.matches(extension) }
         .also { require(it.size == 1) { "None or conflicting loaders for extension $extension: $it" } }
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2010-2023, Danilo Pianini and contributors
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
  * listed, for each module, in the respective subproject's build.gradle.kts file.
  *
  * This file is part of Alchemist, and is distributed under the terms of the
@@ -13,17 +13,29 @@ import it.unibo.alchemist.model.Actionable
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Position
 import it.unibo.alchemist.model.Time
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.TimeUnit
 import org.bson.Document
 
 /**
  * Exports data to a MongoDB instance.
  *
+ * Documents are built on the simulation thread, and then queued (up to [queueCapacity], the simulation waits when the
+ * queue is full) for a background thread that writes them with unordered bulk inserts of up to [batchSize] documents,
+ * waiting at most [flushMillis] milliseconds before writing a partial batch.
+ *
  * @param T the concentration type
  * @param P the position type
  * @property uri the connection URI of the database instance
  * @property dbName the name of the database to export data to
  * @property interval the sampling time, defaults to [AbstractExporter.DEFAULT_INTERVAL]
  * @property appendTime if true it will always generate a new Mongo document, false to overwrite
+ * @property batchSize the maximum number of documents written at once
+ * @property flushMillis the maximum time (in milliseconds) a document waits before being written
+ * @property queueCapacity the maximum number of documents waiting to be written
+ * @property columnar if true, per-node values (columns named `name@id`) are exported as two arrays per sample,
+ * one with the values (in a field named `name`), and one with the node ids (in a field named `name@node-id`)
  * @property collectionName the name of the collection used for the current simulation
  */
 class MongoDBExporter<T, P : Position<P>>
@@ -33,6 +45,10 @@ constructor(
     val dbName: String = DEFAULT_DATABASE,
     val interval: Double = DEFAULT_INTERVAL,
     private val appendTime: Boolean = false,
+    val batchSize: Int = DEFAULT_BATCH_SIZE,
+    val flushMillis: Long = DEFAULT_FLUSH_MILLIS,
+    val queueCapacity: Int = DEFAULT_QUEUE_CAPACITY,
+    val columnar: Boolean = false,
 ) : AbstractExporter<T, P>(interval) {
     /**
      * The name of the collection related to the current simulation in execution.
@@ -42,19 +58,93 @@ constructor(
 
     private val mongoService: MongoService = MongoService()
 
+    private val queue: BlockingQueue<Document>
+
+    private lateinit var writer: Thread
+
+    @Volatile
+    private var failure: Throwable? = null
+
+    init {
+        require(batchSize > 0 && flushMillis >= 0 && queueCapacity > 0) {
+            "Invalid MongoDB export configuration: batchSize=$batchSize, flushMillis=$flushMillis, " +
+                "queueCapacity=$queueCapacity. The batch size and the queue capacity must be positive, " +
+                "the flush time can not be negative."
+        }
+        queue = ArrayBlockingQueue(queueCapacity)
+    }
+
     override fun setup(environment: Environment<T, P>) {
         collectionName = "$variablesDescriptor${"".takeUnless { appendTime } ?: System.currentTimeMillis()}"
         mongoService.startService(uri)
         mongoService.connectToDB(dbName)
         mongoService.createCollection(collectionName)
+        writer = Thread(::writeQueuedDocuments, "MongoDBExporter-$dbName-$collectionName").apply {
+            isDaemon = true
+            start()
+        }
     }
 
     override fun exportData(environment: Environment<T, P>, reaction: Actionable<T>?, time: Time, step: Long) {
-        mongoService.pushToDatabase(convertToDocument(environment, reaction, time, step))
+        /*
+         * A dead writer leaves free room in the queue, so failures must be checked before enqueueing.
+         */
+        checkWriter()
+        val document = convertToDocument(environment, reaction, time, step)
+        while (!enqueue(document)) {
+            checkWriter()
+        }
     }
 
+    private fun enqueue(document: Document): Boolean =
+        queue.offer(document, flushMillis.coerceAtLeast(1), TimeUnit.MILLISECONDS)
+
     override fun close(environment: Environment<T, P>, time: Time, step: Long) {
-        mongoService.stopService()
+        try {
+            if (this::writer.isInitialized) {
+                while (writer.isAlive && !enqueue(END_OF_EXPORT)) {
+                    checkWriter()
+                }
+                writer.join()
+            }
+            checkWriter()
+        } finally {
+            mongoService.stopService()
+        }
+    }
+
+    private fun checkWriter() {
+        failure?.let { throw IllegalStateException("Unable to export data to $uri, collection $collectionName", it) }
+    }
+
+    /*
+     * Runs on the writer thread: accumulates documents, flushing them when the batch is full or too old.
+     */
+    private fun writeQueuedDocuments() {
+        val batch = ArrayList<Document>(batchSize)
+        var deadline = 0L
+        var ended = false
+        runCatching {
+            while (!ended) {
+                val timeout = if (batch.isEmpty()) Long.MAX_VALUE else deadline - System.currentTimeMillis()
+                val next = queue.poll(timeout.coerceAtLeast(0), TimeUnit.MILLISECONDS)
+                if (next != null) {
+                    if (batch.isEmpty()) {
+                        deadline = System.currentTimeMillis() + flushMillis
+                    }
+                    batch.add(next)
+                    queue.drainTo(batch, batchSize - batch.size)
+                    ended = batch.last() === END_OF_EXPORT
+                    if (ended) {
+                        batch.removeLast()
+                    }
+                }
+                if (ended || batch.size >= batchSize || System.currentTimeMillis() >= deadline) {
+                    mongoService.pushToDatabase(batch)
+                    batch.clear()
+                }
+            }
+        }.onFailure { failure = it }
     }
 
     private fun convertToDocument(
@@ -65,17 +155,58 @@ constructor(
     ): Document {
         val document = Document()
         dataExtractors.forEach { extractor ->
-            extractor.extractData(environment, reaction, time, step).forEach { (dataLabel, dataValue) ->
-                document.append(dataLabel, dataValue)
+            val data = extractor.extractData(environment, reaction, time, step)
+            if (columnar) {
+                appendColumnar(document, data)
+            } else {
+                data.forEach { (dataLabel, dataValue) -> document.append(dataLabel, dataValue) }
             }
         }
         return document
     }
 
-    private companion object {
+    internal companion object {
         /**
          *  The default database if no name is specified.
          */
         private const val DEFAULT_DATABASE = "test"
+
+        private const val DEFAULT_BATCH_SIZE = 1000
+
+        private const val DEFAULT_FLUSH_MILLIS = 1000L
+
+        private const val DEFAULT_QUEUE_CAPACITY = 10_000
+
+        private const val NODE_ID = "node-id"
+
+        /*
+         * Marks the end of the export, compared by identity
+         */
+        private val END_OF_EXPORT = Document()
+
+        /**
+         * Appends the [data] to the [document], grouping the values of fields named `name@id` (where id is an integer)
+         * into an array of values named `name` and an array of ids named `name@node-id`.
+         */
+        fun appendColumnar(document: Document, data: Map<String, Any?>) {
+            val columns = LinkedHashMap<String, Pair<MutableList<Int>, MutableList<Any?>>>()
+            data.forEach { (label, value) ->
+                val separator = label.lastIndexOf('@')
+                val id = label.takeIf { separator >= 0 }?.substring(separator + 1)?.toIntOrNull()
+                if (id == null) {
+                    document.append(label, value)
+                } else {
+                    val (ids, values) = columns.getOrPut(label.substring(0, separator)) {
+                        mutableListOf<Int>() to mutableListOf()
+                    }
+                    ids.add(id)
+                    values.add(value)
+                }
+            }
+            columns.forEach { (name, column) ->
+                document.append(name, column.second)
+                document.append("$name@$NODE_ID", column.first)
+            }
+        }
     }
 }
@@ -15,6 +15,7 @@ import com.mongodb.client.MongoClient
 import com.mongodb.client.MongoClients
 import com.mongodb.client.MongoCollection
 import com.mongodb.client.MongoDatabase
+import com.mongodb.client.model.InsertManyOptions
 import org.bson.Document
 
 /**
@@ -60,6 +61,15 @@ class MongoService {
         collection.insertOne(document)
     }
 
+    /**
+     * Sends the [documents] to the Mongo collection with a single, unordered bulk write.
+     */
+    fun pushToDatabase(documents: List<Document>) {
+        if (documents.isNotEmpty()) {
+            collection.insertMany(documents, InsertManyOptions().ordered(false))
+        }
+    }
+
     /**
      * Close the connection with the Mongo instance.
      */
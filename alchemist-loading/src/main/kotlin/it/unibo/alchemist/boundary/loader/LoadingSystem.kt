@@ -27,8 +27,10 @@ import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.Position
 import it.unibo.alchemist.model.Reaction
 import it.unibo.alchemist.model.TerminationPredicate
+import it.unibo.alchemist.model.Time
 import it.unibo.alchemist.model.linkingrules.CombinedLinkingRule
 import it.unibo.alchemist.model.linkingrules.NoLinks
+import it.unibo.alchemist.util.SplitMix64RandomGenerator
 import java.util.concurrent.Semaphore
 import org.apache.commons.math3.random.RandomGenerator
 import org.danilopianini.jirf.Factory
@@ -42,6 +44,7 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
         private val context: Context = originalContext.child()
         private val mutex = Semaphore(1)
         private var consumed = false
+        private var streams: SplitMix64RandomGenerator? = null
 
         fun <T : Any?, P : Position<P>> simulationWith(values: Map<String, *>): Simulation<T, P> {
             try {
@@ -72,6 +75,7 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
             // SEEDS
             val (scenarioRNG, simulationRNG) = SimulationModel.visitSeeds(context, root[AlchemistYamlSyntax.seeds])
             setCurrentRandomGenerator(simulationRNG)
+            streams = SimulationModel.visitRandomStreams(root[AlchemistYamlSyntax.seeds], simulationRNG)
             // INCARNATION
             val incarnation = SimulationModel.visitIncarnation<P, T>(root[AlchemistYamlSyntax.incarnation])
             contextualize(incarnation)
@@ -170,6 +174,7 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
                 val programDescriptor = environmentDescriptor.getOrEmpty(
                     AlchemistYamlSyntax.Environment.GLOBAL_PROGRAMS,
                 )
+                var index = 0
                 val globalPrograms = SimulationModel.visitRecursively(
                     context,
                     programDescriptor,
@@ -180,13 +185,13 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
                             AlchemistYamlSyntax.Environment.GlobalProgram.guide
                     }
                     (program as? Map<*, *>)?.let {
-                        SimulationModel
-                            .visitProgram(randomGenerator, incarnation, environment, null, context, it)
-                            ?.onSuccess { (_, actionable) ->
-                                if (actionable is GlobalReaction) {
-                                    environment.addGlobalReaction(actionable)
-                                }
+                        withProgramRandomGenerator(randomGenerator, null, index++) { programRNG ->
+                            SimulationModel.visitProgram(programRNG, incarnation, environment, null, context, it)
+                        }?.onSuccess { (_, actionable) ->
+                            if (actionable is GlobalReaction) {
+                                environment.addGlobalReaction(actionable)
                             }
+                        }
                     }
                 }
                 logger.debug("Global programs: {}", globalPrograms)
@@ -226,6 +231,7 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
             descriptor: Map<*, *>,
         ) {
             val programDescriptor = descriptor.getOrEmpty(AlchemistYamlSyntax.Deployment.programs)
+            var index = 0
             val programs =
                 SimulationModel.visitRecursively(
                     context,
@@ -236,16 +242,16 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
                         "null is not a valid program in $descriptor. ${AlchemistYamlSyntax.Deployment.Program.guide}"
                     }
                     (program as? Map<*, *>)?.let {
-                        SimulationModel
-                            .visitProgram(randomGenerator, incarnation, environment, node, context, it)
-                            ?.onSuccess { (filters, actionable) ->
-                                if (
-                                    actionable is Reaction &&
-                                    (filters.isEmpty() || filters.any { shape -> nodePosition in shape })
-                                ) {
-                                    node.addReaction(actionable)
-                                }
+                        withProgramRandomGenerator(randomGenerator, node, index++) { programRNG ->
+                            SimulationModel.visitProgram(programRNG, incarnation, environment, node, context, it)
+                        }?.onSuccess { (filters, actionable) ->
+                            if (
+                                actionable is Reaction &&
+                                (filters.isEmpty() || filters.any { shape -> nodePosition in shape })
+                            ) {
+                                node.addReaction(actionable)
                             }
+                        }
                     }
                 }
             logger.debug("Programs: {}", programs)
@@ -277,23 +283,96 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
                 environment.linkingRule = composedLinkingRule
                 contextualize<LinkingRule<T, P>>(composedLinkingRule)
             }
-            deployment.stream().forEach { position ->
-                val node = SimulationModel.visitNode(simulationRNG, incarnation, environment, context, nodeDescriptor)
-                contextualize(node)
-                // PROPERTIES
-                loadPropertiesOnNode(node, position, descriptor)
-                node.properties.forEach { contextualize(it) }
-                // NODE CONTENTS
-                loadContentsOnNode(incarnation, node, position, descriptor)
-                // PROGRAMS
-                loadProgramsOnNode(simulationRNG, incarnation, environment, node, position, descriptor)
-                node.properties.forEach { decontextualize(it) }
+            val prototypeRequested = descriptor[AlchemistYamlSyntax.Deployment.prototype].isPrototypeFlagSet()
+            val splittable = descriptor.canBeSplitByPositionFilters()
+            if (prototypeRequested && !splittable) {
+                logger.warn("Deployment {} can not be split in common and position-filtered parts", deployment)
+            }
+            /*
+             * Clones share the random generators of the prototype's reactions: no prototype with per-reaction streams
+             */
+            if (prototypeRequested && streams != null) {
+                logger.warn("Deployment {} uses per-reaction random streams, nodes can not be cloned", deployment)
+            }
+            var prototypeDescriptors =
+                if (prototypeRequested && splittable && streams == null) {
+                    descriptor.withPositionFilteredParts(filtered = false) to
+                        descriptor.withPositionFilteredParts(filtered = true)
+                } else {
+                    null
+                }
+            /*
+             * In prototype mode, the parts common to all positions are loaded once, on the node of the first position.
+             * Before loading the position-filtered parts on a node, it gets cloned to make the node of the next
+             * position, so that no node is built without being deployed and node ids are the same as without prototype.
+             */
+            var pristine: Node<T>? = null
+            val positions = deployment.stream().iterator()
+            while (positions.hasNext()) {
+                val position = positions.next()
+                val fromPrototype =
+                    prototypeDescriptors?.let { (common, filtered) ->
+                        val base = pristine ?: buildNode(simulationRNG, incarnation, environment, position, common)
+                        pristine =
+                            positions.takeIf { it.hasNext() }?.let {
+                                runCatching {
+                                    base.cloneNode(Time.ZERO).also {
+                                        check(it.javaClass == base.javaClass) {
+                                            "${base.javaClass.simpleName} clones are ${it.javaClass.simpleName}s"
+                                        }
+                                    }
+                                }.onFailure { failure ->
+                                    logger.warn(
+                                        "Nodes of {} can not be cloned, falling back to building each node: {}",
+                                        deployment,
+                                        failure.message,
+                                    )
+                                    prototypeDescriptors = null
+                                }.getOrNull()
+                            }
+                        loadOnNode(simulationRNG, incarnation, environment, base, position, filtered)
+                    }
+                val node =
+                    fromPrototype
+                        ?: buildNode(simulationRNG, incarnation, environment, position, descriptor)
                 environment.addNode(node, position)
                 logger.debug("Added node {} at {}", node.id, position)
-                decontextualize(node)
             }
         }
 
+        private fun <T, P : Position<P>> buildNode(
+            simulationRNG: RandomGenerator,
+            incarnation: Incarnation<T, P>,
+            environment: Environment<T, P>,
+            position: P,
+            descriptor: Map<*, *>,
+        ): Node<T> {
+            val nodeDescriptor = descriptor[AlchemistYamlSyntax.Deployment.nodes]
+            val node = SimulationModel.visitNode(simulationRNG, incarnation, environment, context, nodeDescriptor)
+            return loadOnNode(simulationRNG, incarnation, environment, node, position, descriptor)
+        }
+
+        private fun <T, P : Position<P>> loadOnNode(
+            simulationRNG: RandomGenerator,
+            incarnation: Incarnation<T, P>,
+            environment: Environment<T, P>,
+            node: Node<T>,
+            position: P,
+            descriptor: Map<*, *>,
+        ): Node<T> {
+            contextualize(node)
+            // PROPERTIES
+            loadPropertiesOnNode(node, position, descriptor)
+            node.properties.forEach { contextualize(it) }
+            // NODE CONTENTS
+            loadContentsOnNode(incarnation, node, position, descriptor)
+            // PROGRAMS
+            loadProgramsOnNode(simulationRNG, incarnation, environment, node, position, descriptor)
+            node.properties.forEach { decontextualize(it) }
+            decontextualize(node)
+            return node
+        }
+
         private fun computeAllKnownValues(allVariableValues: Map<String, Any?>): Map<String, *> {
             val knownValues = allVariableValues.toMutableMap()
             var previousToVisitSize: Int? = null
@@ -328,6 +407,27 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
             return knownValues
         }
 
+        /*
+         * Loads the program with the given index on the node (or on the environment, if node is null),
+         * with a dedicated random stream if per-reaction streams are enabled.
+         * The stream is also registered as the current generator, so that it gets injected in the program components.
+         */
+        private fun <R> withProgramRandomGenerator(
+            simulationRNG: RandomGenerator,
+            node: Node<*>?,
+            index: Int,
+            load: (RandomGenerator) -> R,
+        ): R {
+            val programRNG = streams?.split(node?.id?.toLong() ?: GLOBAL_PROGRAMS_KEY, index.toLong())
+                ?: return load(simulationRNG)
+            setCurrentRandomGenerator(programRNG)
+            return try {
+                load(programRNG)
+            } finally {
+                setCurrentRandomGenerator(simulationRNG)
+            }
+        }
+
         private fun setCurrentRandomGenerator(randomGenerator: RandomGenerator) =
             factory.registerSingleton(RandomGenerator::class.java, randomGenerator)
 
@@ -349,5 +449,54 @@ internal abstract class LoadingSystem(private val originalContext: Context, priv
         private fun Map<*, *>.getOrEmpty(key: String) = get(key) ?: emptyList<Any>()
 
         private fun Map<*, *>.getOrEmptyMap(key: String) = get(key) ?: emptyMap<String, Any>()
+
+        private fun Any?.isPrototypeFlagSet(): Boolean = when (this) {
+            null -> false
+            is Boolean -> this
+            else -> toString().toBooleanStrict()
+        }
+
+        private val Map<*, *>.nodeParts: List<String>
+            get() =
+                with(AlchemistYamlSyntax.Deployment) { listOf(properties, contents, programs) }
+                    .filter { it in this }
+
+        /*
+         * Each property, content, or program must either have a position filter, or contain none.
+         */
+        private fun Map<*, *>.canBeSplitByPositionFilters(): Boolean = nodeParts.all { this[it].isSplittable() }
+
+        private fun Any?.isSplittable(): Boolean = when (this) {
+            is Map<*, *> -> containsKey(AlchemistYamlSyntax.Deployment.Filter.FILTER) || !hasPositionFilters()
+            is Iterable<*> -> all { it.isSplittable() }
+            else -> true
+        }
+
+        /*
+         * Keeps the properties, contents, and programs with (if filtered) or without position filters.
+         */
+        private fun Map<*, *>.withPositionFilteredParts(filtered: Boolean): Map<*, *> =
+            this + nodeParts.associateWith { this[it].withPositionFilteredParts(filtered) }
+
+        private fun Any?.withPositionFilteredParts(filtered: Boolean): Any? = when (this) {
+            is Map<*, *> ->
+                if (containsKey(AlchemistYamlSyntax.Deployment.Filter.FILTER) == filtered) this else emptyList<Any>()
+            is Iterable<*> -> map { it.withPositionFilteredParts(filtered) }
+            else -> if (filtered) emptyList<Any>() else this
+        }
+
+        private fun Any?.hasPositionFilters(): Boolean = when (this) {
+            is Map<*, *> ->
+                containsKey(AlchemistYamlSyntax.Deployment.Filter.FILTER) || values.any { it.hasPositionFilters() }
+            is Iterable<*> -> any { it.hasPositionFilters() }
+            else -> false
+        }
+    }
+
+    private companion object {
+        /*
+         * Stream identifier used in place of the node id for global programs (node ids are never negative).
+         */
+        private const val GLOBAL_PROGRAMS_KEY = -1L
     }
 }
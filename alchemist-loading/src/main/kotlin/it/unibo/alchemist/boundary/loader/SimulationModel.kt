@@ -26,6 +26,7 @@ import it.unibo.alchemist.boundary.loader.LoadingSystemLogger.logger
 import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax
 import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax.DependentVariable.formula as formulaKey
 import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax.DependentVariable.language as languageKey
+import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax.DependentVariable.pure as pureKey
 import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax.DependentVariable.timeout as timeoutKey
 import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax.Deployment.Program as ProgramSyntax
 import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax.Environment.GlobalProgram as GlobalProgramSyntax
@@ -59,6 +60,7 @@ import it.unibo.alchemist.model.environments.Continuous2DEnvironment
 import it.unibo.alchemist.model.linkingrules.CombinedLinkingRule
 import it.unibo.alchemist.model.linkingrules.NoLinks
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.util.SplitMix64RandomGenerator
 import kotlin.reflect.KClass
 import kotlin.reflect.jvm.jvmName
 import org.apache.commons.math3.random.MersenneTwister
@@ -103,12 +105,13 @@ private fun cantBuildWith(name: String, root: Any?, syntax: SyntaxElement? = nul
     throw IllegalStateException("$message\nProximal cause: ${error.message}$suppressed", error)
 }
 
-private fun buildJSR223Variable(name: String, language: String, formula: String, timeout: Any?) = when (timeout) {
-    null -> Result.success(JSR223Variable(language, formula))
-    is Number -> Result.success(JSR223Variable(language, formula, timeout.toLong()))
-    is String -> Result.success(JSR223Variable(language, formula, timeout.toTimeout(name)))
-    else -> error("Invalid timeout for $name: $timeout: ${timeout::class.simpleName}")
-}
+private fun buildJSR223Variable(name: String, language: String, formula: String, timeout: Any?, pure: Any?) =
+    when (timeout) {
+        null -> Result.success(JSR223Variable(language, formula, pure = pure.toPure(name)))
+        is Number -> Result.success(JSR223Variable(language, formula, timeout.toLong(), pure.toPure(name)))
+        is String -> Result.success(JSR223Variable(language, formula, timeout.toTimeout(name), pure.toPure(name)))
+        else -> error("Invalid timeout for $name: $timeout: ${timeout::class.simpleName}")
+    }
 
 /*
  * UTILITY EXTENSIONS
@@ -166,6 +169,13 @@ private fun String.toTimeout(name: String): Long = runCatching { toLong() }.getO
     throw IllegalArgumentException("Invalid timeout for $name: '$this'", it)
 }
 
+private fun Any?.toPure(name: String): Boolean = when (this) {
+    null -> false
+    is Boolean -> this
+    is String -> requireNotNull(toBooleanStrictOrNull()) { "Invalid purity flag for $name: '$this'" }
+    else -> error("Invalid purity flag for $name: $this: ${this::class.simpleName}")
+}
+
 /**
  * Contains the model-to-model translation between the Alchemist YAML specification and the
  * executable form of a simulation.
@@ -483,6 +493,7 @@ internal object SimulationModel {
                             root[languageKey]?.toString()?.lowercase() ?: "groovy",
                             formula,
                             root[timeoutKey],
+                            root[pureKey],
                         )
 
                     is Number -> Result.success(Constant(formula))
@@ -822,6 +833,17 @@ internal object SimulationModel {
         )
     }
 
+    /**
+     * Returns the root of the per-reaction random streams if the seeds descriptor enables them,
+     * keying it with a value drawn from the [simulationRNG].
+     */
+    fun visitRandomStreams(root: Any?, simulationRNG: RandomGenerator): SplitMix64RandomGenerator? =
+        (root as? Map<*, *>)
+            ?.get(AlchemistYamlSyntax.Seeds.streams)
+            ?.let { it as? Boolean ?: it.toString().toBooleanStrict() }
+            ?.takeIf { it }
+            ?.let { SplitMix64RandomGenerator(simulationRNG.nextLong()) }
+
     private fun <P : Position<P>, T> visitTimeDistribution(
         incarnation: Incarnation<T, P>,
         simulationRNG: RandomGenerator,
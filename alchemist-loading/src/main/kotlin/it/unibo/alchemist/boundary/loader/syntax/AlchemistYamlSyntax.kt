@@ -26,6 +26,7 @@ internal object AlchemistYamlSyntax : SyntaxElement {
         val language by OwnName
         val formula by OwnName
         val timeout by OwnName
+        val pure by OwnName
         override val validDescriptors =
             JavaType.validDescriptors +
                 setOf(
@@ -33,6 +34,7 @@ internal object AlchemistYamlSyntax : SyntaxElement {
                         mandatory(formula)
                         optional(language)
                         optional(timeout)
+                        optional(pure)
                     },
                 )
     }
@@ -42,11 +44,12 @@ internal object AlchemistYamlSyntax : SyntaxElement {
         val nodes by OwnName
         val properties by OwnName
         val programs by OwnName
+        val prototype by OwnName
         override val validDescriptors =
             setOf(
                 validDescriptor {
                     mandatory(JavaType.type)
-                    optional(JavaType.parameters, contents, properties, nodes, programs)
+                    optional(JavaType.parameters, contents, properties, nodes, programs, prototype)
                     forbidden(Filter.FILTER)
                 },
             )
@@ -187,9 +190,10 @@ internal object AlchemistYamlSyntax : SyntaxElement {
     object Seeds : SyntaxElement {
         val scenario by OwnName
         val simulation by OwnName
+        val streams by OwnName
         override val validDescriptors =
             setOf(
-                validDescriptor { optional(simulation, scenario) },
+                validDescriptor { optional(simulation, scenario, streams) },
             )
     }
 
@@ -139,17 +139,21 @@ internal sealed class JVMConstructor(val typeName: String) {
                                     constructor.valueParameters.lastIndex - originalParameters.lastIndex + index
                                 val potentialType = constructor.valueParameters[mappedIndex]
                                 val potentialJavaType = potentialType.type.jvmErasure.java
-                                val subtypes =
-                                    ClassPathScanner.subTypesOf(potentialJavaType) +
-                                        when {
-                                            Modifier.isAbstract(potentialJavaType.modifiers) -> emptyList()
-                                            else -> listOf(potentialJavaType)
-                                        }
+                                val itself =
+                                    when {
+                                        Modifier.isAbstract(potentialJavaType.modifiers) -> emptyList()
+                                        else -> listOf(potentialJavaType)
+                                    }
+
+                                fun List<Class<out Any>>.named() = filter { subtype ->
+                                    val subtypeName =
+                                        if (parameter.typeName.contains('.')) subtype.name else subtype.simpleName
+                                    parameter.typeName == subtypeName
+                                }
                                 val compatibleSubtypes =
-                                    subtypes.filter { subtype ->
-                                        val subtypeName =
-                                            if (parameter.typeName.contains('.')) subtype.name else subtype.simpleName
-                                        parameter.typeName == subtypeName
+                                    (ClassPathScanner.subTypesOf(potentialJavaType) + itself).named().ifEmpty {
+                                        // Unknown to the type indexes: search the whole classpath
+                                        ClassPathScanner.allSubTypesOf(potentialJavaType).named()
                                     }
                                 when {
                                     compatibleSubtypes.isEmpty() -> {
@@ -16,18 +16,32 @@ internal data class TypeSearch<out T>(val typeName: String, val targetType: Clas
     private val packageName: String? = typeName.substringBeforeLast('.', "").takeIf { it.isNotEmpty() }
     private val isQualified get() = packageName != null
 
-    val subTypes: Collection<Class<out T>> by lazy {
+    /**
+     * The types compatible with [targetType], as known by the type indexes if they cover it.
+     */
+    val subTypes: Collection<Class<out T>> by lazy { compatibleTypes(all = false) }
+
+    /*
+     * Types declared in classpath elements without a type index: only searched if the name is unknown to the index.
+     */
+    private val allSubTypes: Collection<Class<out T>> by lazy { compatibleTypes(all = true) }
+
+    private fun search(all: Boolean, vararg inPackage: String): List<Class<out T>> = when {
+        all -> ClassPathScanner.allSubTypesOf(targetType, *inPackage)
+        else -> ClassPathScanner.subTypesOf(targetType, *inPackage)
+    }
+
+    private fun compatibleTypes(all: Boolean): Collection<Class<out T>> {
         val compatibleTypes: List<Class<out T>> =
             when (packageName) {
                 null ->
                     when {
-                        targetType.packageName.startsWith("it.unibo.alchemist") ->
-                            ClassPathScanner.subTypesOf(targetType, "it.unibo.alchemist")
-                        else -> ClassPathScanner.subTypesOf(targetType)
+                        targetType.packageName.startsWith("it.unibo.alchemist") -> search(all, "it.unibo.alchemist")
+                        else -> search(all)
                     }
-                else -> ClassPathScanner.subTypesOf(targetType, packageName)
+                else -> search(all, packageName)
             }
-        when {
+        return when {
             // The target type cannot be instanced, just return its concrete subclasses
             Modifier.isAbstract(targetType.modifiers) -> compatibleTypes
             // The target type can be instanced, return it and all its concrete subclasses
@@ -43,8 +57,11 @@ internal data class TypeSearch<out T>(val typeName: String, val targetType: Clas
         subtypes(ignoreCase = true)
     }
 
+    private fun Collection<Class<out T>>.named(ignoreCase: Boolean) =
+        filter { typeName.equals(if (isQualified) it.name else it.simpleName, ignoreCase = ignoreCase) }
+
     private fun subtypes(ignoreCase: Boolean) =
-        subTypes.filter { typeName.equals(if (isQualified) it.name else it.simpleName, ignoreCase = ignoreCase) }
+        subTypes.named(ignoreCase).ifEmpty { allSubTypes.named(ignoreCase) }
 
     companion object {
         inline fun <reified T> typeNamed(name: String) = TypeSearch(name, T::class.java)
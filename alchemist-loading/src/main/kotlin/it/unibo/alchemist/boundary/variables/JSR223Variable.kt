@@ -11,23 +11,38 @@ package it.unibo.alchemist.boundary.variables
 
 import it.unibo.alchemist.boundary.DependentVariable
 import it.unibo.alchemist.boundary.loader.syntax.AlchemistYamlSyntax
+import java.util.Queue
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 import javax.script.Bindings
+import javax.script.Compilable
+import javax.script.CompiledScript
+import javax.script.ScriptEngine
 import javax.script.ScriptEngineManager
 import javax.script.ScriptException
 import javax.script.SimpleBindings
 import kotlin.reflect.jvm.jvmName
-import kotlin.time.Duration.Companion.milliseconds
-import kotlinx.coroutines.TimeoutCancellationException
-import kotlinx.coroutines.runBlocking
-import kotlinx.coroutines.withTimeout
 
 /**
  * This variable loads any [JSR-233](https://archive.is/PGdk8) language available in the classpath.
  *
+ * Scripts are evaluated on a shared pool of daemon threads, each evaluation borrowing an engine of its own:
+ * parallel evaluations do not contend for a single interpreter.
+ * Engines are created and the script is compiled (if the language supports [Compilable]) by the calling thread,
+ * before the [timeout] starts, and are then reused: at most as many idle engines as available processors are kept.
+ *
  * @constructor builds a new JSR223Variable given a language name and a script.
  * @property language the language name, file extension, or mime type
  * @property formula the script that will get interpreted
  * @property timeout how long should the interpreter be allowed to compute before giving up, in ms. Defaults to 1000ms
+ * @property pure whether the [formula] result only depends on the values of the variables it mentions.
+ * Pure formulas are evaluated once per combination of such values, and their results are reused. Defaults to false.
  */
 data class JSR223Variable
 @JvmOverloads
@@ -35,25 +50,31 @@ constructor(
     val language: String,
     val formula: String,
     val timeout: Long = 1000,
+    val pure: Boolean = false,
 ) : DependentVariable<Any?> {
-    private val engine by lazy {
-        with(ScriptEngineManager()) {
-            getEngineByName(language)
-                ?: getEngineByExtension(language)
-                ?: getEngineByMimeType(language)
-                ?: throw IllegalArgumentException(
-                    "$language is not an available language. Your environment supports the following languages: ${
-                        engineFactories.joinToString(
-                            separator = System.lineSeparator(),
-                            prefix = System.lineSeparator(),
-                        ) {
-                            " - ${it.languageName}, " +
-                                "aka ${it.extensions + it.mimeTypes} " +
-                                "(${it.languageVersion} on ${it.engineName} ${it.engineVersion})"
-                        }
-                    }",
-                )
+    @Transient
+    @Volatile
+    private var evaluators: Queue<Evaluator>? = null
+
+    @Transient
+    @Volatile
+    private var results: MutableMap<Map<String, Any?>, Memoized>? = null
+
+    private val idleEvaluators: Queue<Evaluator>
+        get() = evaluators ?: synchronized(this) {
+            evaluators ?: ConcurrentLinkedQueue<Evaluator>().also { evaluators = it }
+        }
+
+    private val memoized: MutableMap<Map<String, Any?>, Memoized>
+        get() = results ?: synchronized(this) {
+            results ?: ConcurrentHashMap<Map<String, Any?>, Memoized>().also { results = it }
         }
+
+    /*
+     * Identifiers appearing in the formula: a superset of the variables the script can read.
+     */
+    private val identifiers: Set<String> by lazy {
+        IDENTIFIER.findAll(formula).map { it.value }.toSet()
     }
 
     /**
@@ -67,19 +88,30 @@ constructor(
      * if the value can not be computed, e.g. because there are
      * unassigned required variables
      */
-    override fun getWith(variables: Map<String, Any?>): Any? = synchronized(engine) {
-        runCatching {
-            runBlocking {
-                withTimeout(timeout.milliseconds) {
-                    engine.eval(formula, variables.asBindings())
-                }
-            }
-        }.getOrElse { cause ->
+    override fun getWith(variables: Map<String, Any?>): Any? = when {
+        pure -> {
+            val key = variables.filterKeys { it in identifiers }
+            (memoized[key] ?: Memoized(evaluate(variables)).also { memoized.putIfAbsent(key, it) }).value
+        }
+        else -> evaluate(variables)
+    }
+
+    private fun evaluate(variables: Map<String, Any?>): Any? {
+        val bindings = variables.asBindings()
+        return runCatching {
+            val evaluator = idleEvaluators.poll() ?: Evaluator()
+            val evaluation = evaluationPool.submit(Callable { evaluator.eval(bindings) })
+            runCatching { evaluation.get(timeout, TimeUnit.MILLISECONDS) }
+                .onSuccess { release(evaluator) }
+                .onFailure { evaluation.cancel(true) }
+                .getOrThrow()
+        }.getOrElse { failure ->
+            val cause = if (failure is ExecutionException) failure.cause ?: failure else failure
             val whatHappened = "A $language script evaluation failed"
             val whyHappened =
                 when (cause) {
                     is ScriptException -> "due to an error in the script: ${cause.message}"
-                    is TimeoutCancellationException ->
+                    is TimeoutException ->
                         """
                                 because it reached its ${timeout}ms timeout.
                                 This is usually a sign that something is looping.
@@ -98,4 +130,60 @@ constructor(
     }
 
     private fun Map<String, Any?>.asBindings(): Bindings = SimpleBindings(toMutableMap())
+
+    /*
+     * Engines whose evaluation failed or timed out are discarded, as their state is unknown.
+     */
+    private fun release(evaluator: Evaluator) {
+        val idle = idleEvaluators
+        if (idle.size < MAX_IDLE_EVALUATORS) {
+            idle.offer(evaluator)
+        }
+    }
+
+    /*
+     * An engine used by one evaluation at a time, along with the compiled formula
+     * (if the engine supports compilation).
+     */
+    private inner class Evaluator {
+        private val engine: ScriptEngine = engineFor(language)
+        private val compiled: CompiledScript? = (engine as? Compilable)?.compile(formula)
+
+        fun eval(bindings: Bindings): Any? = compiled.let { script ->
+            if (script == null) engine.eval(formula, bindings) else script.eval(bindings)
+        }
+    }
+
+    private class Memoized(val value: Any?)
+
+    private companion object {
+        private const val serialVersionUID = 1L
+
+        private val IDENTIFIER = Regex("[\\p{L}_$][\\p{L}\\p{N}_$]*")
+
+        private val MAX_IDLE_EVALUATORS = Runtime.getRuntime().availableProcessors()
+
+        private val evaluationPool: ExecutorService =
+            Executors.newCachedThreadPool { task ->
+                Thread(task, "alchemist-jsr223-evaluator").apply { isDaemon = true }
+            }
+
+        private fun engineFor(language: String): ScriptEngine = with(ScriptEngineManager()) {
+            getEngineByName(language)
+                ?: getEngineByExtension(language)
+                ?: getEngineByMimeType(language)
+                ?: throw IllegalArgumentException(
+                    "$language is not an available language. Your environment supports the following languages: ${
+                        engineFactories.joinToString(
+                            separator = System.lineSeparator(),
+                            prefix = System.lineSeparator(),
+                        ) {
+                            " - ${it.languageName}, " +
+                                "aka ${it.extensions + it.mimeTypes} " +
+                                "(${it.languageVersion} on ${it.engineName} ${it.engineVersion})"
+                        }
+                    }",
+                )
+        }
+    }
 }
@@ -0,0 +1,23 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.test
+
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.NodeProperty
+import it.unibo.alchemist.model.properties.AbstractNodeProperty
+
+/**
+ * A property counting how many times it has been cloned, telling apart nodes built from scratch from cloned ones.
+ */
+class CloneCountingProperty<T>
+@JvmOverloads
+constructor(node: Node<T>, val clones: Int = 0) : AbstractNodeProperty<T>(node) {
+    override fun cloneOnNewNode(node: Node<T>): NodeProperty<T> = CloneCountingProperty(node, clones + 1)
+}
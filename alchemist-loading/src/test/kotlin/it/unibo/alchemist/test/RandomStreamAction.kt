@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.test
+
+import it.unibo.alchemist.model.Action
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.model.actions.AbstractLocalAction
+import org.apache.commons.math3.random.RandomGenerator
+
+/**
+ * An action doing nothing, exposing the [randomGenerator] injected by the loader.
+ */
+class RandomStreamAction<T>(node: Node<T>, val randomGenerator: RandomGenerator) : AbstractLocalAction<T>(node) {
+    override fun cloneAction(node: Node<T>, reaction: Reaction<T>): Action<T> =
+        RandomStreamAction(node, randomGenerator)
+
+    override fun execute() = Unit
+}
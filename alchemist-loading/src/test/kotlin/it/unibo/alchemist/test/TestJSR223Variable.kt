@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.test
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import it.unibo.alchemist.boundary.variables.JSR223Variable
+import java.util.concurrent.TimeoutException
+import kotlin.concurrent.thread
+
+class TestJSR223Variable :
+    StringSpec({
+        "scripts should be evaluated concurrently" {
+            val variable = JSR223Variable("groovy", "a * 2")
+            val results = IntArray(8)
+            (0 until results.size)
+                .map { index -> thread { results[index] = variable.getWith(mapOf("a" to index)) as Int } }
+                .forEach { it.join() }
+            results.toList() shouldBe List(results.size) { it * 2 }
+        }
+        "pure scripts should be evaluated once per combination of the variables they use" {
+            val variable = JSR223Variable("groovy", "new Object().hashCode() + a", pure = true)
+            val first = variable.getWith(mapOf("a" to 1, "unused" to 1))
+            variable.getWith(mapOf("a" to 1, "unused" to 2)) shouldBe first
+            variable.getWith(mapOf("a" to 2, "unused" to 1)) shouldNotBe first
+        }
+        "looping scripts should be interrupted" {
+            val failure =
+                shouldThrow<IllegalArgumentException> {
+                    JSR223Variable("groovy", "while (true) { Thread.sleep(10) }", timeout = 100).getWith(emptyMap())
+                }
+            (failure.cause is TimeoutException) shouldBe true
+        }
+    })
@@ -16,6 +16,7 @@ import io.kotest.matchers.collections.shouldContainAll
 import io.kotest.matchers.ints.shouldBeExactly
 import io.kotest.matchers.ints.shouldBeGreaterThan
 import io.kotest.matchers.longs.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
 import it.unibo.alchemist.boundary.LoadAlchemist
 import it.unibo.alchemist.boundary.OutputMonitor
 import it.unibo.alchemist.boundary.exporters.GlobalExporter
@@ -25,6 +26,7 @@ import it.unibo.alchemist.model.Actionable
 import it.unibo.alchemist.model.Environment
 import it.unibo.alchemist.model.Position
 import it.unibo.alchemist.model.Time
+import org.bson.Document
 import org.junit.jupiter.api.Assertions.assertNotNull
 import org.kaikikm.threadresloader.ResourceLoader
 
@@ -73,4 +75,17 @@ class TestMongoExporter<T, P : Position<P>> :
                 }
             }
         }
+
+        "per-node values are grouped into arrays in columnar documents" {
+            val document = Document()
+            MongoDBExporter.appendColumnar(
+                document,
+                mapOf("time" to 1.0, "value@3" to 0.5, "value@1" to 2.0, "other@0" to "a", "mail@domain" to 1),
+            )
+            document.keys.toList() shouldBe
+                listOf("time", "mail@domain", "value", "value@node-id", "other", "other@node-id")
+            document["value"] shouldBe listOf(0.5, 2.0)
+            document["value@node-id"] shouldBe listOf(3, 1)
+            document["other"] shouldBe listOf("a")
+        }
     })
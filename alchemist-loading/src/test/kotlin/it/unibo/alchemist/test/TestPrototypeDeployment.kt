@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.test
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import it.unibo.alchemist.boundary.LoadAlchemist
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.Node.Companion.asProperty
+import it.unibo.alchemist.model.molecules.SimpleMolecule
+import it.unibo.alchemist.model.nodes.GenericNode
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.model.protelis.actions.RunProtelisProgram
+import org.kaikikm.threadresloader.ResourceLoader
+
+class TestPrototypeDeployment :
+    StringSpec({
+        "cloning a prototype should produce the same nodes as building them one by one" {
+            val environment =
+                LoadAlchemist
+                    .from(ResourceLoader.getResource("testPrototypeDeployment.yml"))
+                    .getWith<Any, Euclidean2DPosition>(emptyMap<String, Any>())
+                    .environment
+            environment.nodes.forEach { it.javaClass shouldBe GenericNode::class.java }
+            environment.nodes.map { it.id }.sorted() shouldBe (0 until environment.nodeCount).toList()
+            val (cloned, built) =
+                environment.nodes
+                    .sortedBy { it.id }
+                    .groupBy { environment.getPosition(it).x < 15 }
+                    .let { checkNotNull(it[true]) to checkNotNull(it[false]) }
+            built.size shouldBe cloned.size
+            // Only the first node of the prototype deployment is built, the others are clones: no fallback happened
+            cloned.map { it.clones } shouldBe cloned.indices.toList()
+            built.filter { it.clones != 0 }.shouldBeEmpty()
+            val builtNodes =
+                built.associateBy { node ->
+                    environment.getPosition(node).let { Euclidean2DPosition(it.x - 20, it.y) }
+                }
+            cloned.forEach { node ->
+                val position = environment.getPosition(node)
+                val twin = checkNotNull(builtNodes[position])
+                node.contents shouldBe twin.contents
+                node.contains(SimpleMolecule("left")) shouldBe (position.x <= 5.5)
+                node.programs shouldBe twin.programs
+                node.reactions.forEach { reaction ->
+                    reaction.node shouldBeSameInstanceAs node
+                    reaction.actions.filterIsInstance<RunProtelisProgram<*>>().forEach {
+                        it.device.node shouldBeSameInstanceAs node
+                    }
+                }
+            }
+        }
+    })
+
+private val Node<Any>.clones: Int get() = asProperty<Any, CloneCountingProperty<Any>>().clones
+
+/*
+ * Reactions, described by their type, rate, and actions (programs by their source).
+ */
+private val Node<Any>.programs: List<Triple<Class<*>, Double, List<Any>>> get() =
+    reactions.map { reaction ->
+        Triple(
+            reaction.javaClass,
+            reaction.rate,
+            reaction.actions.map { (it as? RunProtelisProgram<*>)?.originalProgram ?: it.javaClass },
+        )
+    }
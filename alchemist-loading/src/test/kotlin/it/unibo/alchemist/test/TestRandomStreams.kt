@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.test
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.ints.shouldBeGreaterThan
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import it.unibo.alchemist.boundary.LoadAlchemist
+import it.unibo.alchemist.model.Environment
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import it.unibo.alchemist.util.SplitMix64RandomGenerator
+import java.util.Collections
+import java.util.IdentityHashMap
+import org.apache.commons.math3.random.RandomGenerator
+import org.kaikikm.threadresloader.ResourceLoader
+
+class TestRandomStreams :
+    StringSpec({
+        "each reaction should get its own random stream" {
+            val generators = loadStreams().flatten()
+            generators.forEach { it.shouldBeInstanceOf<SplitMix64RandomGenerator>() }
+            val instances = Collections.newSetFromMap(IdentityHashMap<RandomGenerator, Boolean>())
+            instances.addAll(generators)
+            instances shouldHaveSize generators.size
+            generators.map { it.nextLong() }.distinct() shouldHaveSize generators.size
+        }
+
+        "prototype deployments should build each node with its own streams" {
+            val streams = loadStreams()
+            streams.size shouldBeGreaterThan 1
+            streams.forEach { it shouldHaveSize 2 }
+            streams.map { node -> node.map { it.nextLong() } }.distinct() shouldHaveSize streams.size
+        }
+
+        "reloading should reproduce the same streams" {
+            fun draws() = loadStreams().map { node -> node.map { stream -> List(DRAWS) { stream.nextLong() } } }
+            draws() shouldBe draws()
+        }
+    })
+
+private const val DRAWS = 10
+
+/*
+ * The random generators of the programs, grouped by node, sorted by node id.
+ */
+private fun loadStreams(): List<List<RandomGenerator>> {
+    val environment: Environment<Any, Euclidean2DPosition> =
+        LoadAlchemist
+            .from(ResourceLoader.getResource("testRandomStreams.yml"))
+            .getWith<Any, Euclidean2DPosition>(emptyMap<String, Any>())
+            .environment
+    return environment.nodes.sortedBy { it.id }.map { node ->
+        node.reactions.flatMap { it.actions }.filterIsInstance<RandomStreamAction<*>>().map { it.randomGenerator }
+    }
+}
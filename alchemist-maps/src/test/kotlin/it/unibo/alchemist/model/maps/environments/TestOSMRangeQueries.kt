@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.maps.environments
+
+import io.kotest.core.spec.style.StringSpec
+import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
+import it.unibo.alchemist.model.GeoPosition
+import it.unibo.alchemist.model.Node
+import it.unibo.alchemist.model.SupportedIncarnations
+import it.unibo.alchemist.model.linkingrules.NoLinks
+import it.unibo.alchemist.model.nodes.GenericNode
+
+class TestOSMRangeQueries :
+    StringSpec({
+        "range queries on maps should take ranges in meters" {
+            val environment =
+                OSMEnvironment(
+                    SupportedIncarnations.get<Any, GeoPosition>("protelis").orElseThrow(),
+                    "maps/cesena.pbf",
+                    false,
+                )
+            environment.linkingRule = NoLinks()
+
+            fun nodeAt(latitude: Double, longitude: Double): Node<Any> =
+                object : GenericNode<Any>(environment) {
+                    override fun createT() = "Nothing"
+                }.also { environment.addNode(it, environment.makePosition(latitude, longitude)) }
+            val center = nodeAt(LATITUDE, LONGITUDE)
+            // About 55 meters north
+            val north = nodeAt(LATITUDE + 0.0005, LONGITUDE)
+            // About 400 meters east
+            val east = nodeAt(LATITUDE, LONGITUDE + 0.005)
+            // About 5 kilometers south-west
+            nodeAt(LATITUDE - 0.03, LONGITUDE - 0.04)
+            val position = environment.getPosition(center)
+            environment.getNodesWithinRange(position, 100.0) shouldContainExactlyInAnyOrder listOf(center, north)
+            environment.getNodesWithinRange(position, 1000.0) shouldContainExactlyInAnyOrder
+                listOf(center, north, east)
+            environment.getNodesWithinRange(center, 1000.0) shouldContainExactlyInAnyOrder listOf(north, east)
+        }
+    })
+
+private const val LATITUDE = 44.139169
+private const val LONGITUDE = 12.237816
@@ -20,7 +20,6 @@ dependencies {
     implementation(alchemist("implementationbase"))
     implementation(libs.caffeine)
     implementation(libs.jgrapht.core)
-    implementation(libs.rtree)
     testImplementation(alchemist("test"))
     testImplementation(alchemist("incarnation-protelis"))
 }
@@ -29,6 +29,10 @@ import java.util.List;
 
 /**
  * This environment loads an image from the file system, and marks as obstacles all the pixels of a given color.
+ * Obstacles are decomposed into {@link RectObstacle2D}s. Optionally, the image can also be kept as a bit-packed
+ * occupancy grid, which is then used to check positions and movements in place of the rectangles:
+ * on detailed maps, this is much faster than searching through tens of thousands of rectangles.
+ * The occupancy grid is discarded (and the rectangles get used) if obstacles are added or removed.
  *
  * @param <T> concentration type
  */
@@ -54,6 +58,9 @@ public class ImageEnvironment<T> extends Continuous2DObstacles<T> {
     @Serial
     private static final long serialVersionUID = 7820304584505654721L;
 
+    @Nullable
+    private OccupancyGrid occupancyGrid;
+
     /**
      * @param incarnation the incarnation to be used.
      * @param path
@@ -133,6 +140,40 @@ public class ImageEnvironment<T> extends Continuous2DObstacles<T> {
             final double zoom,
             final double dx,
             final double dy
+    ) throws IOException {
+        this(incarnation, obstacleColor, path, zoom, dx, dy, false);
+    }
+
+    /**
+     * @param incarnation the incarnation to be used.
+     * @param obstacleColor
+     *            integer representing the RGB color to use as color for the
+     *            obstacle detection in image. Encoding follows common Java
+     *            rules: {@link Color#getRGB()}
+     * @param path
+     *            the path where to load the image. Must be a local file path.
+     * @param zoom
+     *            zoom level
+     * @param dx
+     *            delta X position
+     * @param dy
+     *            delta Y position
+     * @param occupancyGrid
+     *            if true, positions and movements are checked against a
+     *            bit-packed occupancy grid of the image, rather than against
+     *            the rectangles the obstacles are decomposed into
+     * @throws IOException
+     *             if image file cannot be found, or if you disconnected your
+     *             hard drive while this method was running.
+     */
+    public ImageEnvironment(
+            final Incarnation<T, Euclidean2DPosition> incarnation,
+            final int obstacleColor,
+            final String path,
+            final double zoom,
+            final double dx,
+            final double dy,
+            final boolean occupancyGrid
     ) throws IOException {
         super(incarnation);
         InputStream resource = ResourceLoader.getResourceAsStream(path);
@@ -148,6 +189,42 @@ public class ImageEnvironment<T> extends Continuous2DObstacles<T> {
         findMarkedRegions(obstacleColor, img).forEach(obstacle ->
             addObstacle(mapToEnv(obstacle, zoom, dx, dy, img.getHeight()))
         );
+        if (occupancyGrid) {
+            this.occupancyGrid = new OccupancyGrid(img, obstacleColor, zoom, dx, dy);
+        }
+    }
+
+    @Override
+    public void addObstacle(final RectObstacle2D<Euclidean2DPosition> obstacle) {
+        occupancyGrid = null;
+        super.addObstacle(obstacle);
+    }
+
+    @Override
+    public boolean removeObstacle(final RectObstacle2D<Euclidean2DPosition> obstacle) {
+        occupancyGrid = null;
+        return super.removeObstacle(obstacle);
+    }
+
+    @Override
+    public boolean intersectsObstacle(final Euclidean2DPosition start, final Euclidean2DPosition end) {
+        return occupancyGrid == null
+            ? super.intersectsObstacle(start, end)
+            : occupancyGrid.intersects(start.getX(), start.getY(), end.getX(), end.getY());
+    }
+
+    @Override
+    protected boolean isAllowed(final Euclidean2DPosition position) {
+        return occupancyGrid == null
+            ? super.isAllowed(position)
+            : !occupancyGrid.isOccupied(position.getX(), position.getY());
+    }
+
+    @Override
+    protected Euclidean2DPosition next(final double curX, final double curY, final double newX, final double newY) {
+        return occupancyGrid == null
+            ? super.next(curX, curY, newX, newY)
+            : occupancyGrid.next(curX, curY, newX, newY);
     }
 
     /**
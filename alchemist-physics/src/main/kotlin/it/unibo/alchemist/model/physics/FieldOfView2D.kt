@@ -26,5 +26,17 @@ import it.unibo.alchemist.model.physics.environments.Physics2DEnvironment
  * @param aperture
  *          the amplitude of the field of view in radians
  */
-class FieldOfView2D<T>(environment: Physics2DEnvironment<T>, owner: Node<T>, distance: Double, aperture: Double) :
-    InfluenceSphere2D<T>(environment, owner, environment.shapeFactory.circleSector(distance, aperture, 0.0))
+class FieldOfView2D<T>(
+    private val environment: Physics2DEnvironment<T>,
+    private val owner: Node<T>,
+    private val distance: Double,
+    private val aperture: Double,
+) : InfluenceSphere2D<T>(environment, owner, environment.shapeFactory.circleSector(distance, aperture, 0.0)) {
+    /**
+     * Relies on [Physics2DEnvironment.getNodesWithinSector], which environments can implement without
+     * intersecting shapes.
+     */
+    override fun influentialNodes(): List<Node<T>> = environment
+        .getNodesWithinSector(environment.getPosition(owner), environment.getHeading(owner), distance, aperture)
+        .minusElement(owner)
+}
@@ -9,21 +9,17 @@
 
 package it.unibo.alchemist.model.physics.environments
 
-import com.github.davidmoten.rtree.Entry
-import com.github.davidmoten.rtree.RTree
-import com.github.davidmoten.rtree.geometry.Geometries
-import com.github.davidmoten.rtree.geometry.Rectangle
-import com.github.davidmoten.rtree.internal.EntryDefault
 import it.unibo.alchemist.model.Incarnation
 import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.obstacles.RectObstacle2D
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
-import java.io.ObjectInputStream
-import java.io.ObjectOutputStream
 import java.io.Serial
+import java.util.Collections
 
 /**
  * A 2D continuous environment that supports rectangular obstacles and prevents nodes from moving through them.
+ * Obstacles are expected to change rarely: they are kept in a static, packed spatial index,
+ * which gets rebuilt lazily after an obstacle is added or removed.
  *
  * @param T the concentration type
  * @param incarnation the incarnation used to build nodes and concentrations
@@ -36,18 +32,67 @@ open class Continuous2DObstacles<T>(incarnation: Incarnation<T, Euclidean2DPosit
         private const val TOLERANCE_MULTIPLIER = 0.01
 
         @Serial
-        private const val serialVersionUID = 69931743897405107L
+        private const val serialVersionUID = 69931743897405108L
     }
 
-    private var rtree: RTree<RectObstacle2D<Euclidean2DPosition>, Rectangle> = RTree.create()
+    private val obstacleList: MutableList<RectObstacle2D<Euclidean2DPosition>> = ArrayList()
+
+    @Transient
+    private var obstacleIndex: PackedObstacleIndex? = null
+
+    /*
+     * Immutable copy of the obstacles, handed to callers that may iterate it on other threads
+     * (e.g., the GUI) while obstacles get added or removed.
+     */
+    @Transient
+    @Volatile
+    private var obstacleSnapshot: List<RectObstacle2D<Euclidean2DPosition>>? = null
+
+    private val index: PackedObstacleIndex get() =
+        obstacleIndex ?: PackedObstacleIndex(obstacleList).also { obstacleIndex = it }
 
     override fun addObstacle(obstacle: RectObstacle2D<Euclidean2DPosition>) {
-        rtree = rtree.add(obstacle, toGeometry(obstacle))
+        obstacleList.add(obstacle)
+        obstaclesChanged()
         includeObject(obstacle.minX, obstacle.maxX, obstacle.minY, obstacle.maxY)
     }
 
     override val obstacles: List<RectObstacle2D<Euclidean2DPosition>> get() =
-        rtree.entries().map(Entry<RectObstacle2D<Euclidean2DPosition>, Rectangle>::value).toList().toBlocking().single()
+        obstacleSnapshot ?: Collections.unmodifiableList(ArrayList(obstacleList)).also { obstacleSnapshot = it }
+
+    private fun obstaclesChanged() {
+        obstacleIndex = null
+        obstacleSnapshot = null
+    }
+
+    /**
+     * Visits, without allocating intermediate collections, the obstacles whose bounding box intersects the circle
+     * of the given [range] centered in ([centerx], [centery]).
+     * The visit stops as soon as the [visitor] returns false.
+     */
+    fun forEachObstacleInRange(
+        centerx: Double,
+        centery: Double,
+        range: Double,
+        visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>,
+    ) {
+        index.visitIntersectingCircle(centerx, centery, range, visitor)
+    }
+
+    /**
+     * Visits, without allocating intermediate collections, the obstacles whose bounding box intersects the segment
+     * from ([startx], [starty]) to ([endx], [endy]).
+     * The visit stops as soon as the [visitor] returns false.
+     */
+    fun forEachObstacleOnSegment(
+        startx: Double,
+        starty: Double,
+        endx: Double,
+        endy: Double,
+        visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>,
+    ) {
+        index.visitIntersectingSegment(startx, starty, endx, endy, visitor)
+    }
 
     override fun getObstaclesInRange(
         center: Euclidean2DPosition,
@@ -58,30 +103,34 @@ open class Continuous2DObstacles<T>(incarnation: Incarnation<T, Euclidean2DPosit
         centerx: Double,
         centery: Double,
         range: Double,
-    ): List<RectObstacle2D<Euclidean2DPosition>> = rtree.search(
-        Geometries.circle(centerx, centery, range),
-    ).map(Entry<RectObstacle2D<Euclidean2DPosition>, Rectangle>::value).toList().toBlocking().single()
+    ): List<RectObstacle2D<Euclidean2DPosition>> {
+        val result = ArrayList<RectObstacle2D<Euclidean2DPosition>>()
+        forEachObstacleInRange(centerx, centery, range) { result.add(it) }
+        return result
+    }
 
     override fun hasMobileObstacles(): Boolean = false
 
     override fun intersectsObstacle(start: Euclidean2DPosition, end: Euclidean2DPosition): Boolean {
         val (sx, sy) = start
         val (ex, ey) = end
-        return query(sx, sy, ex, ey, 0.0).any { obstacle ->
+        var intersects = false
+        forEachObstacleOnSegment(sx, sy, ex, ey) { obstacle ->
             val coords = obstacle.nearestIntersection(start, end).coordinates
-            coords[0] != ex || coords[1] != ey || obstacle.contains(coords[0], coords[1])
+            intersects = coords[0] != ex || coords[1] != ey || obstacle.contains(coords[0], coords[1])
+            !intersects
         }
+        return intersects
     }
 
     override fun isAllowed(position: Euclidean2DPosition): Boolean =
-        rtree.search(Geometries.point(position.x, position.y)).isEmpty.toBlocking().single()
+        index.visitContaining(position.x, position.y) { false }
 
     override fun next(current: Euclidean2DPosition, desired: Euclidean2DPosition): Euclidean2DPosition =
         next(current.x, current.y, desired.x, desired.y)
 
     override fun next(curX: Double, curY: Double, newX: Double, newY: Double): Euclidean2DPosition {
-        val obstacles = query(curX, curY, newX, newY, TOLERANCE_MULTIPLIER).toMutableList()
-        if (obstacles.isEmpty()) return Euclidean2DPosition(newX, newY)
+        val obstacles = query(curX, curY, newX, newY, TOLERANCE_MULTIPLIER) ?: return Euclidean2DPosition(newX, newY)
 
         var (fx, fy) = newX to newY
         var fxCache: Double
@@ -105,13 +154,16 @@ open class Continuous2DObstacles<T>(incarnation: Incarnation<T, Euclidean2DPosit
         return Euclidean2DPosition(fx, fy)
     }
 
+    /*
+     * The returned list is mutable, and it is allocated only if some obstacle is found: null is returned otherwise.
+     */
     private fun query(
         ox: Double,
         oy: Double,
         nx: Double,
         ny: Double,
         tolerance: Double,
-    ): List<RectObstacle2D<Euclidean2DPosition>> {
+    ): MutableList<RectObstacle2D<Euclidean2DPosition>>? {
         var (minx, miny) = minOf(ox, nx) to minOf(oy, ny)
         var (maxx, maxy) = maxOf(ox, nx) to maxOf(oy, ny)
         val dx = (maxx - minx) * tolerance
@@ -120,41 +172,21 @@ open class Continuous2DObstacles<T>(incarnation: Incarnation<T, Euclidean2DPosit
         maxx += dx
         miny -= dy
         maxy += dy
-        return rtree.search(Geometries.rectangle(minx, miny, maxx, maxy))
-            .map(Entry<RectObstacle2D<Euclidean2DPosition>, Rectangle>::value)
-            .toList()
-            .toBlocking()
-            .single()
+        var result: MutableList<RectObstacle2D<Euclidean2DPosition>>? = null
+        index.visitIntersectingRectangle(minx, miny, maxx, maxy) { obstacle ->
+            val found = result ?: ArrayList<RectObstacle2D<Euclidean2DPosition>>().also { result = it }
+            found.add(obstacle)
+        }
+        return result
     }
 
-    override fun removeObstacle(obstacle: RectObstacle2D<Euclidean2DPosition>): Boolean {
-        val initialSize = rtree.size()
-        rtree = rtree.delete(obstacle, toGeometry(obstacle))
-        return rtree.size() == initialSize - 1
-    }
+    override fun removeObstacle(obstacle: RectObstacle2D<Euclidean2DPosition>): Boolean =
+        obstacleList.remove(obstacle).also { removed ->
+            if (removed) {
+                obstaclesChanged()
+            }
+        }
 
     override fun moveNodeToPosition(node: Node<T>, newPosition: Euclidean2DPosition) =
         super<AbstractLimitedContinuous2D>.moveNodeToPosition(node, newPosition)
-
-    @Serial
-    private fun writeObject(o: ObjectOutputStream) {
-        o.defaultWriteObject()
-        o.writeObject(obstacles)
-    }
-
-    @Serial
-    private fun readObject(o: ObjectInputStream) {
-        o.defaultReadObject()
-        rtree = RTree.create()
-        @Suppress("UNCHECKED_CAST")
-        val obstacles = o.readObject() as List<RectObstacle2D<Euclidean2DPosition>>
-        rtree = RTree.create<RectObstacle2D<Euclidean2DPosition>, Rectangle>().add(
-            obstacles.parallelStream()
-                .map { EntryDefault(it, toGeometry(it)) }
-                .toList(),
-        )
-    }
-
-    private fun toGeometry(o: RectObstacle2D<Euclidean2DPosition>): Rectangle =
-        Geometries.rectangle(o.minX, o.minY, o.maxX, o.maxY)
 }
@@ -26,6 +26,12 @@ import it.unibo.alchemist.model.geometry.Segment2DImpl
 import it.unibo.alchemist.model.geometry.shapes.AdimensionalShape
 import it.unibo.alchemist.model.physics.properties.AreaProperty
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import kotlin.math.IEEErem
+import kotlin.math.PI
+import kotlin.math.abs
+import kotlin.math.asin
+import kotlin.math.atan2
+import kotlin.math.hypot
 
 /**
  * Implementation of [Physics2DEnvironment].
@@ -59,6 +65,35 @@ open class ContinuousPhysics2DEnvironment<T>(incarnation: Incarnation<T, Euclide
                 .filter { shape.intersects(getShape(it)) }
     }
 
+    /**
+     * Sectors are tested analytically against the nodes found by a single range query,
+     * approximating node shapes with their bounding circle, with no shape intersection.
+     */
+    override fun getNodesWithinSector(
+        vertex: Euclidean2DPosition,
+        heading: Euclidean2DPosition,
+        radius: Double,
+        aperture: Double,
+    ): List<Node<T>> {
+        if (radius + largestShapeDiameter / 2 <= 0) {
+            return emptyList()
+        }
+        val direction = heading.asAngle
+        val halfAperture = aperture / 2
+        return getNodesWithinRange(vertex, radius + largestShapeDiameter / 2).filter { node ->
+            val nodeRadius = shapefulNodes[node].radius
+            val position = getPosition(node)
+            val dx = position.x - vertex.x
+            val dy = position.y - vertex.y
+            val distance = hypot(dx, dy)
+            when {
+                distance > radius + nodeRadius -> false
+                distance <= nodeRadius || halfAperture >= PI -> true
+                else -> abs((atan2(dy, dx) - direction).IEEErem(2 * PI)) <= halfAperture + asin(nodeRadius / distance)
+            }
+        }
+    }
+
     override fun getHeading(node: Node<T>) = nodeToHeading.getOrPut(node) { defaultHeading }
 
     override fun setHeading(node: Node<T>, direction: Euclidean2DPosition) {
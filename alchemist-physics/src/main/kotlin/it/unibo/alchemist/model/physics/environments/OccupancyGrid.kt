@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.physics.environments
+
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import java.awt.image.BufferedImage
+import java.io.Serializable
+import kotlin.math.ceil
+import kotlin.math.floor
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.nextTowards
+
+/**
+ * A bit-packed occupancy grid, where every pixel of an [image] with the provided [color] is an obstacle.
+ * Pixel (x, y) of the image covers the square from (x * [zoom] + [dx], (h - y - 1) * [zoom] + [dy])
+ * to ((x + 1) * [zoom] + [dx], (h - y) * [zoom] + [dy]) of the environment, h being the height of the image,
+ * consistently with the obstacles built by [ImageEnvironment].
+ * Obstacle squares are closed: positions on their borders are not allowed.
+ *
+ * Besides the full resolution grid, a mipmap is kept where each level halves the resolution of the previous one,
+ * and a cell is marked if any of the cells it covers is.
+ * Segments are marched through the grid one empty block at a time, skipping the largest block that contains
+ * no obstacle, so that long movements across free space only visit a few cells.
+ */
+internal class OccupancyGrid(
+    image: BufferedImage,
+    color: Int,
+    private val zoom: Double,
+    private val dx: Double,
+    private val dy: Double,
+) : Serializable {
+    private val width = image.width
+    private val height = image.height
+    private val levelWidths: IntArray
+    private val levelHeights: IntArray
+    private val levels: Array<LongArray>
+
+    init {
+        require(zoom > 0) { "The zoom level must be positive, but it is $zoom" }
+        require(width.toLong() * height <= Int.MAX_VALUE) { "Image too large: ${width}x$height" }
+        val widths = mutableListOf(width)
+        val heights = mutableListOf(height)
+        while (widths.last() > 1 || heights.last() > 1) {
+            widths += (widths.last() + 1) / 2
+            heights += (heights.last() + 1) / 2
+        }
+        levelWidths = widths.toIntArray()
+        levelHeights = heights.toIntArray()
+        levels = Array(widths.size) { LongArray((widths[it] * heights[it] + Long.SIZE_BITS - 1) / Long.SIZE_BITS) }
+        val row = IntArray(width)
+        for (y in 0 until height) {
+            image.getRGB(0, y, width, 1, row, 0, width)
+            for (x in 0 until width) {
+                if (row[x] == color) {
+                    mark(0, x, height - 1 - y)
+                }
+            }
+        }
+        for (level in 1 until levels.size) {
+            for (row in 0 until levelHeights[level - 1]) {
+                for (column in 0 until levelWidths[level - 1]) {
+                    if (isMarked(level - 1, column, row)) {
+                        mark(level, column / 2, row / 2)
+                    }
+                }
+            }
+        }
+    }
+
+    private fun mark(level: Int, column: Int, row: Int) {
+        val bit = row * levelWidths[level] + column
+        levels[level][bit / Long.SIZE_BITS] = levels[level][bit / Long.SIZE_BITS] or (1L shl bit)
+    }
+
+    private fun isMarked(level: Int, column: Int, row: Int): Boolean {
+        if (column < 0 || row < 0 || column >= levelWidths[level] || row >= levelHeights[level]) {
+            return false
+        }
+        val bit = row * levelWidths[level] + column
+        return levels[level][bit / Long.SIZE_BITS] and (1L shl bit) != 0L
+    }
+
+    private fun column(x: Double) = (x - dx) / zoom
+
+    private fun row(y: Double) = (y - dy) / zoom
+
+    /**
+     * Returns true if the position ([x], [y]) lies inside an obstacle, or on its border.
+     */
+    fun isOccupied(x: Double, y: Double): Boolean {
+        val u = column(x)
+        val v = row(y)
+        val column = floor(u).toInt()
+        val row = floor(v).toInt()
+        val onColumnBorder = u == column.toDouble()
+        val onRowBorder = v == row.toDouble()
+        return isMarked(0, column, row) ||
+            onColumnBorder && isMarked(0, column - 1, row) ||
+            onRowBorder && isMarked(0, column, row - 1) ||
+            onColumnBorder && onRowBorder && isMarked(0, column - 1, row - 1)
+    }
+
+    /**
+     * Returns true if the segment from ([startX], [startY]) to ([endX], [endY]) crosses an obstacle,
+     * or if it ends inside one.
+     */
+    fun intersects(startX: Double, startY: Double, endX: Double, endY: Double): Boolean =
+        march(startX, startY, endX, endY) != null || isOccupied(endX, endY)
+
+    /**
+     * Returns the farthest position along the segment from ([startX], [startY]) to ([endX], [endY]) which can be
+     * reached without entering an obstacle.
+     */
+    fun next(startX: Double, startY: Double, endX: Double, endY: Double): Euclidean2DPosition {
+        val hit = march(startX, startY, endX, endY) ?: return Euclidean2DPosition(endX, endY)
+        var x = startX + hit.time * (endX - startX)
+        var y = startY + hit.time * (endY - startY)
+        /*
+         * Ensure the position is outside the obstacle that has been hit. Force it to be.
+         */
+        val minX = hit.column * zoom + dx
+        val minY = hit.row * zoom + dy
+        while ((x != startX || y != startY) && x in minX..minX + zoom && y in minY..minY + zoom) {
+            x = x.nextTowards(startX)
+            y = y.nextTowards(startY)
+        }
+        return Euclidean2DPosition(x, y)
+    }
+
+    /*
+     * Walks the cells crossed by the segment, in order, returning the first obstacle met (null if none).
+     * Positions are expressed in cells; when a position lies on the border between two cells,
+     * the one in the direction of movement is considered.
+     */
+    private fun march(startX: Double, startY: Double, endX: Double, endY: Double): Hit? {
+        val startU = column(startX)
+        val startV = row(startY)
+        val deltaU = column(endX) - startU
+        val deltaV = row(endY) - startV
+        /*
+         * Clip the segment to the grid
+         */
+        val entry = max(0.0, max(clipEntry(startU, deltaU, width), clipEntry(startV, deltaV, height)))
+        val exit = min(1.0, min(clipExit(startU, deltaU, width), clipExit(startV, deltaV, height)))
+        if (entry > exit) {
+            return null
+        }
+        var time = entry
+        var column = cellOf(startU + entry * deltaU, deltaU).coerceIn(0, width - 1)
+        var row = cellOf(startV + entry * deltaV, deltaV).coerceIn(0, height - 1)
+        while (true) {
+            if (isMarked(0, column, row)) {
+                return Hit(time, column, row)
+            }
+            var level = 0
+            while (level + 1 < levels.size && !isMarked(level + 1, column shr level + 1, row shr level + 1)) {
+                level++
+            }
+            val size = 1 shl level
+            val blockColumn = column shr level shl level
+            val blockRow = row shr level shl level
+            val columnExit = exitTime(startU, deltaU, blockColumn, size)
+            val rowExit = exitTime(startV, deltaV, blockRow, size)
+            time = min(columnExit, rowExit)
+            if (time > exit) {
+                return null
+            }
+            column =
+                when {
+                    time == columnExit -> if (deltaU > 0) blockColumn + size else blockColumn - 1
+                    else -> cellOf(startU + time * deltaU, deltaU).coerceIn(blockColumn, blockColumn + size - 1)
+                }
+            row =
+                when {
+                    time == rowExit -> if (deltaV > 0) blockRow + size else blockRow - 1
+                    else -> cellOf(startV + time * deltaV, deltaV).coerceIn(blockRow, blockRow + size - 1)
+                }
+            if (column !in 0 until width || row !in 0 until height) {
+                return null
+            }
+        }
+    }
+
+    private class Hit(val time: Double, val column: Int, val row: Int)
+
+    private companion object {
+        private const val serialVersionUID = 1L
+
+        private fun cellOf(coordinate: Double, delta: Double): Int = when {
+            delta < 0 -> ceil(coordinate).toInt() - 1
+            else -> floor(coordinate).toInt()
+        }
+
+        /*
+         * Time at which a segment enters the [0, size] range, +∞ if it is parallel to it and never enters.
+         */
+        private fun clipEntry(start: Double, delta: Double, size: Int): Double = when {
+            delta > 0 -> -start / delta
+            delta < 0 -> (size - start) / delta
+            start < 0 || start >= size -> Double.POSITIVE_INFINITY
+            else -> Double.NEGATIVE_INFINITY
+        }
+
+        private fun clipExit(start: Double, delta: Double, size: Int): Double = when {
+            delta > 0 -> (size - start) / delta
+            delta < 0 -> -start / delta
+            else -> Double.POSITIVE_INFINITY
+        }
+
+        private fun exitTime(start: Double, delta: Double, blockStart: Int, blockSize: Int): Double = when {
+            delta > 0 -> (blockStart + blockSize - start) / delta
+            delta < 0 -> (blockStart - start) / delta
+            else -> Double.POSITIVE_INFINITY
+        }
+    }
+}
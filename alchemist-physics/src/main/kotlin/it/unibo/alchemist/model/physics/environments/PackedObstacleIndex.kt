@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2010-2025, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.physics.environments
+
+import it.unibo.alchemist.model.obstacles.RectObstacle2D
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import kotlin.math.ceil
+import kotlin.math.max
+import kotlin.math.min
+import kotlin.math.sqrt
+
+/**
+ * Visits obstacles found by a spatial query.
+ * Returning false from [visit] stops the query.
+ */
+fun interface ObstacleVisitor<W> {
+    /**
+     * Visits an [obstacle], returns true if the query should go on.
+     */
+    fun visit(obstacle: W): Boolean
+}
+
+/**
+ * A static, flat R-tree of [RectObstacle2D]s, bulk-loaded once with the Sort-Tile-Recursive algorithm.
+ * Bounds are stored in primitive arrays, level by level, and every node of a level refers to a contiguous range
+ * of the level below: queries traverse the structure without allocating.
+ * The index is immutable: changes to the obstacle set require building a new one.
+ */
+internal class PackedObstacleIndex(obstacles: List<RectObstacle2D<Euclidean2DPosition>>) {
+    private val entries: Array<RectObstacle2D<Euclidean2DPosition>>
+
+    /*
+     * levels[0] are the bounds of the entries, levels[i > 0] the bounds of the tree nodes, the root being the last.
+     * Each level stores minX, minY, maxX, maxY for every element.
+     */
+    private val bounds: Array<DoubleArray>
+
+    /*
+     * Node i of level l (l > 0) covers elements [firstChild[l][i], firstChild[l][i + 1]) of level l - 1.
+     */
+    private val firstChild: Array<IntArray>
+
+    init {
+        var level = sortTileRecursive(obstacles.map { Element(it.minX, it.minY, it.maxX, it.maxY, it) })
+        val levels: MutableList<List<Element>> = mutableListOf(level)
+        while (level.size > 1) {
+            val parents =
+                level.chunked(NODE_CAPACITY).map { children ->
+                    Element(
+                        children.minOf { it.minX },
+                        children.minOf { it.minY },
+                        children.maxOf { it.maxX },
+                        children.maxOf { it.maxY },
+                        children,
+                    )
+                }
+            level = if (parents.size > 1) sortTileRecursive(parents) else parents
+            levels += level
+        }
+        /*
+         * Sorting the parents shuffles the groups of children: top-down, reorder every level following its parents.
+         */
+        for (index in levels.lastIndex downTo 1) {
+            levels[index - 1] = levels[index].flatMap { it.children }
+        }
+        @Suppress("UNCHECKED_CAST")
+        entries = Array(levels[0].size) { levels[0][it].content as RectObstacle2D<Euclidean2DPosition> }
+        bounds =
+            Array(levels.size) { index ->
+                val elements = levels[index]
+                DoubleArray(elements.size * 4).also { array ->
+                    elements.forEachIndexed { i, element ->
+                        array[i * 4] = element.minX
+                        array[i * 4 + 1] = element.minY
+                        array[i * 4 + 2] = element.maxX
+                        array[i * 4 + 3] = element.maxY
+                    }
+                }
+            }
+        firstChild =
+            Array(levels.size) { index ->
+                val starts = IntArray(if (index == 0) 0 else levels[index].size + 1)
+                if (index > 0) {
+                    levels[index].forEachIndexed { i, parent -> starts[i + 1] = starts[i] + parent.children.size }
+                }
+                starts
+            }
+    }
+
+    /**
+     * The number of indexed obstacles.
+     */
+    val size: Int get() = entries.size
+
+    /**
+     * Visits all the obstacles whose bounding box contains the point ([x], [y]), borders included.
+     */
+    fun visitContaining(x: Double, y: Double, visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>): Boolean =
+        visit(RECTANGLE, x, y, x, y, visitor)
+
+    /**
+     * Visits all the obstacles whose bounding box intersects the rectangle with the provided corners.
+     */
+    fun visitIntersectingRectangle(
+        minX: Double,
+        minY: Double,
+        maxX: Double,
+        maxY: Double,
+        visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>,
+    ): Boolean = visit(RECTANGLE, minX, minY, maxX, maxY, visitor)
+
+    /**
+     * Visits all the obstacles whose bounding box intersects the circle of given [radius] centered in
+     * ([centerX], [centerY]).
+     */
+    fun visitIntersectingCircle(
+        centerX: Double,
+        centerY: Double,
+        radius: Double,
+        visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>,
+    ): Boolean = visit(CIRCLE, centerX, centerY, radius, 0.0, visitor)
+
+    /**
+     * Visits all the obstacles whose bounding box intersects the segment from ([startX], [startY])
+     * to ([endX], [endY]).
+     */
+    fun visitIntersectingSegment(
+        startX: Double,
+        startY: Double,
+        endX: Double,
+        endY: Double,
+        visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>,
+    ): Boolean = visit(SEGMENT, startX, startY, endX, endY, visitor)
+
+    /*
+     * Returns false if the visit was interrupted by the visitor.
+     */
+    private fun visit(
+        kind: Int,
+        q0: Double,
+        q1: Double,
+        q2: Double,
+        q3: Double,
+        visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>,
+    ): Boolean = entries.isEmpty() || visit(bounds.lastIndex, 0, kind, q0, q1, q2, q3, visitor)
+
+    private fun visit(
+        level: Int,
+        index: Int,
+        kind: Int,
+        q0: Double,
+        q1: Double,
+        q2: Double,
+        q3: Double,
+        visitor: ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>,
+    ): Boolean {
+        val box = bounds[level]
+        val base = index * 4
+        if (!intersects(kind, q0, q1, q2, q3, box[base], box[base + 1], box[base + 2], box[base + 3])) {
+            return true
+        }
+        if (level == 0) {
+            return visitor.visit(entries[index])
+        }
+        val starts = firstChild[level]
+        for (child in starts[index] until starts[index + 1]) {
+            if (!visit(level - 1, child, kind, q0, q1, q2, q3, visitor)) {
+                return false
+            }
+        }
+        return true
+    }
+
+    private class Element(
+        val minX: Double,
+        val minY: Double,
+        val maxX: Double,
+        val maxY: Double,
+        val content: Any,
+    ) {
+        val centerX: Double get() = (minX + maxX) / 2
+        val centerY: Double get() = (minY + maxY) / 2
+
+        @Suppress("UNCHECKED_CAST")
+        val children: List<Element> get() = content as List<Element>
+    }
+
+    private companion object {
+        private const val NODE_CAPACITY = 16
+        private const val RECTANGLE = 0
+        private const val CIRCLE = 1
+        private const val SEGMENT = 2
+
+        private fun sortTileRecursive(elements: List<Element>): List<Element> {
+            val leaves = ceil(elements.size.toDouble() / NODE_CAPACITY)
+            val sliceSize = NODE_CAPACITY * ceil(sqrt(leaves)).toInt()
+            return elements
+                .sortedBy { it.centerX }
+                .chunked(max(sliceSize, 1))
+                .flatMap { slice -> slice.sortedBy { it.centerY } }
+        }
+
+        @Suppress("CyclomaticComplexMethod")
+        private fun intersects(
+            kind: Int,
+            q0: Double,
+            q1: Double,
+            q2: Double,
+            q3: Double,
+            minX: Double,
+            minY: Double,
+            maxX: Double,
+            maxY: Double,
+        ): Boolean = when (kind) {
+            RECTANGLE -> q0 <= maxX && q2 >= minX && q1 <= maxY && q3 >= minY
+            CIRCLE -> {
+                val dx = q0 - q0.coerceIn(minX, maxX)
+                val dy = q1 - q1.coerceIn(minY, maxY)
+                dx * dx + dy * dy <= q2 * q2
+            }
+            else -> segmentIntersects(q0, q1, q2, q3, minX, minY, maxX, maxY)
+        }
+
+        /*
+         * Liang-Barsky clipping of the segment against the box.
+         */
+        private fun segmentIntersects(
+            startX: Double,
+            startY: Double,
+            endX: Double,
+            endY: Double,
+            minX: Double,
+            minY: Double,
+            maxX: Double,
+            maxY: Double,
+        ): Boolean {
+            val dx = endX - startX
+            val dy = endY - startY
+            var enter = 0.0
+            var exit = 1.0
+            if (dx == 0.0) {
+                if (startX < minX || startX > maxX) {
+                    return false
+                }
+            } else {
+                val t1 = (minX - startX) / dx
+                val t2 = (maxX - startX) / dx
+                enter = max(enter, min(t1, t2))
+                exit = min(exit, max(t1, t2))
+            }
+            if (dy == 0.0) {
+                if (startY < minY || startY > maxY) {
+                    return false
+                }
+            } else {
+                val t1 = (minY - startY) / dy
+                val t2 = (maxY - startY) / dy
+                enter = max(enter, min(t1, t2))
+                exit = min(exit, max(t1, t2))
+            }
+            return enter <= exit
+        }
+    }
+}
@@ -9,6 +9,7 @@
 
 package it.unibo.alchemist.model.physics.environments
 
+import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.geometry.Euclidean2DShapeFactory
 import it.unibo.alchemist.model.geometry.Euclidean2DTransformation
 import it.unibo.alchemist.model.physics.PhysicsEnvironment
@@ -18,4 +19,21 @@ import it.unibo.alchemist.model.positions.Euclidean2DPosition
  * A [PhysicsEnvironment] using [Euclidean2DPosition]s.
  */
 interface Physics2DEnvironment<T> :
-    PhysicsEnvironment<T, Euclidean2DPosition, Euclidean2DTransformation, Euclidean2DShapeFactory>
+    PhysicsEnvironment<T, Euclidean2DPosition, Euclidean2DTransformation, Euclidean2DShapeFactory> {
+    /**
+     * Returns the nodes whose shape intersects the circular sector of the given [radius] and [aperture]
+     * (in radians), having its vertex in [vertex] and bisected by the [heading] direction.
+     * This is typically used to compute fields of view.
+     */
+    fun getNodesWithinSector(
+        vertex: Euclidean2DPosition,
+        heading: Euclidean2DPosition,
+        radius: Double,
+        aperture: Double,
+    ): List<Node<T>> = getNodesWithin(
+        shapeFactory.circleSector(radius, aperture, 0.0).transformed {
+            origin(vertex)
+            rotate(heading)
+        },
+    )
+}
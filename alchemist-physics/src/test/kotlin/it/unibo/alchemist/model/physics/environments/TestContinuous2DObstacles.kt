@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.model.physics.environments
+
+import it.unibo.alchemist.model.SupportedIncarnations
+import it.unibo.alchemist.model.obstacles.RectObstacle2D
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import org.junit.jupiter.api.Test
+
+class TestContinuous2DObstacles {
+    private val environment =
+        Continuous2DObstacles(SupportedIncarnations.get<Any, Euclidean2DPosition>("protelis").orElseThrow())
+
+    private fun obstacle(x: Double) = RectObstacle2D<Euclidean2DPosition>(x, 0.0, 1.0, 1.0)
+
+    /**
+     * The obstacles returned to callers must not change when obstacles are added or removed.
+     */
+    @Test
+    fun testObstaclesAreSnapshots() {
+        val first = obstacle(0.0)
+        environment.addObstacle(first)
+        val snapshot = environment.obstacles
+        environment.addObstacle(obstacle(2.0))
+        assertEquals(listOf(first), snapshot)
+        assertEquals(2, environment.obstacles.size)
+        environment.obstacles.forEach(environment::removeObstacle)
+        assertTrue(environment.obstacles.isEmpty())
+        assertEquals(listOf(first), snapshot)
+    }
+}
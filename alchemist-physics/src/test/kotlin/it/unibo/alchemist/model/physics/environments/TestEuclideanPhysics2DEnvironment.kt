@@ -18,6 +18,8 @@ import it.unibo.alchemist.model.physics.properties.AreaProperty
 import it.unibo.alchemist.model.physics.properties.CircularArea
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
 import it.unibo.alchemist.util.Doubles.fuzzyEquals
+import kotlin.math.PI
+import kotlin.random.Random
 import kotlin.test.assertEquals
 import kotlin.test.assertTrue
 import org.junit.jupiter.api.BeforeEach
@@ -82,6 +84,31 @@ class TestEuclideanPhysics2DEnvironment {
         assertEquals(setOf(node1, node2), environment.getNodesWithin(shape).toSet())
     }
 
+    @Test
+    fun `Sector queries find the same point-like nodes as shape intersection`() {
+        val random = Random(1)
+        repeat(100) {
+            environment.addNode(GenericNode(environment), Euclidean2DPosition(random.coordinate(), random.coordinate()))
+        }
+        repeat(50) {
+            val vertex = Euclidean2DPosition(random.coordinate(), random.coordinate())
+            val heading = Euclidean2DPosition(random.nextDouble(-1.0, 1.0), random.nextDouble(-1.0, 1.0))
+            val radius = random.nextDouble(1.0, 8.0)
+            val aperture = random.nextDouble(0.1, 2 * PI - 0.1)
+            val sector =
+                environment.shapeFactory.circleSector(radius, aperture, 0.0).transformed {
+                    origin(vertex)
+                    rotate(heading)
+                }
+            assertEquals(
+                environment.getNodesWithin(sector).toSet(),
+                environment.getNodesWithinSector(vertex, heading, radius, aperture).toSet(),
+            )
+        }
+    }
+
+    private fun Random.coordinate() = nextDouble(-10.0, 10.0)
+
     @Test
     fun `Node is moved to the farthest position reachable when its path is occupied by others`() {
         environment.addNode(node1, Euclidean2DPosition(2.0, 2.0))
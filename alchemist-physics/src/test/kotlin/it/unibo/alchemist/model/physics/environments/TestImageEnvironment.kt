@@ -10,6 +10,7 @@ package it.unibo.alchemist.model.physics.environments
 
 import it.unibo.alchemist.model.SupportedIncarnations
 import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import kotlin.random.Random
 import org.junit.jupiter.api.Assertions
 import org.junit.jupiter.api.Test
 import org.kaikikm.threadresloader.ResourceLoader
@@ -59,7 +60,36 @@ class TestImageEnvironment {
             .forEach { Assertions.assertTrue(it.isNotEmpty()) }
     }
 
+    /**
+     * Movements checked against the occupancy grid must meet the same obstacles as when checked against rectangles.
+     */
+    @Test
+    fun testOccupancyGrid() {
+        val incarnation = SupportedIncarnations.get<Any, Euclidean2DPosition>("protelis").orElseGet { TODO() }
+        val path = checkNotNull(ResourceLoader.getResource("images/piantina1.png")).path
+        val rectangles = ImageEnvironment(incarnation, ImageEnvironment.DEFAULT_COLOR, path, ZOOM, DELTA, DELTA)
+        val grid = ImageEnvironment(incarnation, ImageEnvironment.DEFAULT_COLOR, path, ZOOM, DELTA, DELTA, true)
+        val random = Random(SEED)
+        val (minX, minY) = rectangles.offset
+        val (width, height) = rectangles.size
+        repeat(SEGMENTS) {
+            val start = Euclidean2DPosition(minX + random.nextDouble(width), minY + random.nextDouble(height))
+            val end =
+                start + Euclidean2DPosition(random.nextDouble(-width, width), random.nextDouble(-height, height)) *
+                    random.nextDouble(MAX_MOVEMENT)
+            if (!grid.intersectsObstacle(start, start)) {
+                Assertions.assertEquals(rectangles.intersectsObstacle(start, end), grid.intersectsObstacle(start, end))
+                Assertions.assertFalse(grid.intersectsObstacle(start, grid.next(start, end)))
+            }
+        }
+    }
+
     companion object {
         private const val MAX = 255.0
+        private const val ZOOM = 0.1
+        private const val DELTA = -3.0
+        private const val SEED = 7L
+        private const val SEGMENTS = 2000
+        private const val MAX_MOVEMENT = 0.2
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2010-2025, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.physics.environments
+
+import it.unibo.alchemist.model.obstacles.RectObstacle2D
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
+import kotlin.random.Random
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+/**
+ * Checks the packed obstacle index against brute-force queries.
+ */
+class TestPackedObstacleIndex {
+    private val random = Random(SEED)
+    private val obstacles =
+        List(OBSTACLES) {
+            RectObstacle2D<Euclidean2DPosition>(
+                random.nextDouble(-SIZE, SIZE),
+                random.nextDouble(-SIZE, SIZE),
+                random.nextDouble(MAX_SIDE),
+                random.nextDouble(MAX_SIDE),
+            )
+        }
+    private val index = PackedObstacleIndex(obstacles)
+
+    private fun PackedObstacleIndex.collect(
+        query: PackedObstacleIndex.(ObstacleVisitor<RectObstacle2D<Euclidean2DPosition>>) -> Boolean,
+    ): Set<RectObstacle2D<Euclidean2DPosition>> = mutableSetOf<RectObstacle2D<Euclidean2DPosition>>().also { found ->
+        query(ObstacleVisitor { found.add(it) })
+    }
+
+    /**
+     * Circle queries must return the same obstacles as a linear scan.
+     */
+    @Test
+    fun testCircleQueries() {
+        assertEquals(OBSTACLES, index.size)
+        repeat(QUERIES) {
+            val x = random.nextDouble(-SIZE, SIZE)
+            val y = random.nextDouble(-SIZE, SIZE)
+            val range = random.nextDouble(MAX_SIDE)
+            val expected =
+                obstacles.filter {
+                    val dx = x - x.coerceIn(it.minX, it.maxX)
+                    val dy = y - y.coerceIn(it.minY, it.maxY)
+                    dx * dx + dy * dy <= range * range
+                }
+            assertEquals(expected.toSet(), index.collect { visitIntersectingCircle(x, y, range, it) })
+        }
+    }
+
+    /**
+     * Rectangle queries must return the same obstacles as a linear scan.
+     */
+    @Test
+    fun testRectangleQueries() {
+        repeat(QUERIES) {
+            val minX = random.nextDouble(-SIZE, SIZE)
+            val minY = random.nextDouble(-SIZE, SIZE)
+            val maxX = minX + random.nextDouble(MAX_SIDE)
+            val maxY = minY + random.nextDouble(MAX_SIDE)
+            val expected = obstacles.filter { minX <= it.maxX && maxX >= it.minX && minY <= it.maxY && maxY >= it.minY }
+            assertEquals(expected.toSet(), index.collect { visitIntersectingRectangle(minX, minY, maxX, maxY, it) })
+        }
+    }
+
+    /**
+     * Segments crossing an obstacle must find it, and visits must stop when requested.
+     */
+    @Test
+    fun testSegmentQueries() {
+        val obstacle = RectObstacle2D<Euclidean2DPosition>(0.0, 0.0, 1.0, 1.0)
+        val single = PackedObstacleIndex(listOf(obstacle))
+        assertEquals(setOf(obstacle), single.collect { visitIntersectingSegment(-1.0, 0.5, 2.0, 0.5, it) })
+        assertEquals(setOf(obstacle), single.collect { visitIntersectingSegment(-1.0, -1.0, 2.0, 2.0, it) })
+        assertTrue(single.collect { visitIntersectingSegment(-1.0, 0.0, 0.0, 2.0, it) }.isEmpty())
+        assertTrue(single.collect { visitIntersectingSegment(2.0, 2.0, 3.0, 3.0, it) }.isEmpty())
+        assertFalse(single.visitContaining(0.5, 0.5) { false })
+        assertTrue(single.visitContaining(1.5, 0.5) { false })
+        assertTrue(PackedObstacleIndex(emptyList()).visitContaining(0.0, 0.0) { false })
+    }
+
+    private companion object {
+        private const val SEED = 1L
+        private const val OBSTACLES = 1000
+        private const val QUERIES = 200
+        private const val SIZE = 100.0
+        private const val MAX_SIDE = 10.0
+    }
+}
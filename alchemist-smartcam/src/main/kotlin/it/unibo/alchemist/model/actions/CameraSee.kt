@@ -10,13 +10,16 @@
 package it.unibo.alchemist.model.actions
 
 import it.unibo.alchemist.model.Context
+import it.unibo.alchemist.model.EnvironmentWithObstacles
 import it.unibo.alchemist.model.Molecule
 import it.unibo.alchemist.model.Node
 import it.unibo.alchemist.model.Reaction
+import it.unibo.alchemist.model.VisibleNode
 import it.unibo.alchemist.model.molecules.SimpleMolecule
 import it.unibo.alchemist.model.nodes.VisibleNodeImpl
 import it.unibo.alchemist.model.physics.FieldOfView2D
 import it.unibo.alchemist.model.physics.environments.Physics2DEnvironment
+import it.unibo.alchemist.model.positions.Euclidean2DPosition
 import java.lang.Math.toRadians
 
 /**
@@ -24,6 +27,11 @@ import java.lang.Math.toRadians
  * the list of [it.unibo.alchemist.model.VisibleNode],
  * containing [filterByMolecule].
  * [distance] and [angle] define the field of view.
+ * If [occludedByObstacles] is true and the [environment] has obstacles,
+ * nodes hidden behind an obstacle are not seen.
+ *
+ * [VisibleNode]s of nodes that did not move since the previous execution are reused,
+ * and [outputMolecule] is only updated if the visible nodes changed.
  */
 class CameraSee
 @JvmOverloads
@@ -40,6 +48,10 @@ constructor(
     val angle: Double,
     private val outputMolecule: Molecule = SimpleMolecule("vision"),
     private val filterByMolecule: Molecule? = null,
+    /**
+     * Whether obstacles hide the nodes behind them.
+     */
+    val occludedByObstacles: Boolean = false,
 ) : AbstractAction<Any>(node) {
     private val fieldOfView =
         FieldOfView2D(
@@ -49,19 +61,39 @@ constructor(
             toRadians(angle),
         )
 
+    private var lastVisible: List<VisibleNode<Any, Euclidean2DPosition>> = emptyList()
+
+    private val lastVisibleByNode: MutableMap<Node<Any>, VisibleNode<Any, Euclidean2DPosition>> = HashMap()
+
     init {
-        node.setConcentration(outputMolecule, emptyList<Any>())
+        node.setConcentration(outputMolecule, lastVisible)
     }
 
     override fun cloneAction(node: Node<Any>, reaction: Reaction<Any>) =
-        CameraSee(node, environment, distance, angle, outputMolecule, filterByMolecule)
+        CameraSee(node, environment, distance, angle, outputMolecule, filterByMolecule, occludedByObstacles)
 
     override fun execute() {
-        var seen = fieldOfView.influentialNodes()
-        filterByMolecule?.run {
-            seen = seen.filter { it.contains(filterByMolecule) }
+        val obstacles =
+            environment.takeIf { occludedByObstacles } as? EnvironmentWithObstacles<*, *, Euclidean2DPosition>
+        val cameraPosition = environment.getPosition(node)
+        val seen = fieldOfView.influentialNodes()
+        val visible = ArrayList<VisibleNode<Any, Euclidean2DPosition>>(seen.size)
+        for (other in seen) {
+            if (filterByMolecule == null || other.contains(filterByMolecule)) {
+                val position = environment.getPosition(other)
+                if (obstacles == null || !obstacles.intersectsObstacle(cameraPosition, position)) {
+                    visible += lastVisibleByNode[other]?.takeIf { it.position == position }
+                        ?: VisibleNodeImpl(other, position)
+                }
+            }
+        }
+        val unchanged = visible.size == lastVisible.size && visible.indices.all { visible[it] === lastVisible[it] }
+        if (!unchanged || node.getConcentration(outputMolecule) !== lastVisible) {
+            lastVisibleByNode.clear()
+            visible.associateByTo(lastVisibleByNode) { it.node }
+            lastVisible = visible
+            node.setConcentration(outputMolecule, visible)
         }
-        node.setConcentration(outputMolecule, seen.map { VisibleNodeImpl(it, environment.getPosition(it)) })
     }
 
     override fun getContext() = Context.LOCAL
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2010-2026, Danilo Pianini and contributors
+ * listed, for each module, in the respective subproject's build.gradle.kts file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of the
+ * GNU General Public License, with a linking exception,
+ * as described in the file LICENSE in the Alchemist distribution's top directory.
+ */
+
+package it.unibo.alchemist.boundary.swingui.monitor.impl;
+
+import it.unibo.alchemist.model.Environment;
+import it.unibo.alchemist.model.Node;
+import it.unibo.alchemist.model.Position2D;
+
+import java.util.Arrays;
+
+/**
+ * A copy of the nodes of an {@link Environment}, of their positions and (optionally) of their links,
+ * taken by the simulation thread and read by the GUI.
+ * Coordinates are stored in a primitive array, so that nodes outside the viewport can be culled without
+ * projecting them on screen; links are stored as pairs of node indexes.
+ * Buffers are retained and reused when the snapshot gets filled again.
+ *
+ * @param <T> Concentration type
+ * @param <P> {@link Position2D} type
+ * @deprecated The entire Swing UI is deprecated and planned to be replaced with a modern UI.
+ */
+@Deprecated
+final class DisplaySnapshot<T, P extends Position2D<P>> {
+
+    private Object[] nodes = new Object[0];
+    private Object[] positions = new Object[0];
+    private double[] coordinates = new double[0];
+    private int[] indexById = new int[0];
+    private int[] links = new int[0];
+    private int size;
+    private int linkCount;
+
+    /**
+     * Copies the current state of the environment, overwriting the previous content.
+     * Must be called by the simulation thread.
+     *
+     * @param environment the {@link Environment}
+     * @param withLinks   whether the links among nodes should be copied as well
+     */
+    void fill(final Environment<T, P> environment, final boolean withLinks) {
+        final int count = environment.getNodeCount();
+        if (nodes.length < count) {
+            nodes = new Object[count];
+            positions = new Object[count];
+            coordinates = new double[count * 2];
+        }
+        Arrays.fill(nodes, count, nodes.length, null);
+        Arrays.fill(positions, count, positions.length, null);
+        int maxId = -1;
+        size = 0;
+        for (final Node<T> node : environment.getNodes()) {
+            final P position = environment.getPosition(node);
+            nodes[size] = node;
+            positions[size] = position;
+            coordinates[size * 2] = position.getX();
+            coordinates[size * 2 + 1] = position.getY();
+            maxId = Math.max(maxId, node.getId());
+            size++;
+        }
+        if (indexById.length <= maxId) {
+            indexById = new int[maxId + 1];
+        }
+        Arrays.fill(indexById, -1);
+        for (int i = 0; i < size; i++) {
+            indexById[node(i).getId()] = i;
+        }
+        linkCount = 0;
+        if (withLinks) {
+            for (int i = 0; i < size; i++) {
+                final Node<T> node = node(i);
+                for (final Node<T> neighbor : environment.getNeighborhood(node)) {
+                    final int j = indexOf(neighbor);
+                    /*
+                     * Each link is recorded once, from the endpoint with the lower id (unless links are asymmetric)
+                     */
+                    if (j >= 0 && (neighbor.getId() > node.getId()
+                        || !environment.getNeighborhood(neighbor).contains(node))) {
+                        addLink(i, j);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addLink(final int source, final int target) {
+        if (links.length < (linkCount + 1) * 2) {
+            links = Arrays.copyOf(links, Math.max(links.length * 2, 2 * (size + 1)));
+        }
+        links[linkCount * 2] = source;
+        links[linkCount * 2 + 1] = target;
+        linkCount++;
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index the node index
+     * @return the node
+     */
+    @SuppressWarnings("unchecked")
+    Node<T> node(final int index) {
+        return (Node<T>) nodes[index];
+    }
+
+    /**
+     * @param index the node index
+     * @return the position of the node
+     */
+    @SuppressWarnings("unchecked")
+    P position(final int index) {
+        return (P) positions[index];
+    }
+
+    /**
+     * @param index the node index
+     * @return the first coordinate of the node
+     */
+    double x(final int index) {
+        return coordinates[index * 2];
+    }
+
+    /**
+     * @param index the node index
+     * @return the second coordinate of the node
+     */
+    double y(final int index) {
+        return coordinates[index * 2 + 1];
+    }
+
+    /**
+     * @param node the node
+     * @return the index of the node, or -1 if it is not part of this snapshot
+     */
+    int indexOf(final Node<?> node) {
+        final int id = node.getId();
+        return id >= 0 && id < indexById.length && indexById[id] >= 0 && nodes[indexById[id]] == node
+            ? indexById[id]
+            : -1;
+    }
+
+    /**
+     * @return the number of links
+     */
+    int linkCount() {
+        return linkCount;
+    }
+
+    /**
+     * @param link the link index
+     * @return the index of the first node of the link
+     */
+    int linkSource(final int link) {
+        return links[link * 2];
+    }
+
+    /**
+     * @param link the link index
+     * @return the index of the second node of the link
+     */
+    int linkTarget(final int link) {
+        return links[link * 2 + 1];
+    }
+
+    /**
+     * Writes in {@code destination} the indexes of the nodes lying in the provided bounding box.
+     *
+     * @param minX        minimum first coordinate
+     * @param minY        minimum second coordinate
+     * @param maxX        maximum first coordinate
+     * @param maxY        maximum second coordinate
+     * @param destination the array to fill, with room for at least {@link #size()} elements
+     * @return the number of indexes written
+     */
+    int cull(final double minX, final double minY, final double maxX, final double maxY, final int[] destination) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            final double x = coordinates[i * 2];
+            final double y = coordinates[i * 2 + 1];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                destination[count++] = i;
+            }
+        }
+        return count;
+    }
+}
@@ -26,14 +26,12 @@ import it.unibo.alchemist.core.Simulation;
 import it.unibo.alchemist.core.Status;
 import it.unibo.alchemist.model.Actionable;
 import it.unibo.alchemist.model.Environment;
-import it.unibo.alchemist.model.Neighborhood;
 import it.unibo.alchemist.model.Node;
 import it.unibo.alchemist.model.Obstacle2D;
 import it.unibo.alchemist.model.Position2D;
 import it.unibo.alchemist.model.Time;
 import it.unibo.alchemist.model.environments.Environment2DWithObstacles;
 import it.unibo.alchemist.model.times.DoubleTime;
-import org.apache.commons.math3.util.Pair;
 import org.danilopianini.lang.LangUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,18 +63,16 @@ import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Semaphore;
 import java.util.function.Consumer;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static it.unibo.alchemist.boundary.ui.impl.PointAdapter.from;
@@ -114,6 +110,12 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
      *
      */
     private static final long PAUSE_DETECTION_THRESHOLD = 200;
+    /**
+     * Size (in pixels) of the tiles nodes get aggregated into when there are more visible nodes than tiles.
+     */
+    private static final int DENSITY_TILE_SIZE = 6;
+    private static final int MIN_DENSITY_ALPHA = 48;
+    private static final int MAX_ALPHA = 255;
     @Serial
     private static final long serialVersionUID = 511631766719686842L;
 
@@ -126,7 +128,6 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
         }
     }
 
-    private final Semaphore mapConsistencyMutex = new Semaphore(1);
     private final transient PointerSpeed mouseMovement = new PointerSpeedImpl();
     private transient AngleManagerImpl angleManager;
     private Environment<T, P> currentEnv;
@@ -138,9 +139,17 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
     private int mouseX;
     private int mouseY;
     private Node<T> nearest;
-    private final ConcurrentMap<Node<T>, Neighborhood<T>> neighbors = new ConcurrentHashMap<>();
     private List<? extends Obstacle2D<?>> obstacles;
-    private final ConcurrentMap<Node<T>, P> positions = new ConcurrentHashMap<>();
+    /*
+     * Snapshots are double-buffered: the simulation thread fills the back one and publishes it as the front one,
+     * while the EDT paints the front one, advertising it in paintedSnapshot.
+     * A snapshot being painted is never overwritten: the simulation thread allocates a new buffer instead.
+     */
+    private volatile DisplaySnapshot<T, P> frontSnapshot = new DisplaySnapshot<>();
+    private volatile DisplaySnapshot<T, P> paintedSnapshot;
+    private DisplaySnapshot<T, P> backSnapshot = new DisplaySnapshot<>();
+    private int[] visibleNodes = new int[0];
+    private int[] densityTiles = new int[0];
     private volatile boolean realTime;
     private volatile int currentStep;
     private long timeInit = System.currentTimeMillis();
@@ -187,12 +196,6 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
         return status == ViewStatus.VIEW_WITH_MARKER || status == ViewStatus.VIEW_ONLY;
     }
 
-    private static <I, O> Pair<O, O> mapPair(
-            final Pair<? extends I, ? extends I> pair,
-            final Function<? super I, ? extends O> converter) {
-        return new Pair<>(converter.apply(pair.getFirst()), converter.apply(pair.getSecond()));
-    }
-
     /**
      * Builds a frame. After building a {@link JFrame}, it performs the given operation on it, if any.
      *
@@ -295,8 +298,17 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
         bindKey(KeyEvent.VK_RIGHT, () -> setStep(Math.max(currentStep, currentStep + Math.max(currentStep / 10, 1))));
     }
 
-    private void accessData() {
-        mapConsistencyMutex.acquireUninterruptibly();
+    private DisplaySnapshot<T, P> acquireSnapshot() {
+        DisplaySnapshot<T, P> snapshot;
+        do {
+            snapshot = frontSnapshot;
+            paintedSnapshot = snapshot;
+        } while (snapshot != frontSnapshot);
+        return snapshot;
+    }
+
+    private void releaseSnapshot() {
+        paintedSnapshot = null;
     }
 
     private Shape convertObstacle(final Obstacle2D<?> o) {
@@ -330,6 +342,8 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
 
     /**
      * Actually draws the environment on the view.
+     * Only the nodes inside the viewport are drawn: when they outnumber the density tiles fitting in the view,
+     * nodes are drawn as a density map, and neither links nor effects are drawn.
      *
      * @param g {@link Graphics2D} object responsible for drawing
      */
@@ -337,93 +351,173 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
         if (wormhole == null || !isVisible() || !isEnabled()) {
             return;
         }
-        accessData();
-        final Map<Node<T>, Point> onView;
+        final DisplaySnapshot<T, P> snapshot = acquireSnapshot();
         try {
-            updateHookedNodeView();
-            onView = computeNodesOnView();
+            updateHookedNodeView(snapshot);
+            final Rectangle2D bounds = environmentViewBounds();
+            if (visibleNodes.length < snapshot.size()) {
+                visibleNodes = new int[snapshot.size()];
+            }
+            final int visibleCount = snapshot.cull(
+                bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY(), visibleNodes
+            );
+            final boolean aggregate =
+                (long) visibleCount * DENSITY_TILE_SIZE * DENSITY_TILE_SIZE > (long) getWidth() * getHeight();
             g.setColor(Color.BLACK);
-            drawObstacles(g);
-            drawLinks(g, onView);
+            drawObstacles(g, bounds);
+            /*
+             * Node positions on the view are only needed for drawing single nodes or for interacting with them
+             */
+            final Map<Node<T>, Point> onView = aggregate && isNotInteracting()
+                ? null
+                : computeNodesOnView(snapshot, visibleCount);
+            if (aggregate) {
+                drawDensity(g, snapshot, visibleCount, bounds);
+            } else {
+                drawLinks(g, snapshot, onView);
+                moveSelectedNodesOnView(onView);
+                g.setColor(Color.GREEN);
+                if (effectStack != null) {
+                    effectStack.forEach(effect -> onView.forEach((node, point) ->
+                        effect.apply(g, node, currentEnv, wormhole)));
+                }
+            }
+            if (onView == null) {
+                highlightClosestNode(g, snapshot, visibleCount);
+            } else {
+                highlightClosestNode(g, onView);
+                drawSelectionRectangle(g, onView);
+                highlightSelectedNodes(g, onView);
+            }
         } finally {
-            releaseData();
+            releaseSnapshot();
         }
-        moveSelectedNodesOnView(onView);
-        g.setColor(Color.GREEN);
-        if (effectStack != null) {
-            effectStack.forEach(effect -> onView.forEach((node, point) ->
-                effect.apply(g, node, currentEnv, wormhole)));
+    }
+
+    /*
+     * Bounding box, in environment coordinates, of the view (plus a margin for the nodes on the borders).
+     */
+    private Rectangle2D environmentViewBounds() {
+        final int margin = SELECTED_NODE_DRAWING_SIZE;
+        final Rectangle2D.Double bounds = new Rectangle2D.Double();
+        boolean first = true;
+        for (final int x : new int[] { -margin, getWidth() + margin }) {
+            for (final int y : new int[] { -margin, getHeight() + margin }) {
+                final P corner = wormhole.getEnvPoint(new Point(x, y));
+                if (first) {
+                    bounds.setRect(corner.getX(), corner.getY(), 0, 0);
+                    first = false;
+                } else {
+                    bounds.add(corner.getX(), corner.getY());
+                }
+            }
         }
-        highlightClosestNode(g, onView);
-        drawSelectionRectangle(g, onView);
-        highlightSelectedNodes(g, onView);
+        return bounds;
     }
 
-    private Map<Node<T>, Point> computeNodesOnView() {
-        return positions.entrySet().parallelStream()
-            .map(pair -> new Pair<>(pair.getKey(), wormhole.getViewPoint(pair.getValue())))
-            .filter(p -> wormhole.isInsideView(p.getSecond()))
-            .collect(Collectors.toMap(Pair::getKey, Pair::getValue));
+    private Map<Node<T>, Point> computeNodesOnView(final DisplaySnapshot<T, P> snapshot, final int visibleCount) {
+        final Map<Node<T>, Point> onView = new HashMap<>();
+        for (int i = 0; i < visibleCount; i++) {
+            final int index = visibleNodes[i];
+            final Point point = wormhole.getViewPoint(snapshot.position(index));
+            if (wormhole.isInsideView(point)) {
+                onView.put(snapshot.node(index), point);
+            }
+        }
+        return onView;
     }
 
-    private void updateHookedNodeView() {
+    private void updateHookedNodeView(final DisplaySnapshot<T, P> snapshot) {
         if (hooked.isEmpty()) {
             return;
         }
-        final Node<T> hookedNode = hooked.get();
-        final P hookedCoordinates = positions.get(hookedNode);
-        if (hookedCoordinates == null) {
+        final int index = snapshot.indexOf(hooked.get());
+        if (index < 0) {
             hooked = Optional.empty();
             return;
         }
-        final Point hookedPoint = wormhole.getViewPoint(hookedCoordinates);
+        final Point hookedPoint = wormhole.getViewPoint(snapshot.position(index));
         if (hookedPoint.distance(getCenter()) > FREEDOM_RADIUS) {
             wormhole.setViewPosition(hookedPoint);
         }
     }
 
-    private void drawObstacles(final Graphics2D g) {
+    private void drawObstacles(final Graphics2D g, final Rectangle2D bounds) {
         if (obstacles == null) {
             return;
         }
-        /*
-         * This currently draws all obstacles, even when they are fully outside the viewport.
-         */
-        final List<Shape> obstacleShapes = obstacles.parallelStream()
-            .map(this::convertObstacle)
-            .collect(Collectors.toList());
-        obstacleShapes.forEach(g::fill);
+        for (final Obstacle2D<?> obstacle : obstacles) {
+            if (obstacle.getBounds2D().intersects(bounds)) {
+                g.fill(convertObstacle(obstacle));
+            }
+        }
     }
 
-    private void drawLinks(final Graphics2D g, final Map<Node<T>, Point> onView) {
+    /*
+     * Counts the visible nodes falling in each tile of the view bounding box, and paints every non-empty tile
+     * with an opacity proportional to its count.
+     */
+    private void drawDensity(
+        final Graphics2D g,
+        final DisplaySnapshot<T, P> snapshot,
+        final int visibleCount,
+        final Rectangle2D bounds
+    ) {
+        final int columns = Math.max(1, (getWidth() + DENSITY_TILE_SIZE - 1) / DENSITY_TILE_SIZE);
+        final int rows = Math.max(1, (getHeight() + DENSITY_TILE_SIZE - 1) / DENSITY_TILE_SIZE);
+        if (densityTiles.length < columns * rows) {
+            densityTiles = new int[columns * rows];
+        }
+        Arrays.fill(densityTiles, 0, columns * rows, 0);
+        final double tileWidth = bounds.getWidth() / columns;
+        final double tileHeight = bounds.getHeight() / rows;
+        int maxCount = 0;
+        for (int i = 0; i < visibleCount; i++) {
+            final int index = visibleNodes[i];
+            final int column = Math.min(columns - 1, (int) ((snapshot.x(index) - bounds.getMinX()) / tileWidth));
+            final int row = Math.min(rows - 1, (int) ((snapshot.y(index) - bounds.getMinY()) / tileHeight));
+            maxCount = Math.max(maxCount, ++densityTiles[row * columns + column]);
+        }
+        for (int tile = 0; tile < columns * rows; tile++) {
+            final int count = densityTiles[tile];
+            if (count > 0) {
+                final Point center = wormhole.getViewPoint(currentEnv.makePosition(
+                    bounds.getMinX() + (tile % columns + 0.5) * tileWidth,
+                    bounds.getMinY() + (tile / columns + 0.5) * tileHeight
+                ));
+                final int alpha = MIN_DENSITY_ALPHA + (MAX_ALPHA - MIN_DENSITY_ALPHA) * count / maxCount;
+                g.setColor(new Color(0, 0, 0, alpha));
+                g.fillRect(
+                    center.x - DENSITY_TILE_SIZE / 2,
+                    center.y - DENSITY_TILE_SIZE / 2,
+                    DENSITY_TILE_SIZE,
+                    DENSITY_TILE_SIZE
+                );
+            }
+        }
+    }
+
+    private void drawLinks(final Graphics2D g, final DisplaySnapshot<T, P> snapshot, final Map<Node<T>, Point> onView) {
         if (!paintLinks) {
             return;
         }
         g.setColor(Color.GRAY);
-        onView.keySet().parallelStream()
-            .map(neighbors::get)
-            .flatMap(neigh ->
-                neigh.getNeighbors().parallelStream()
-                    .map(node ->
-                        node.compareTo(neigh.getCenter()) > 0
-                            ? new Pair<>(neigh.getCenter(), node)
-                            : new Pair<>(node, neigh.getCenter())
-                    )
-            )
-            .distinct()
-            .map(pair ->
-                mapPair(
-                    pair,
-                    node -> Optional
-                        .ofNullable(onView.get(node))
-                        .orElse(wormhole.getViewPoint(positions.get(node)))
-                )
-            )
-            .forEachOrdered(line -> {
-                final Point p1 = line.getFirst();
-                final Point p2 = line.getSecond();
-                g.drawLine(p1.x, p1.y, p2.x, p2.y);
-            });
+        for (int link = 0; link < snapshot.linkCount(); link++) {
+            final int source = snapshot.linkSource(link);
+            final int target = snapshot.linkTarget(link);
+            Point p1 = onView.get(snapshot.node(source));
+            Point p2 = onView.get(snapshot.node(target));
+            if (p1 != null || p2 != null) {
+                p1 = p1 == null ? wormhole.getViewPoint(snapshot.position(source)) : p1;
+                p2 = p2 == null ? wormhole.getViewPoint(snapshot.position(target)) : p2;
+                /*
+                 * Links shorter than a pixel are not visible
+                 */
+                if (!p1.equals(p2)) {
+                    g.drawLine(p1.x, p1.y, p2.x, p2.y);
+                }
+            }
+        }
     }
 
     private void moveSelectedNodesOnView(final Map<Node<T>, Point> onView) {
@@ -458,6 +552,32 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
             });
     }
 
+    /*
+     * Finds the closest node in environment coordinates, without projecting all the visible nodes on the view.
+     */
+    private void highlightClosestNode(final Graphics2D g, final DisplaySnapshot<T, P> snapshot, final int visibleCount) {
+        if (!isCloserNodeMarked()) {
+            nearest = null;
+            return;
+        }
+        final P mouse = wormhole.getEnvPoint(new Point(mouseX, mouseY));
+        int closest = -1;
+        double minDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < visibleCount; i++) {
+            final int index = visibleNodes[i];
+            final double distance = Math.hypot(snapshot.x(index) - mouse.getX(), snapshot.y(index) - mouse.getY());
+            if (distance < minDistance) {
+                minDistance = distance;
+                closest = index;
+            }
+        }
+        if (closest >= 0) {
+            nearest = snapshot.node(closest);
+            final Point point = wormhole.getViewPoint(snapshot.position(closest));
+            drawFriedEgg(g, point.x, point.y, Color.RED, Color.YELLOW);
+        }
+    }
+
     private double distanceFromMouse(final Point point) {
         return Math.hypot(point.x - mouseX, point.y - mouseY);
     }
@@ -606,10 +726,6 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
         drawEnvOnView((Graphics2D) g);
     }
 
-    private void releaseData() {
-        mapConsistencyMutex.release();
-    }
-
     @Override
     public final void repaint() {
         super.repaint();
@@ -642,6 +758,13 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
     public final void setDrawLinks(final boolean b) {
         if (paintLinks != b) {
             paintLinks = b;
+            /*
+             * Links are only copied in snapshots while they are displayed: take a new snapshot
+             */
+            final Simulation<T, P> simulation = currentEnv == null ? null : currentEnv.getSimulationOrNull();
+            if (b && simulation != null) {
+                simulation.schedule(() -> update(currentEnv, simulation.getTime()));
+            }
             repaint();
         }
     }
@@ -755,14 +878,12 @@ public class Generic2DDisplay<T, P extends Position2D<P>> extends JPanel impleme
             }
             lastTime = time.toDouble();
             currentEnv = environment;
-            accessData();
-            positions.clear();
-            neighbors.clear();
-            environment.getNodes().parallelStream().forEach(node -> {
-                positions.put(node, environment.getPosition(node));
-                neighbors.put(node, environment.getNeighborhood(node));
-            });
-            releaseData();
+            final DisplaySnapshot<T, P> snapshot = backSnapshot == paintedSnapshot
+                ? new DisplaySnapshot<>()
+                : backSnapshot;
+            snapshot.fill(environment, paintLinks);
+            backSnapshot = frontSnapshot;
+            frontSnapshot = snapshot;
             repaint();
         } else {
             throw new IllegalStateException("Only the simulation thread can dictate GUI updates");
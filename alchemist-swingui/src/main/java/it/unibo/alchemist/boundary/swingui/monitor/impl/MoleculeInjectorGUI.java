@@ -63,7 +63,7 @@ public final class MoleculeInjectorGUI<T> extends JPanel {
     private static final List<Incarnation<?, ?>> INCARNATIONS = new LinkedList<>();
 
     static {
-        final var incarnations = ClassPathScanner.subTypesOf(Incarnation.class).stream()
+        final var incarnations = ClassPathScanner.allSubTypesOf(Incarnation.class).stream()
             .map(it -> (Class<? extends Incarnation<?, ?>>) it)
             .toList();
         for (final Class<? extends Incarnation<?, ?>> clazz: incarnations) {
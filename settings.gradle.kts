@@ -14,6 +14,7 @@ plugins {
 
 include(
     "alchemist-api",
+    "alchemist-benchmarks",
     "alchemist-composeui",
     "alchemist-cognitive-agents",
     "alchemist-engine",